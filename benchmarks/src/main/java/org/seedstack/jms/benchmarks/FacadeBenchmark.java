@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the overhead of the {@code ManagedSession} and {@code ManagedMessageConsumer} facades compared to the
+ * vendor objects they delegate to, here no-op stubs, when shared by many threads. The {@link #main(String[])} method
+ * runs the benchmark with 1, 4, 16 and 64 threads, otherwise the thread count is given with the {@code -t} option.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FacadeBenchmark {
+    @Param({"RAW", "MANAGED"})
+    public String facade;
+
+    private Session session;
+    private MessageConsumer messageConsumer;
+
+    @Setup
+    public void setUp() {
+        Session vendorSession = Stubs.stub(Session.class);
+        MessageConsumer vendorMessageConsumer = Stubs.stub(MessageConsumer.class);
+        if ("MANAGED".equals(facade)) {
+            Class<?> managedSessionClass = Internals.type("ManagedSession");
+            Object managedSession = Internals.newInstance("ManagedSession",
+                    new Class<?>[]{Session.class, boolean.class, int.class, boolean.class,
+                            Internals.type("ManagedConnection")},
+                    vendorSession,
+                    true,
+                    Session.SESSION_TRANSACTED,
+                    false,
+                    null);
+            session = (Session) managedSession;
+            messageConsumer = (MessageConsumer) Internals.newInstance("ManagedMessageConsumer",
+                    new Class<?>[]{MessageConsumer.class, Destination.class, String.class, boolean.class,
+                            boolean.class, managedSessionClass},
+                    vendorMessageConsumer,
+                    Stubs.stub(Destination.class),
+                    null,
+                    false,
+                    true,
+                    managedSession);
+        } else {
+            session = vendorSession;
+            messageConsumer = vendorMessageConsumer;
+        }
+    }
+
+    @Benchmark
+    public TextMessage createTextMessage() throws JMSException {
+        return session.createTextMessage();
+    }
+
+    @Benchmark
+    public Message receiveNoWait() throws JMSException {
+        return messageConsumer.receiveNoWait();
+    }
+
+    @Benchmark
+    public void commit() throws JMSException {
+        session.commit();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 4, 16, 64}) {
+            Options options = new OptionsBuilder()
+                    .include(FacadeBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reflective access to the package-private classes of {@code org.seedstack.jms.internal}, so the benchmarks don't
+ * have to be declared in the packages of the add-on. Internal objects are created and configured through reflection
+ * during the setup of the benchmarks. Internal methods called in a measured path are called through method handles
+ * which, held in static final fields, are compiled like direct calls.
+ */
+final class Internals {
+    private static final String INTERNAL_PACKAGE = "org.seedstack.jms.internal.";
+
+    private Internals() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Loads an internal class.
+     *
+     * @param simpleName the simple name of the class.
+     * @return the class.
+     */
+    static Class<?> type(String simpleName) {
+        try {
+            return Class.forName(INTERNAL_PACKAGE + simpleName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to load internal class " + simpleName, e);
+        }
+    }
+
+    /**
+     * Creates an instance of an internal class.
+     *
+     * @param simpleName     the simple name of the class.
+     * @param parameterTypes the parameter types of the constructor.
+     * @param args           the constructor arguments.
+     * @return the instance.
+     */
+    static Object newInstance(String simpleName, Class<?>[] parameterTypes, Object... args) {
+        try {
+            Constructor<?> constructor = type(simpleName).getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            throw propagate(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create an instance of internal class " + simpleName, e);
+        }
+    }
+
+    /**
+     * Invokes a method of an internal object outside of a measured path.
+     *
+     * @param target         the object, or its class for a static method.
+     * @param methodName     the name of the method.
+     * @param parameterTypes the parameter types of the method.
+     * @param args           the method arguments.
+     * @return the result of the method.
+     */
+    static Object invoke(Object target, String methodName, Class<?>[] parameterTypes, Object... args) {
+        Class<?> targetClass = target instanceof Class ? (Class<?>) target : target.getClass();
+        try {
+            Method method = targetClass.getDeclaredMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            return method.invoke(target instanceof Class ? null : target, args);
+        } catch (InvocationTargetException e) {
+            throw propagate(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to invoke internal method " + methodName, e);
+        }
+    }
+
+    /**
+     * Creates a handle on an instance method of an internal class, whose receiver is typed as {@link Object} so it can
+     * be invoked exactly from outside of the package.
+     *
+     * @param simpleName     the simple name of the class.
+     * @param methodName     the name of the method.
+     * @param returnType     the return type of the method.
+     * @param parameterTypes the parameter types of the method.
+     * @return the method handle.
+     */
+    static MethodHandle handle(String simpleName, String methodName, Class<?> returnType,
+            Class<?>... parameterTypes) {
+        try {
+            Method method = type(simpleName).getDeclaredMethod(methodName, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflect(method)
+                    .asType(MethodType.methodType(returnType, Object.class, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to access internal method " + methodName, e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else {
+            return new IllegalStateException(cause);
+        }
+    }
+}
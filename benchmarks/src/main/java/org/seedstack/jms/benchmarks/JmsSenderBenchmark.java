@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.command.ActiveMQTopic;
+import org.seedstack.jms.JmsSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the sending of a batch of text messages on an embedded ActiveMQ broker, with {@link JmsSender} or with a
+ * session and a producer created for each message. Messages are sent to a topic without subscribers so the broker
+ * discards them and producer flow control never kicks in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JmsSenderBenchmark {
+    @Param({"100"})
+    public int batchSize;
+
+    private Connection connection;
+    private Destination destination;
+    private List<String> batch;
+    private Object sessionPool;
+    private JmsSender jmsSender;
+
+    @Setup
+    public void setUp() throws JMSException {
+        connection = new ActiveMQConnectionFactory("vm://sender-benchmark?broker.persistent=false")
+                .createConnection();
+        connection.start();
+        destination = new ActiveMQTopic("benchmark");
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add("message" + i);
+        }
+        sessionPool = Internals.newInstance("JmsSessionPool",
+                new Class<?>[]{Connection.class, int.class, int.class},
+                connection,
+                8,
+                60000);
+        jmsSender = (JmsSender) Internals.newInstance("JmsSenderImpl",
+                new Class<?>[]{String.class, Internals.type("JmsSessionPool"), Executor.class},
+                "benchmark",
+                sessionPool,
+                (Executor) Runnable::run);
+    }
+
+    @TearDown
+    public void tearDown() throws JMSException {
+        Internals.invoke(sessionPool, "clear", new Class<?>[0]);
+        connection.close();
+    }
+
+    @Benchmark
+    public void sendBatch() throws JMSException {
+        jmsSender.sendBatch(destination, batch);
+    }
+
+    @Benchmark
+    public void sendOneByOne() throws JMSException {
+        for (String text : batch) {
+            Session session = connection.createSession(true, Session.AUTO_ACKNOWLEDGE);
+            try {
+                MessageProducer producer = session.createProducer(destination);
+                producer.send(session.createTextMessage(text));
+                session.commit();
+            } finally {
+                session.close();
+            }
+        }
+    }
+}
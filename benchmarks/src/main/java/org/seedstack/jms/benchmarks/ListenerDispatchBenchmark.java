@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Singleton;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of dispatching a message to a listener through {@code MessageListenerAdapter}. The
+ * {@code keyLookup} benchmark resolves the listener from the injector for each message, as the adapter used to do,
+ * while the {@code adapter} benchmark uses the listener resolved once by the adapter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+// Guice generates classes through reflection, which must be opened on Java 9+
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ListenerDispatchBenchmark {
+    private static final String LISTENER_NAME = "benchmark";
+    private static final MethodHandle PUSH = Internals.handle("JmsSessionLink", "push", void.class, Session.class);
+    private static final MethodHandle POP = Internals.handle("JmsSessionLink", "pop", void.class);
+    private static final MethodHandle RECORD_MESSAGES = Internals.handle("MessageListenerStatistics",
+            "recordMessages",
+            void.class,
+            int.class,
+            long.class);
+
+    @Param({"SINGLETON", "UNSCOPED"})
+    public String scope;
+
+    private final Object listenerSessionLink = Internals.newInstance("JmsSessionLink", new Class<?>[0]);
+    private final Object statistics = Internals.newInstance("MessageListenerStatistics", new Class<?>[0]);
+    private final Key<MessageListener> key = Key.get(MessageListener.class, Names.named(LISTENER_NAME));
+    private Injector injector;
+    private Session session;
+    private Message message;
+    private MessageListener messageListenerAdapter;
+
+    @Setup
+    public void setUp() {
+        injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                requestStaticInjection(Internals.type("MessageListenerAdapter"));
+                bind(MessageListener.class).annotatedWith(Names.named(LISTENER_NAME))
+                        .to("SINGLETON".equals(scope) ? SingletonListener.class : UnscopedListener.class);
+            }
+        });
+        session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class<?>[]{Session.class},
+                (proxy, method, args) -> null);
+        message = new ActiveMQTextMessage();
+        messageListenerAdapter = (MessageListener) Internals.newInstance("MessageListenerAdapter",
+                new Class<?>[]{String.class, Session.class, Internals.type("JmsSessionLink"),
+                        Internals.type("MessageListenerStatistics")},
+                LISTENER_NAME,
+                session,
+                listenerSessionLink,
+                statistics);
+    }
+
+    @Benchmark
+    public void keyLookup() throws Throwable {
+        PUSH.invokeExact(listenerSessionLink, session);
+        long start = System.nanoTime();
+        try {
+            injector.getInstance(key).onMessage(message);
+        } finally {
+            RECORD_MESSAGES.invokeExact(statistics, 1, System.nanoTime() - start);
+            POP.invokeExact(listenerSessionLink);
+        }
+    }
+
+    @Benchmark
+    public void adapter() {
+        messageListenerAdapter.onMessage(message);
+    }
+
+    @Singleton
+    public static class SingletonListener implements MessageListener {
+        private int received;
+
+        @Override
+        public void onMessage(Message message) {
+            received++;
+        }
+    }
+
+    public static class UnscopedListener implements MessageListener {
+        private int received;
+
+        @Override
+        public void onMessage(Message message) {
+            received++;
+        }
+    }
+}
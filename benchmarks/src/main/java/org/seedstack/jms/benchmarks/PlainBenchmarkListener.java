@@ -0,0 +1,25 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import org.seedstack.jms.JmsMessageListener;
+
+/**
+ * Non-transactional listener dispatched to by the benchmarks running in a Seed kernel.
+ */
+@JmsMessageListener(connection = "benchmarkConnection", destinationName = "benchmark.plain")
+public class PlainBenchmarkListener implements MessageListener {
+    private int received;
+
+    @Override
+    public void onMessage(Message message) {
+        received++;
+    }
+}
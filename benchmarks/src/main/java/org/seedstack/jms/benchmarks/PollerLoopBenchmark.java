@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.jms.pollers.AbstractMessagePoller;
+import org.seedstack.jms.pollers.IdleStrategyMessagePoller;
+import org.seedstack.jms.pollers.SimpleMessagePoller;
+
+/**
+ * Measures one iteration of the polling loop (receive, dispatch and commit) against a stub consumer always returning a
+ * message, isolating the poller overhead from the provider. The pollers are subclassed to invoke the loop directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PollerLoopBenchmark {
+    @Param({"SIMPLE", "IDLE_STRATEGY"})
+    public String poller;
+
+    private AbstractMessagePoller messagePoller;
+    private PollingLoop pollingLoop;
+
+    @Setup
+    public void setUp() {
+        Message message = new ActiveMQTextMessage();
+        if ("SIMPLE".equals(poller)) {
+            messagePoller = new SimplePollingLoop();
+        } else {
+            messagePoller = new IdleStrategyPollingLoop();
+        }
+        pollingLoop = (PollingLoop) messagePoller;
+        messagePoller.setSession(Stubs.stub(Session.class));
+        messagePoller.setMessageConsumer(Stubs.returning(MessageConsumer.class, message));
+        messagePoller.setMessageListener(received -> {
+            // nothing to do
+        });
+    }
+
+    @Benchmark
+    public void poll() throws Exception {
+        pollingLoop.pollOnce();
+    }
+
+    private interface PollingLoop {
+        void pollOnce() throws Exception;
+    }
+
+    private static class SimplePollingLoop extends SimpleMessagePoller implements PollingLoop {
+        @Override
+        public void pollOnce() throws Exception {
+            poll();
+        }
+    }
+
+    private static class IdleStrategyPollingLoop extends IdleStrategyMessagePoller implements PollingLoop {
+        @Override
+        public void pollOnce() throws Exception {
+            poll();
+        }
+    }
+}
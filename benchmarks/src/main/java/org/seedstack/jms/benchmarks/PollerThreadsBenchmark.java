@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.pollers.SimpleMessagePoller;
+import org.seedstack.jms.pollers.VirtualThreads;
+
+/**
+ * Measures the throughput of {@link SimpleMessagePoller}s, one per queue, running on platform threads or on virtual
+ * threads. Messages are sent round-robin to the queues and the listener optionally blocks to simulate I/O. On runtimes
+ * without virtual threads, the {@code VIRTUAL} mode runs on platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PollerThreadsBenchmark {
+    private static final int MESSAGES = 1000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String threads;
+
+    @Param({"10", "1000"})
+    public int pollers;
+
+    @Param({"0", "1"})
+    public int listenerBlockingMillis;
+
+    private final List<SimpleMessagePoller> messagePollers = new ArrayList<>();
+    private final List<Queue> queues = new ArrayList<>();
+    private volatile CountDownLatch processed;
+    private Connection connection;
+    private Session producerSession;
+    private MessageProducer producer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JMSException {
+        connection = new ActiveMQConnectionFactory("vm://benchmark?broker.persistent=false&broker.useJmx=false")
+                .createConnection();
+        connection.start();
+
+        JmsConfig.ListenerConfig listenerConfig = new JmsConfig.ListenerConfig().setReceiveTimeout(1000);
+        for (int i = 0; i < pollers; i++) {
+            Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+            Queue queue = session.createQueue("benchmark.pollers." + i);
+            MessageConsumer consumer = session.createConsumer(queue);
+
+            SimpleMessagePoller messagePoller = new SimpleMessagePoller();
+            messagePoller.setSession(session);
+            messagePoller.setMessageConsumer(consumer);
+            messagePoller.setListenerConfig(listenerConfig);
+            messagePoller.setMessageListener(message -> {
+                if (listenerBlockingMillis > 0) {
+                    try {
+                        Thread.sleep(listenerBlockingMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                processed.countDown();
+            });
+            if ("VIRTUAL".equals(threads)) {
+                VirtualThreads.createFactory("benchmark-poller-").ifPresent(messagePoller::setThreadFactory);
+            }
+            messagePoller.start();
+
+            queues.add(queue);
+            messagePollers.add(messagePoller);
+        }
+
+        producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        producer = producerSession.createProducer(null);
+        producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws JMSException {
+        messagePollers.forEach(SimpleMessagePoller::stop);
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void sendAndProcess() throws Exception {
+        processed = new CountDownLatch(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            producer.send(queues.get(i % queues.size()), producerSession.createTextMessage("benchmark"));
+        }
+        if (!processed.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Messages not processed in time");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.reconnection.ExponentialBackoffPolicy;
+import org.seedstack.jms.spi.ConnectionDefinition;
+import org.seedstack.jms.spi.ReconnectionPolicy;
+
+/**
+ * Measures the time-to-recovery of a {@code ManagedConnection} with 500 sessions in each reconnection mode, from the
+ * failure of the connection until it is usable again. The sessions are created on stub connections whose session
+ * creation waits for {@code sessionLatency} microseconds, to stand for the round trip to a broker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReconnectionBenchmark {
+    private static final int SESSIONS = 500;
+    private static final int REFRESH_THREADS = 8;
+
+    @Param({"SERIAL", "MAKE_BEFORE_BREAK"})
+    public JmsConfig.ConnectionConfig.ReconnectionMode reconnectionMode;
+
+    @Param({"200"})
+    public long sessionLatency;
+
+    private Object threads;
+    private Connection managedConnection;
+
+    @Setup
+    public void setUp() throws JMSException {
+        ConnectionDefinition connectionDefinition = new ConnectionDefinition("benchmark",
+                latencyConnectionFactory(sessionLatency),
+                true,
+                false,
+                false,
+                null,
+                null,
+                null,
+                0,
+                null,
+                null);
+        threads = Internals.newInstance("JmsThreads", new Class<?>[]{int.class}, 1);
+        Object jmsFactory = Internals.newInstance("JmsFactoryImpl",
+                new Class<?>[]{String.class, JmsConfig.class, Map.class, Internals.type("JmsThreads")},
+                "benchmark",
+                new JmsConfig(),
+                new HashMap<>(),
+                threads);
+        managedConnection = (Connection) Internals.newInstance("ManagedConnection",
+                new Class<?>[]{ConnectionDefinition.class, Internals.type("JmsFactoryImpl"),
+                        JmsConfig.ConnectionConfig.ReconnectionMode.class, int.class, ReconnectionPolicy.class,
+                        Internals.type("JmsThreads")},
+                connectionDefinition,
+                jmsFactory,
+                reconnectionMode,
+                REFRESH_THREADS,
+                new ExponentialBackoffPolicy(0, 0, 1, 0, 0),
+                threads);
+        for (int i = 0; i < SESSIONS; i++) {
+            managedConnection.createSession(true, Session.SESSION_TRANSACTED);
+        }
+        managedConnection.start();
+    }
+
+    @TearDown
+    public void tearDown() throws JMSException {
+        managedConnection.close();
+        Internals.invoke(threads, "shutdown", new Class<?>[0]);
+    }
+
+    @Benchmark
+    public void timeToRecovery() {
+        ((ExceptionListener) managedConnection).onException(new JMSException("Connection lost"));
+        while (true) {
+            try {
+                managedConnection.getMetaData();
+                return;
+            } catch (JMSException e) {
+                // Not reconnected yet
+                Thread.yield();
+            }
+        }
+    }
+
+    private static ConnectionFactory latencyConnectionFactory(long sessionLatency) {
+        Session session = Stubs.stub(Session.class);
+        Connection connection = Stubs.stub(Connection.class);
+        Connection latencyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("createSession")) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(sessionLatency));
+                        return session;
+                    }
+                    return method.invoke(connection, args);
+                });
+        return Stubs.returning(ConnectionFactory.class, latencyConnection);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the thread-bound session handling: {@code JmsSessionLink} push and pop around each message, and the calls
+ * made on the injectable {@link Session} proxy compared to direct calls on a stub session.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SessionLinkBenchmark {
+    private static final MethodHandle PUSH = Internals.handle("JmsSessionLink", "push", void.class, Session.class);
+    private static final MethodHandle POP = Internals.handle("JmsSessionLink", "pop", Session.class);
+    private final Object jmsSessionLink = Internals.newInstance("JmsSessionLink", new Class<?>[0]);
+    private Session session;
+    private Session sessionProxy;
+
+    @Setup
+    public void setUp() {
+        session = Stubs.stub(Session.class);
+        sessionProxy = (Session) Internals.invoke(Internals.type("JmsSessionProxy"),
+                "create",
+                new Class<?>[]{Internals.type("JmsSessionLink")},
+                jmsSessionLink);
+        // State setup runs on the benchmark thread, so the session stays current for the proxy
+        Internals.invoke(jmsSessionLink, "push", new Class<?>[]{Session.class}, session);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Internals.invoke(jmsSessionLink, "pop", new Class<?>[0]);
+    }
+
+    @Benchmark
+    public Session pushPop() throws Throwable {
+        PUSH.invokeExact(jmsSessionLink, session);
+        return (Session) POP.invokeExact(jmsSessionLink);
+    }
+
+    @Benchmark
+    public TextMessage directCall() throws JMSException {
+        return session.createTextMessage();
+    }
+
+    @Benchmark
+    public TextMessage proxiedCall() throws JMSException {
+        return sessionProxy.createTextMessage();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * No-op implementations of JMS interfaces, used to measure the add-on without any provider work.
+ */
+public final class Stubs {
+    private Stubs() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Creates a no-op implementation of an interface. Methods returning a primitive return its default value, other
+     * methods return null.
+     *
+     * @param type the interface to implement.
+     * @param <T>  the type of the interface.
+     * @return the no-op implementation.
+     */
+    public static <T> T stub(Class<T> type) {
+        return returning(type, null);
+    }
+
+    /**
+     * Creates a no-op implementation of an interface whose methods returning a type compatible with the specified
+     * value return it, for instance a consumer always receiving the same message. Other methods behave as with
+     * {@link #stub(Class)}.
+     *
+     * @param type  the interface to implement.
+     * @param value the value to return.
+     * @param <T>   the type of the interface.
+     * @return the no-op implementation.
+     */
+    public static <T> T returning(Class<T> type, Object value) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (value != null && returnType.isInstance(value)) {
+                return value;
+            } else if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == int.class) {
+                return 0;
+            } else if (returnType == long.class) {
+                return 0L;
+            } else if (returnType.isPrimitive() && returnType != void.class) {
+                throw new UnsupportedOperationException("Unsupported return type " + returnType);
+            }
+            return null;
+        }));
+    }
+}
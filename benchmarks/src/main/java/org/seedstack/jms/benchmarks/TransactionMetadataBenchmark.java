@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.jms.JmsConnection;
+import org.seedstack.seed.transaction.Transactional;
+import org.seedstack.seed.transaction.spi.TransactionMetadata;
+import org.seedstack.seed.transaction.spi.TransactionMetadataResolver;
+
+/**
+ * Measures the resolution of the transaction metadata of an intercepted {@code @Transactional} method, either the
+ * {@code onMessage} method of a listener or a sender method annotated with {@link JmsConnection}. The {@code resolve}
+ * benchmark goes through the per-method cache of {@code JmsTransactionMetadataResolver} while the {@code reflect}
+ * benchmark performs the reflective resolution done for each invocation before the cache existed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionMetadataBenchmark {
+    @Param({"LISTENER", "SENDER"})
+    public String target;
+
+    private static final MethodHandle RESOLVE_METADATA = Internals.handle("JmsTransactionMetadataResolver",
+            "resolveMetadata",
+            Optional.class,
+            Method.class);
+    private final TransactionMetadataResolver resolver = (TransactionMetadataResolver) Internals.newInstance(
+            "JmsTransactionMetadataResolver",
+            new Class<?>[0]);
+    private Method method;
+    private MethodInvocation methodInvocation;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        if ("LISTENER".equals(target)) {
+            method = TransactionalListener.class.getMethod("onMessage", Message.class);
+        } else {
+            method = TransactionalSender.class.getMethod("send", String.class);
+        }
+        methodInvocation = new FixedMethodInvocation(method);
+    }
+
+    @Benchmark
+    public TransactionMetadata resolve() {
+        return resolver.resolve(methodInvocation, null);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Optional<TransactionMetadata> reflect() throws Throwable {
+        return (Optional<TransactionMetadata>) RESOLVE_METADATA.invokeExact((Object) resolver, method);
+    }
+
+    public static class TransactionalListener implements MessageListener {
+        @Override
+        @Transactional
+        public void onMessage(Message message) {
+            // nothing to do
+        }
+    }
+
+    public static class TransactionalSender {
+        @Transactional
+        @JmsConnection("connection")
+        public void send(String text) {
+            // nothing to do
+        }
+    }
+
+    private static class FixedMethodInvocation implements MethodInvocation {
+        private final Method method;
+
+        private FixedMethodInvocation(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object proceed() {
+            return null;
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.benchmarks;
+
+import io.nuun.kernel.api.Kernel;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.seed.core.Seed;
+
+/**
+ * Measures the dispatch of a message by {@code MessageListenerAdapter} to a listener managed by a Seed kernel, with or
+ * without going through the transaction interceptor. The transaction of the {@code TRANSACTIONAL} listener is committed
+ * on the listener session of an embedded ActiveMQ broker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+// Guice generates classes through reflection, which must be opened on Java 9+
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionalDispatchBenchmark {
+    @Param({"TRANSACTIONAL", "PLAIN"})
+    public String listener;
+
+    private Kernel kernel;
+    private Message message;
+    private MessageListener messageListenerAdapter;
+
+    @Setup
+    public void setUp() {
+        kernel = Seed.createKernel();
+        Class<?> listenerClass;
+        if ("TRANSACTIONAL".equals(listener)) {
+            listenerClass = TransactionalBenchmarkListener.class;
+        } else {
+            listenerClass = PlainBenchmarkListener.class;
+        }
+        message = new ActiveMQTextMessage();
+        messageListenerAdapter = (MessageListener) Internals.newInstance("MessageListenerAdapter",
+                new Class<?>[]{String.class, Session.class, Internals.type("JmsSessionLink"),
+                        Internals.type("MessageListenerStatistics")},
+                listenerClass.getCanonicalName(),
+                Stubs.stub(Session.class),
+                Internals.newInstance("JmsSessionLink", new Class<?>[0]),
+                Internals.newInstance("MessageListenerStatistics", new Class<?>[0]));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Seed.disposeKernel(kernel);
+    }
+
+    @Benchmark
+    public void dispatch() {
+        messageListenerAdapter.onMessage(message);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import java.util.Collections;
+import java.util.List;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+
+/**
+ * A message listener receiving messages by batches. When annotated with {@link JmsMessageListener}, messages are
+ * polled by {@link org.seedstack.jms.pollers.BatchMessagePoller} unless another poller is specified, and the session
+ * is committed once per batch.
+ */
+public interface BatchMessageListener extends MessageListener {
+    /**
+     * Invoked with a batch of received messages, in reception order. Throwing an exception rollbacks the whole batch.
+     *
+     * @param messages the received messages.
+     */
+    void onMessages(List<Message> messages);
+
+    /**
+     * Invoked when messages are delivered one by one. Delegates to {@link #onMessages(List)} with a single message.
+     *
+     * @param message the received message.
+     */
+    @Override
+    default void onMessage(Message message) {
+        onMessages(Collections.singletonList(message));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import javax.jms.JMSException;
+
+/**
+ * Thrown by a managed connection whose circuit breaker is open, after consecutive failed reconnection attempts, so
+ * callers fail fast until the connection is restored.
+ */
+public class JMSCircuitOpenException extends JMSException {
+    private final String connectionName;
+    private final long nextAttempt;
+
+    public JMSCircuitOpenException(String connectionName, long nextAttempt) {
+        super("Managed JMS connection " + connectionName + " is unavailable after repeated reconnection failures");
+        this.connectionName = connectionName;
+        this.nextAttempt = nextAttempt;
+    }
+
+    /**
+     * @return the name of the unavailable connection.
+     */
+    public String getConnectionName() {
+        return connectionName;
+    }
+
+    /**
+     * @return the time of the next reconnection attempt in milliseconds since the epoch.
+     */
+    public long getNextAttempt() {
+        return nextAttempt;
+    }
+}
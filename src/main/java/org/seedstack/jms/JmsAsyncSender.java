@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+
+/**
+ * Sends messages in the background on a JMS connection. A sender is bound for each connection and can be injected with
+ * the connection name as qualifier (like {@code @Named("connectionName") JmsAsyncSender}).
+ *
+ * <p>Messages are buffered and returned immediately. Sender threads wait up to {@code linger} milliseconds for more
+ * messages, then send them by transacted batches of at most {@code batchSize} messages per destination. These options
+ * are set under {@code jms.connections.<connectionName>.asyncSend}. Messages sent to the same destination are
+ * delivered in order when a single sender thread is configured, which is the default.</p>
+ *
+ * <p>Messages can be JMS messages or objects converted as described in {@link JmsSender}.</p>
+ */
+public interface JmsAsyncSender {
+    /**
+     * Buffers a message to be sent. When the buffer is full, the call blocks up to {@code maxBlock} milliseconds or
+     * fails immediately if {@code blockWhenFull} is false.
+     *
+     * @param destination the destination of the message.
+     * @param message     the message or object to send.
+     * @return a completion stage completed when the batch containing the message is committed or completed
+     * exceptionally if it cannot be sent.
+     * @throws javax.jms.ResourceAllocationException if the buffer is full.
+     * @throws JMSException                          if the sender is closed.
+     */
+    CompletionStage<Void> send(Destination destination, Object message) throws JMSException;
+
+    /**
+     * @return the number of messages buffered and not sent yet.
+     */
+    int getBufferedMessages();
+
+    /**
+     * @return the statistics of each destination messages have been sent to.
+     */
+    Map<Destination, Statistics> getStatistics();
+
+    /**
+     * Counters of the messages sent to a destination.
+     */
+    interface Statistics {
+        /**
+         * @return the number of messages sent and committed.
+         */
+        long getSentMessages();
+
+        /**
+         * @return the number of messages which could not be sent.
+         */
+        long getFailedMessages();
+
+        /**
+         * @return the number of committed batches.
+         */
+        long getSentBatches();
+    }
+}
@@ -15,14 +15,24 @@ import java.util.Properties;
 import javax.jms.ConnectionFactory;
 import javax.jms.ExceptionListener;
 import org.seedstack.coffig.Config;
+import org.seedstack.jms.pollers.IdleStrategyType;
 import org.seedstack.jms.spi.JmsExceptionHandler;
+import org.seedstack.jms.spi.MessageKeyExtractor;
+import org.seedstack.jms.spi.ReconnectionPolicy;
+import org.seedstack.jms.spi.SharedSubscriptionEmulator;
 import org.seedstack.seed.validation.NotBlank;
 
 @Config("jms")
 public class JmsConfig {
+    private static final int DEFAULT_SCHEDULER_THREADS = 4;
+
     private boolean enabled = true;
     private Map<String, ConnectionFactoryConfig> connectionFactories = new HashMap<>();
     private Map<String, ConnectionConfig> connections = new HashMap<>();
+    private Map<String, DestinationConfig> destinations = new HashMap<>();
+    private Map<String, ListenerConfig> listeners = new HashMap<>();
+    private SharedPollingConfig sharedPolling = new SharedPollingConfig();
+    private int schedulerThreads = DEFAULT_SCHEDULER_THREADS;
 
     public boolean isEnabled() {
         return enabled;
@@ -51,6 +61,37 @@ public class JmsConfig {
         return this;
     }
 
+    public Map<String, DestinationConfig> getDestinations() {
+        return Collections.unmodifiableMap(destinations);
+    }
+
+    public JmsConfig addDestination(String name, DestinationConfig destinationConfig) {
+        this.destinations.put(name, destinationConfig);
+        return this;
+    }
+
+    public Map<String, ListenerConfig> getListeners() {
+        return Collections.unmodifiableMap(listeners);
+    }
+
+    public JmsConfig addListener(String name, ListenerConfig listenerConfig) {
+        this.listeners.put(name, listenerConfig);
+        return this;
+    }
+
+    public SharedPollingConfig getSharedPolling() {
+        return sharedPolling;
+    }
+
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+
+    public JmsConfig setSchedulerThreads(int schedulerThreads) {
+        this.schedulerThreads = schedulerThreads;
+        return this;
+    }
+
     public static class ConnectionFactoryConfig {
         private static final String DEFAULT_JNDI_CONTEXT = "default";
 
@@ -101,13 +142,44 @@ public class JmsConfig {
         }
     }
 
+    public static class DestinationConfig {
+        private static final String DEFAULT_JNDI_CONTEXT = "default";
+
+        @NotBlank
+        private String jndiName;
+        private String jndiContext = DEFAULT_JNDI_CONTEXT;
+
+        public String getJndiName() {
+            return jndiName;
+        }
+
+        public DestinationConfig setJndiName(String jndiName) {
+            this.jndiName = jndiName;
+            return this;
+        }
+
+        public String getJndiContext() {
+            return jndiContext;
+        }
+
+        public DestinationConfig setJndiContext(String jndiContext) {
+            this.jndiContext = jndiContext;
+            return this;
+        }
+    }
+
     public static class ConnectionConfig {
         private static final int DEFAULT_RECONNECTION_DELAY = 30000;
+        private static final int DEFAULT_MAX_IDLE_SESSIONS = 8;
+        private static final int DEFAULT_SESSION_IDLE_TIMEOUT = 60000;
+        private static final int DEFAULT_PHYSICAL_CONNECTIONS = 1;
+        private static final int DEFAULT_REFRESH_THREADS = 8;
 
         @NotBlank
         private String connectionFactory;
         private Class<? extends ExceptionListener> exceptionListener;
         private Class<? extends JmsExceptionHandler> exceptionHandler;
+        private Class<? extends SharedSubscriptionEmulator> sharedSubscriptionEmulator;
         private String clientId;
         private String user;
         private String password;
@@ -115,6 +187,14 @@ public class JmsConfig {
         private boolean jeeMode = false;
         private Boolean setClientId;
         private int reconnectionDelay = DEFAULT_RECONNECTION_DELAY;
+        private int maxIdleSessions = DEFAULT_MAX_IDLE_SESSIONS;
+        private int sessionIdleTimeout = DEFAULT_SESSION_IDLE_TIMEOUT;
+        private int physicalConnections = DEFAULT_PHYSICAL_CONNECTIONS;
+        private StripingStrategy stripingStrategy = StripingStrategy.ROUND_ROBIN;
+        private ReconnectionMode reconnectionMode = ReconnectionMode.SERIAL;
+        private int refreshThreads = DEFAULT_REFRESH_THREADS;
+        private AsyncSendConfig asyncSend = new AsyncSendConfig();
+        private ReconnectionConfig reconnection = new ReconnectionConfig();
 
         public String getConnectionFactory() {
             return connectionFactory;
@@ -143,6 +223,16 @@ public class JmsConfig {
             return this;
         }
 
+        public Class<? extends SharedSubscriptionEmulator> getSharedSubscriptionEmulator() {
+            return sharedSubscriptionEmulator;
+        }
+
+        public ConnectionConfig setSharedSubscriptionEmulator(
+                Class<? extends SharedSubscriptionEmulator> sharedSubscriptionEmulator) {
+            this.sharedSubscriptionEmulator = sharedSubscriptionEmulator;
+            return this;
+        }
+
         @SuppressFBWarnings(value = "NM_CONFUSING", justification = "Stupid check")
         public String getClientId() {
             return clientId;
@@ -210,5 +300,507 @@ public class JmsConfig {
             this.reconnectionDelay = reconnectionDelay;
             return this;
         }
+
+        public int getMaxIdleSessions() {
+            return maxIdleSessions;
+        }
+
+        public ConnectionConfig setMaxIdleSessions(int maxIdleSessions) {
+            this.maxIdleSessions = maxIdleSessions;
+            return this;
+        }
+
+        public int getSessionIdleTimeout() {
+            return sessionIdleTimeout;
+        }
+
+        public ConnectionConfig setSessionIdleTimeout(int sessionIdleTimeout) {
+            this.sessionIdleTimeout = sessionIdleTimeout;
+            return this;
+        }
+
+        public int getPhysicalConnections() {
+            return physicalConnections;
+        }
+
+        public ConnectionConfig setPhysicalConnections(int physicalConnections) {
+            this.physicalConnections = physicalConnections;
+            return this;
+        }
+
+        public StripingStrategy getStripingStrategy() {
+            return stripingStrategy;
+        }
+
+        public ConnectionConfig setStripingStrategy(StripingStrategy stripingStrategy) {
+            this.stripingStrategy = stripingStrategy;
+            return this;
+        }
+
+        public ReconnectionMode getReconnectionMode() {
+            return reconnectionMode;
+        }
+
+        public ConnectionConfig setReconnectionMode(ReconnectionMode reconnectionMode) {
+            this.reconnectionMode = reconnectionMode;
+            return this;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public ConnectionConfig setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+            return this;
+        }
+
+        public AsyncSendConfig getAsyncSend() {
+            return asyncSend;
+        }
+
+        public ConnectionConfig setAsyncSend(AsyncSendConfig asyncSend) {
+            this.asyncSend = asyncSend;
+            return this;
+        }
+
+        public ReconnectionConfig getReconnection() {
+            return reconnection;
+        }
+
+        public ConnectionConfig setReconnection(ReconnectionConfig reconnection) {
+            this.reconnection = reconnection;
+            return this;
+        }
+
+        /**
+         * Selects the physical connection of new sessions when a managed connection has several of them.
+         */
+        public enum StripingStrategy {
+            /**
+             * Each physical connection is used in turn.
+             */
+            ROUND_ROBIN,
+            /**
+             * The physical connection with the fewest open sessions is used.
+             */
+            LEAST_SESSIONS
+        }
+
+        /**
+         * Selects how a managed connection is recreated after a failure.
+         */
+        public enum ReconnectionMode {
+            /**
+             * The new connection is created and the sessions are refreshed one after the other while the connection
+             * is locked.
+             */
+            SERIAL,
+            /**
+             * The new connection is created and the sessions are refreshed in parallel by {@code refreshThreads}
+             * threads without locking the connection, which is published once every session is refreshed.
+             */
+            MAKE_BEFORE_BREAK
+        }
+    }
+
+    public static class ListenerConfig {
+        private static final int DEFAULT_SCALING_INTERVAL = 10000;
+        private static final int DEFAULT_BACKLOG_PER_CONSUMER = 10;
+        private static final int DEFAULT_BATCH_SIZE = 100;
+        private static final int DEFAULT_BATCH_TIMEOUT = 500;
+        private static final int DEFAULT_COMMIT_INTERVAL = 1000;
+        private static final int DEFAULT_COMMIT_LATENCY_TARGET = 50;
+        private static final int DEFAULT_RECEIVE_TIMEOUT = 30000;
+        private static final int DEFAULT_RESTART_DELAY = 10000;
+        private static final int DEFAULT_MAX_SPINS = 100;
+        private static final int DEFAULT_MAX_YIELDS = 10;
+        private static final int DEFAULT_MIN_PARK_PERIOD = 1;
+        private static final int DEFAULT_MAX_PARK_PERIOD = 1000;
+        private static final int DEFAULT_DISPATCH_WINDOW = 100;
+        private static final int DEFAULT_HAND_OFF_CAPACITY = 256;
+
+        private Integer concurrency;
+        private Integer maxConcurrency;
+        private int scalingInterval = DEFAULT_SCALING_INTERVAL;
+        private int backlogPerConsumer = DEFAULT_BACKLOG_PER_CONSUMER;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private int batchTimeout = DEFAULT_BATCH_TIMEOUT;
+        private int maxCommitBatchSize = 1;
+        private int commitInterval = DEFAULT_COMMIT_INTERVAL;
+        private int commitLatencyTarget = DEFAULT_COMMIT_LATENCY_TARGET;
+        private int receiveTimeout = DEFAULT_RECEIVE_TIMEOUT;
+        private int restartDelay = DEFAULT_RESTART_DELAY;
+        private IdleStrategyType idleStrategy = IdleStrategyType.BACKOFF;
+        private int maxSpins = DEFAULT_MAX_SPINS;
+        private int maxYields = DEFAULT_MAX_YIELDS;
+        private int minParkPeriod = DEFAULT_MIN_PARK_PERIOD;
+        private int maxParkPeriod = DEFAULT_MAX_PARK_PERIOD;
+        private boolean virtualThreads;
+        private int dispatchThreads = Runtime.getRuntime().availableProcessors();
+        private int dispatchWindow = DEFAULT_DISPATCH_WINDOW;
+        private Class<? extends MessageKeyExtractor> keyExtractor;
+        private int handOffCapacity = DEFAULT_HAND_OFF_CAPACITY;
+        private int refreshPriority;
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public ListenerConfig setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Integer getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public ListenerConfig setMaxConcurrency(Integer maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public int getScalingInterval() {
+            return scalingInterval;
+        }
+
+        public ListenerConfig setScalingInterval(int scalingInterval) {
+            this.scalingInterval = scalingInterval;
+            return this;
+        }
+
+        public int getBacklogPerConsumer() {
+            return backlogPerConsumer;
+        }
+
+        public ListenerConfig setBacklogPerConsumer(int backlogPerConsumer) {
+            this.backlogPerConsumer = backlogPerConsumer;
+            return this;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public ListenerConfig setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public int getBatchTimeout() {
+            return batchTimeout;
+        }
+
+        public ListenerConfig setBatchTimeout(int batchTimeout) {
+            this.batchTimeout = batchTimeout;
+            return this;
+        }
+
+        public int getMaxCommitBatchSize() {
+            return maxCommitBatchSize;
+        }
+
+        public ListenerConfig setMaxCommitBatchSize(int maxCommitBatchSize) {
+            this.maxCommitBatchSize = maxCommitBatchSize;
+            return this;
+        }
+
+        public int getCommitInterval() {
+            return commitInterval;
+        }
+
+        public ListenerConfig setCommitInterval(int commitInterval) {
+            this.commitInterval = commitInterval;
+            return this;
+        }
+
+        public int getCommitLatencyTarget() {
+            return commitLatencyTarget;
+        }
+
+        public ListenerConfig setCommitLatencyTarget(int commitLatencyTarget) {
+            this.commitLatencyTarget = commitLatencyTarget;
+            return this;
+        }
+
+        public int getReceiveTimeout() {
+            return receiveTimeout;
+        }
+
+        public ListenerConfig setReceiveTimeout(int receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+            return this;
+        }
+
+        public int getRestartDelay() {
+            return restartDelay;
+        }
+
+        public ListenerConfig setRestartDelay(int restartDelay) {
+            this.restartDelay = restartDelay;
+            return this;
+        }
+
+        public IdleStrategyType getIdleStrategy() {
+            return idleStrategy;
+        }
+
+        public ListenerConfig setIdleStrategy(IdleStrategyType idleStrategy) {
+            this.idleStrategy = idleStrategy;
+            return this;
+        }
+
+        public int getMaxSpins() {
+            return maxSpins;
+        }
+
+        public ListenerConfig setMaxSpins(int maxSpins) {
+            this.maxSpins = maxSpins;
+            return this;
+        }
+
+        public int getMaxYields() {
+            return maxYields;
+        }
+
+        public ListenerConfig setMaxYields(int maxYields) {
+            this.maxYields = maxYields;
+            return this;
+        }
+
+        public int getMinParkPeriod() {
+            return minParkPeriod;
+        }
+
+        public ListenerConfig setMinParkPeriod(int minParkPeriod) {
+            this.minParkPeriod = minParkPeriod;
+            return this;
+        }
+
+        public int getMaxParkPeriod() {
+            return maxParkPeriod;
+        }
+
+        public ListenerConfig setMaxParkPeriod(int maxParkPeriod) {
+            this.maxParkPeriod = maxParkPeriod;
+            return this;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public ListenerConfig setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public int getDispatchThreads() {
+            return dispatchThreads;
+        }
+
+        public ListenerConfig setDispatchThreads(int dispatchThreads) {
+            this.dispatchThreads = dispatchThreads;
+            return this;
+        }
+
+        public int getDispatchWindow() {
+            return dispatchWindow;
+        }
+
+        public ListenerConfig setDispatchWindow(int dispatchWindow) {
+            this.dispatchWindow = dispatchWindow;
+            return this;
+        }
+
+        public Class<? extends MessageKeyExtractor> getKeyExtractor() {
+            return keyExtractor;
+        }
+
+        public ListenerConfig setKeyExtractor(Class<? extends MessageKeyExtractor> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            return this;
+        }
+
+        public int getHandOffCapacity() {
+            return handOffCapacity;
+        }
+
+        public ListenerConfig setHandOffCapacity(int handOffCapacity) {
+            this.handOffCapacity = handOffCapacity;
+            return this;
+        }
+
+        public int getRefreshPriority() {
+            return refreshPriority;
+        }
+
+        public ListenerConfig setRefreshPriority(int refreshPriority) {
+            this.refreshPriority = refreshPriority;
+            return this;
+        }
+    }
+
+    public static class ReconnectionConfig {
+        private static final int DEFAULT_MAX_DELAY = 300000;
+        private static final double DEFAULT_MULTIPLIER = 1;
+        private static final double DEFAULT_JITTER = 0.5;
+
+        private Class<? extends ReconnectionPolicy> policy;
+        private int maxDelay = DEFAULT_MAX_DELAY;
+        private double multiplier = DEFAULT_MULTIPLIER;
+        private double jitter = DEFAULT_JITTER;
+        private int circuitBreakerThreshold;
+
+        public Class<? extends ReconnectionPolicy> getPolicy() {
+            return policy;
+        }
+
+        public ReconnectionConfig setPolicy(Class<? extends ReconnectionPolicy> policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        public int getMaxDelay() {
+            return maxDelay;
+        }
+
+        public ReconnectionConfig setMaxDelay(int maxDelay) {
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public ReconnectionConfig setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public ReconnectionConfig setJitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public int getCircuitBreakerThreshold() {
+            return circuitBreakerThreshold;
+        }
+
+        public ReconnectionConfig setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+            this.circuitBreakerThreshold = circuitBreakerThreshold;
+            return this;
+        }
+    }
+
+    public static class AsyncSendConfig {
+        private static final int DEFAULT_BUFFER_CAPACITY = 10000;
+        private static final int DEFAULT_BATCH_SIZE = 500;
+        private static final int DEFAULT_LINGER = 5;
+        private static final int DEFAULT_SENDER_THREADS = 1;
+        private static final int DEFAULT_MAX_BLOCK = 60000;
+
+        private int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private int linger = DEFAULT_LINGER;
+        private int senderThreads = DEFAULT_SENDER_THREADS;
+        private boolean blockWhenFull = true;
+        private int maxBlock = DEFAULT_MAX_BLOCK;
+
+        public int getBufferCapacity() {
+            return bufferCapacity;
+        }
+
+        public AsyncSendConfig setBufferCapacity(int bufferCapacity) {
+            this.bufferCapacity = bufferCapacity;
+            return this;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public AsyncSendConfig setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public int getLinger() {
+            return linger;
+        }
+
+        public AsyncSendConfig setLinger(int linger) {
+            this.linger = linger;
+            return this;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public AsyncSendConfig setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+            return this;
+        }
+
+        public boolean isBlockWhenFull() {
+            return blockWhenFull;
+        }
+
+        public AsyncSendConfig setBlockWhenFull(boolean blockWhenFull) {
+            this.blockWhenFull = blockWhenFull;
+            return this;
+        }
+
+        public int getMaxBlock() {
+            return maxBlock;
+        }
+
+        public AsyncSendConfig setMaxBlock(int maxBlock) {
+            this.maxBlock = maxBlock;
+            return this;
+        }
+    }
+
+    public static class SharedPollingConfig {
+        private static final int DEFAULT_QUOTA = 10;
+        private static final int DEFAULT_MAX_IDLE_DELAY = 100;
+
+        private int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        private int quota = DEFAULT_QUOTA;
+        private int maxIdleDelay = DEFAULT_MAX_IDLE_DELAY;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public SharedPollingConfig setThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public int getQuota() {
+            return quota;
+        }
+
+        public SharedPollingConfig setQuota(int quota) {
+            this.quota = quota;
+            return this;
+        }
+
+        public int getMaxIdleDelay() {
+            return maxIdleDelay;
+        }
+
+        public SharedPollingConfig setMaxIdleDelay(int maxIdleDelay) {
+            this.maxIdleDelay = maxIdleDelay;
+            return this;
+        }
     }
 }
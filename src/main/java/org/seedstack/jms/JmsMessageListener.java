@@ -8,6 +8,7 @@
 package org.seedstack.jms;
 
 import org.seedstack.jms.spi.MessagePoller;
+import org.seedstack.jms.spi.SharedSubscriptionEmulator;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -62,9 +63,56 @@ public @interface JmsMessageListener {
      */
     String selector() default "";
 
+    /**
+     * The name of the topic subscription of the listener, required for shared and durable subscriptions. Configuration
+     * macro are substituted (like ${config.property.name}).
+     *
+     * @return the name of the subscription.
+     */
+    String subscriptionName() default "";
+
+    /**
+     * If true, the topic subscription named by {@link #subscriptionName()} is shared by all its consumers, on this node
+     * and on the other ones, so each message of the topic is processed once instead of once per consumer. The
+     * concurrency of a shared topic listener is honored. With a JMS 1.1 provider, the subscription is emulated by the
+     * {@link SharedSubscriptionEmulator} configured on the connection. Defaults to false.
+     *
+     * @return true if the subscription is shared, false otherwise.
+     */
+    boolean shared() default false;
+
+    /**
+     * If true, the topic subscription named by {@link #subscriptionName()} is durable: messages published while the
+     * application is stopped or reconnecting are kept by the broker and received afterwards. A durable subscription that
+     * is not shared is identified by the client ID of the connection, which must be set. Defaults to false.
+     *
+     * @return true if the subscription is durable, false otherwise.
+     */
+    boolean durable() default false;
+
     /**
      * @return an optional {@link MessagePoller} to retrieve messages via receive() instead
      * of asynchronous delivery.
      */
     Class<? extends MessagePoller> poller()[] default {};
+
+    /**
+     * The number of sessions and consumers concurrently receiving messages for this listener. Each consumer has its own
+     * session, so the listener must be thread-safe when this is greater than 1. It can be overridden by the
+     * {@code jms.listeners.<listenerName>.concurrency} configuration property. Topic listeners always use a single
+     * consumer, unless their subscription is shared. Defaults to 1.
+     *
+     * @return the number of concurrent consumers.
+     */
+    int concurrency() default 1;
+
+    /**
+     * The maximum number of concurrent consumers for this listener. When greater than {@link #concurrency()}, the
+     * number of consumers is automatically adjusted between both bounds according to the queue backlog and to the
+     * observed processing time. It can be overridden by the {@code jms.listeners.<listenerName>.maxConcurrency}
+     * configuration property. Only queue listeners can be scaled. Defaults to 0 which disables scaling.
+     *
+     * @return the maximum number of concurrent consumers.
+     */
+    int maxConcurrency() default 0;
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+
+/**
+ * Sends messages by batches on a JMS connection. A sender is bound for each connection and can be injected with the
+ * connection name as qualifier (like {@code @Named("connectionName") JmsSender}). Each batch is sent in its own local
+ * transaction, independently of any transaction in progress, over a pooled session and a cached producer.
+ *
+ * <p>Batch elements can be JMS messages or objects converted to messages: strings are sent as text messages, byte
+ * arrays as bytes messages, maps as map messages and other serializable objects as object messages.</p>
+ */
+public interface JmsSender {
+    /**
+     * Sends all the elements of a collection and commits once. If any element cannot be sent, none of them is.
+     *
+     * @param destination the destination of the messages.
+     * @param messages    the messages or objects to send.
+     * @throws JMSException if the batch cannot be sent.
+     */
+    void sendBatch(Destination destination, Collection<?> messages) throws JMSException;
+
+    /**
+     * Sends all the elements of a collection asynchronously and commits once.
+     *
+     * @param destination the destination of the messages.
+     * @param messages    the messages or objects to send.
+     * @return a completion stage completed when the batch is committed or completed exceptionally if it cannot be
+     * sent.
+     */
+    CompletionStage<Void> sendBatchAsync(Destination destination, Collection<?> messages);
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import javax.jms.CompletionListener;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * This producer is a facade of the anonymous producer of a managed session, bound to a destination which has no cached
+ * producer. Its settings are its own: the delivery mode, priority and time to live are passed to each send, the other
+ * settings are applied to the anonymous producer for the duration of a send. Closing it leaves the anonymous producer
+ * cached.
+ */
+class AnonymousProducerFacade implements MessageProducer {
+    private final ManagedMessageProducer anonymousProducer;
+    private final Destination destination;
+    private boolean disableMessageID;
+    private boolean disableMessageTimestamp;
+    private int deliveryMode = Message.DEFAULT_DELIVERY_MODE;
+    private int priority = Message.DEFAULT_PRIORITY;
+    private long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+    private long deliveryDelay = Message.DEFAULT_DELIVERY_DELAY;
+    private boolean customized;
+
+    AnonymousProducerFacade(ManagedMessageProducer anonymousProducer, Destination destination) {
+        this.anonymousProducer = checkNotNull(anonymousProducer);
+        this.destination = checkNotNull(destination);
+    }
+
+    @Override
+    public void setDisableMessageID(boolean value) {
+        disableMessageID = value;
+        customized = true;
+    }
+
+    @Override
+    public boolean getDisableMessageID() {
+        return disableMessageID;
+    }
+
+    @Override
+    public void setDisableMessageTimestamp(boolean value) {
+        disableMessageTimestamp = value;
+        customized = true;
+    }
+
+    @Override
+    public boolean getDisableMessageTimestamp() {
+        return disableMessageTimestamp;
+    }
+
+    @Override
+    public void setDeliveryMode(int deliveryMode) {
+        this.deliveryMode = deliveryMode;
+    }
+
+    @Override
+    public int getDeliveryMode() {
+        return deliveryMode;
+    }
+
+    @Override
+    public void setPriority(int defaultPriority) {
+        this.priority = defaultPriority;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    @Override
+    public void setDeliveryDelay(long deliveryDelay) {
+        this.deliveryDelay = deliveryDelay;
+        customized = true;
+    }
+
+    @Override
+    public long getDeliveryDelay() {
+        return deliveryDelay;
+    }
+
+    @Override
+    public Destination getDestination() {
+        return destination;
+    }
+
+    @Override
+    public void close() {
+        // The anonymous producer stays cached by the session
+    }
+
+    @Override
+    public void send(Message message) throws JMSException {
+        send(message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
+        send(() -> anonymousProducer.send(destination, message, deliveryMode, priority, timeToLive));
+    }
+
+    @Override
+    public void send(Destination destination, Message message) {
+        throw new UnsupportedOperationException("Producer is bound to destination " + this.destination);
+    }
+
+    @Override
+    public void send(Destination destination, Message message, int deliveryMode, int priority, long timeToLive) {
+        throw new UnsupportedOperationException("Producer is bound to destination " + this.destination);
+    }
+
+    @Override
+    public void send(Message message, CompletionListener completionListener) throws JMSException {
+        send(message, deliveryMode, priority, timeToLive, completionListener);
+    }
+
+    @Override
+    public void send(Message message, int deliveryMode, int priority, long timeToLive,
+            CompletionListener completionListener) throws JMSException {
+        send(() -> anonymousProducer.send(destination,
+                message,
+                deliveryMode,
+                priority,
+                timeToLive,
+                completionListener));
+    }
+
+    @Override
+    public void send(Destination destination, Message message, CompletionListener completionListener) {
+        throw new UnsupportedOperationException("Producer is bound to destination " + this.destination);
+    }
+
+    @Override
+    public void send(Destination destination, Message message, int deliveryMode, int priority, long timeToLive,
+            CompletionListener completionListener) {
+        throw new UnsupportedOperationException("Producer is bound to destination " + this.destination);
+    }
+
+    private void send(Send send) throws JMSException {
+        if (!customized) {
+            send.send();
+            return;
+        }
+
+        anonymousProducer.setDisableMessageID(disableMessageID);
+        anonymousProducer.setDisableMessageTimestamp(disableMessageTimestamp);
+        if (deliveryDelay != Message.DEFAULT_DELIVERY_DELAY) {
+            // Only a JMS 2.0 provider accepts a delivery delay
+            anonymousProducer.setDeliveryDelay(deliveryDelay);
+        }
+        try {
+            send.send();
+        } finally {
+            anonymousProducer.restoreDefaults();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void send() throws JMSException;
+    }
+}
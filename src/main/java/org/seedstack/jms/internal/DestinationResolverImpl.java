@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.jms.Destination;
+import javax.jms.InvalidDestinationException;
+import javax.jms.JMSException;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
+import javax.naming.Context;
+import javax.naming.NamingException;
+import org.seedstack.jms.DestinationType;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.DestinationResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves and caches the destinations of a connection. The cache is cleared when a {@link ReconnectingConnection} has
+ * been reconnected since the destinations were resolved.
+ */
+class DestinationResolverImpl implements DestinationResolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DestinationResolverImpl.class);
+    private final Map<DestinationType, ConcurrentMap<String, Destination>> destinations =
+            new EnumMap<>(DestinationType.class);
+    private final String connectionName;
+    private final ReconnectingConnection connection;
+    private final Map<String, JmsConfig.DestinationConfig> destinationConfigs;
+    private final Map<String, Context> jndiContexts;
+    private volatile int generation;
+
+    DestinationResolverImpl(String connectionName, ReconnectingConnection connection,
+            Map<String, JmsConfig.DestinationConfig> destinationConfigs, Map<String, Context> jndiContexts) {
+        this.connectionName = checkNotNull(connectionName);
+        this.connection = connection;
+        this.destinationConfigs = checkNotNull(destinationConfigs);
+        this.jndiContexts = jndiContexts;
+        this.destinations.put(DestinationType.QUEUE, new ConcurrentHashMap<>());
+        this.destinations.put(DestinationType.TOPIC, new ConcurrentHashMap<>());
+        if (connection != null) {
+            this.generation = connection.getGeneration();
+        }
+    }
+
+    @Override
+    public Destination resolve(Session session, DestinationType destinationType,
+            String destinationName) throws JMSException {
+        checkNotNull(destinationName);
+        ConcurrentMap<String, Destination> cache = destinations.get(destinationType);
+        if (cache == null) {
+            throw new InvalidDestinationException("Unsupported destination type " + destinationType);
+        }
+
+        if (connection != null && generation != connection.getGeneration()) {
+            invalidate();
+        }
+
+        Destination destination = cache.get(destinationName);
+        if (destination == null) {
+            destination = resolveUncached(session, destinationType, destinationName);
+            Destination previous = cache.putIfAbsent(destinationName, destination);
+            if (previous != null) {
+                destination = previous;
+            }
+        }
+        return destination;
+    }
+
+    /**
+     * Clears the cached destinations.
+     */
+    void invalidate() {
+        LOGGER.debug("Clearing cached JMS destinations of connection {}", connectionName);
+        if (connection != null) {
+            generation = connection.getGeneration();
+        }
+        destinations.values().forEach(Map::clear);
+    }
+
+    private Destination resolveUncached(Session session, DestinationType destinationType,
+            String destinationName) throws JMSException {
+        JmsConfig.DestinationConfig destinationConfig = destinationConfigs.get(destinationName);
+        if (destinationConfig != null) {
+            return lookup(destinationType, destinationName, destinationConfig);
+        } else if (destinationType == DestinationType.QUEUE) {
+            return session.createQueue(destinationName);
+        } else {
+            return session.createTopic(destinationName);
+        }
+    }
+
+    private Destination lookup(DestinationType destinationType, String destinationName,
+            JmsConfig.DestinationConfig destinationConfig) throws JMSException {
+        Context context = jndiContexts == null ? null : jndiContexts.get(destinationConfig.getJndiContext());
+        if (context == null) {
+            throw new InvalidDestinationException("JNDI context " + destinationConfig.getJndiContext()
+                    + " cannot be found when looking up JMS destination " + destinationName);
+        }
+
+        Object destination;
+        try {
+            LOGGER.debug("Looking up JMS destination {} as {} in JNDI context {}",
+                    destinationName,
+                    destinationConfig.getJndiName(),
+                    destinationConfig.getJndiContext());
+            destination = context.lookup(destinationConfig.getJndiName());
+        } catch (NamingException e) {
+            InvalidDestinationException exception = new InvalidDestinationException(
+                    "JNDI lookup error for JMS destination " + destinationName);
+            exception.setLinkedException(e);
+            exception.initCause(e);
+            throw exception;
+        }
+
+        if (destinationType == DestinationType.QUEUE && !(destination instanceof Queue)
+                || destinationType == DestinationType.TOPIC && !(destination instanceof Topic)) {
+            throw new InvalidDestinationException("JNDI object " + destinationConfig.getJndiName()
+                    + " is not a JMS destination of type " + destinationType + " (" + destinationName + ")");
+        }
+        return (Destination) destination;
+    }
+}
@@ -9,6 +9,7 @@ package org.seedstack.jms.internal;
 
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.name.Names;
 
 import javax.inject.Inject;
@@ -21,6 +22,7 @@ class ExceptionListenerAdapter implements ExceptionListener {
 
     private final Key<ExceptionListener> key;
     private final String name;
+    private volatile Provider<ExceptionListener> exceptionListenerProvider;
 
     ExceptionListenerAdapter(String name) {
         this.key = Key.get(ExceptionListener.class, Names.named(name));
@@ -29,7 +31,12 @@ class ExceptionListenerAdapter implements ExceptionListener {
 
     @Override
     public void onException(JMSException exception) {
-        injector.getInstance(key).onException(exception);
+        Provider<ExceptionListener> provider = exceptionListenerProvider;
+        if (provider == null) {
+            provider = ListenerProviders.resolve(injector, key);
+            exceptionListenerProvider = provider;
+        }
+        provider.get().onException(exception);
     }
 
     @Override
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+
+/**
+ * Helpers for the JMS 2.0 methods of the managed facades. A JMS 1.1 provider compiled against the 1.1 interfaces does
+ * not implement them and its objects throw an {@link AbstractMethodError} when they are called.
+ */
+final class Jms2Support {
+    private Jms2Support() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Checks if the provider of a connection implements JMS 2.0 from its metadata.
+     *
+     * @param connection the connection.
+     * @return true if the provider implements JMS 2.0 or later, false otherwise.
+     * @throws JMSException if the metadata cannot be retrieved.
+     */
+    static boolean isSupported(Connection connection) throws JMSException {
+        return connection.getMetaData().getJMSMajorVersion() >= 2;
+    }
+
+    /**
+     * Translates the error thrown by a JMS 1.1 provider when a JMS 2.0 method is called.
+     *
+     * @param operation the name of the JMS 2.0 operation.
+     * @param error     the error thrown by the provider.
+     * @return the exception to throw.
+     */
+    static JMSException unsupported(String operation, AbstractMethodError error) {
+        JMSException exception = new javax.jms.IllegalStateException(
+                operation + " requires a JMS 2.0 provider");
+        exception.initCause(error);
+        return exception;
+    }
+}
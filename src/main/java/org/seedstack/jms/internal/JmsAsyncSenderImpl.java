@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.jms.Destination;
+import javax.jms.IllegalStateException;
+import javax.jms.JMSException;
+import javax.jms.ResourceAllocationException;
+import org.seedstack.jms.JmsAsyncSender;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.JmsSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Buffers messages in a bounded queue drained by sender threads, which are started on the first send. Each drained
+ * batch is split by destination and every part is sent with {@link JmsSender#sendBatch} in its own transaction.
+ */
+class JmsAsyncSenderImpl implements JmsAsyncSender {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsAsyncSenderImpl.class);
+    private static final long CLOSE_TIMEOUT = 10000;
+    private final ConcurrentMap<Destination, DestinationStatistics> statistics = new ConcurrentHashMap<>();
+    private final List<Thread> senderThreads = new ArrayList<>();
+    private final String connectionName;
+    private final JmsSender jmsSender;
+    private final JmsConfig.AsyncSendConfig asyncSendConfig;
+    private final BlockingQueue<PendingMessage> buffer;
+    private final int batchSize;
+    private final long linger;
+    private final ThreadFactory threadFactory;
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    JmsAsyncSenderImpl(String connectionName, JmsSender jmsSender, JmsConfig.AsyncSendConfig asyncSendConfig,
+            ThreadFactory threadFactory) {
+        this.connectionName = checkNotNull(connectionName);
+        this.threadFactory = checkNotNull(threadFactory);
+        this.jmsSender = checkNotNull(jmsSender);
+        this.asyncSendConfig = checkNotNull(asyncSendConfig);
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, asyncSendConfig.getBufferCapacity()));
+        this.batchSize = Math.max(1, asyncSendConfig.getBatchSize());
+        this.linger = TimeUnit.MILLISECONDS.toNanos(Math.max(0, asyncSendConfig.getLinger()));
+    }
+
+    @Override
+    public CompletionStage<Void> send(Destination destination, Object message) throws JMSException {
+        checkNotNull(destination);
+        if (closed) {
+            throw new IllegalStateException("Asynchronous sender of JMS connection " + connectionName + " is closed");
+        }
+        if (!started) {
+            start();
+        }
+
+        PendingMessage pendingMessage = new PendingMessage(destination, message);
+        boolean buffered;
+        if (asyncSendConfig.isBlockWhenFull()) {
+            try {
+                buffered = buffer.offer(pendingMessage, asyncSendConfig.getMaxBlock(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                buffered = false;
+            }
+        } else {
+            buffered = buffer.offer(pendingMessage);
+        }
+        if (!buffered) {
+            throw new ResourceAllocationException("Asynchronous send buffer of JMS connection " + connectionName
+                    + " is full");
+        }
+        return pendingMessage.result;
+    }
+
+    @Override
+    public int getBufferedMessages() {
+        return buffer.size();
+    }
+
+    @Override
+    public Map<Destination, Statistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Stops accepting messages and waits for the sender threads to send the buffered ones. Messages still buffered
+     * after the timeout are failed.
+     */
+    synchronized void close() {
+        closed = true;
+        for (Thread senderThread : senderThreads) {
+            try {
+                senderThread.join(CLOSE_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            senderThread.interrupt();
+        }
+
+        PendingMessage pendingMessage;
+        while ((pendingMessage = buffer.poll()) != null) {
+            pendingMessage.result.completeExceptionally(new IllegalStateException(
+                    "Asynchronous sender of JMS connection " + connectionName + " has been closed"));
+        }
+    }
+
+    private synchronized void start() {
+        if (!started && !closed) {
+            for (int i = 0; i < Math.max(1, asyncSendConfig.getSenderThreads()); i++) {
+                Thread senderThread = threadFactory.newThread(this::drain);
+                senderThread.start();
+                senderThreads.add(senderThread);
+            }
+            started = true;
+        }
+    }
+
+    private void drain() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                PendingMessage first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger for more messages until the batch is full
+                long deadline = System.nanoTime() + linger;
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                send(batch);
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        LOGGER.debug("Stopping asynchronous sender thread of JMS connection {}", connectionName);
+    }
+
+    private void send(List<PendingMessage> batch) {
+        Map<Destination, List<PendingMessage>> batchesByDestination = new LinkedHashMap<>();
+        for (PendingMessage pendingMessage : batch) {
+            batchesByDestination.computeIfAbsent(pendingMessage.destination, d -> new ArrayList<>())
+                    .add(pendingMessage);
+        }
+
+        for (Map.Entry<Destination, List<PendingMessage>> entry : batchesByDestination.entrySet()) {
+            List<PendingMessage> pendingMessages = entry.getValue();
+            List<Object> messages = new ArrayList<>(pendingMessages.size());
+            for (PendingMessage pendingMessage : pendingMessages) {
+                messages.add(pendingMessage.message);
+            }
+
+            DestinationStatistics destinationStatistics = statistics.computeIfAbsent(entry.getKey(),
+                    d -> new DestinationStatistics());
+            try {
+                jmsSender.sendBatch(entry.getKey(), messages);
+                destinationStatistics.sentMessages.add(messages.size());
+                destinationStatistics.sentBatches.increment();
+                for (PendingMessage pendingMessage : pendingMessages) {
+                    pendingMessage.result.complete(null);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Unable to send {} message(s) asynchronously on JMS connection {}",
+                        messages.size(),
+                        connectionName,
+                        e);
+                destinationStatistics.failedMessages.add(messages.size());
+                for (PendingMessage pendingMessage : pendingMessages) {
+                    pendingMessage.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static class PendingMessage {
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final Destination destination;
+        private final Object message;
+
+        private PendingMessage(Destination destination, Object message) {
+            this.destination = destination;
+            this.message = message;
+        }
+    }
+
+    private static class DestinationStatistics implements Statistics {
+        private final LongAdder sentMessages = new LongAdder();
+        private final LongAdder failedMessages = new LongAdder();
+        private final LongAdder sentBatches = new LongAdder();
+
+        @Override
+        public long getSentMessages() {
+            return sentMessages.sum();
+        }
+
+        @Override
+        public long getFailedMessages() {
+            return failedMessages.sum();
+        }
+
+        @Override
+        public long getSentBatches() {
+            return sentBatches.sum();
+        }
+    }
+}
@@ -10,7 +10,9 @@ package org.seedstack.jms.internal;
 import org.seedstack.shed.exception.ErrorCode;
 
 enum JmsErrorCode implements ErrorCode {
+    INVALID_CONCURRENCY,
     INVALID_MESSAGE_LISTENER_CLASS,
+    INVALID_TOPIC_SUBSCRIPTION,
     CANNOT_SET_CLIENT_ID_IN_JEE_MODE,
     DUPLICATE_CONNECTION_NAME,
     DUPLICATE_MESSAGE_LISTENER_NAME,
@@ -21,11 +23,14 @@ enum JmsErrorCode implements ErrorCode {
     MISSING_JNDI_CONTEXT,
     NO_JNDI_CONTEXT,
     PROPERTY_NOT_FOUND,
+    SHARED_SUBSCRIPTION_NOT_SUPPORTED,
     UNABLE_TO_CREATE_CONNECTION_FACTORY,
     UNABLE_TO_CREATE_DESTINATION,
     UNABLE_TO_CREATE_JMS_CONNECTION,
     UNABLE_TO_CREATE_MESSAGE_CONSUMER,
     UNABLE_TO_CREATE_POLLER,
+    UNABLE_TO_CREATE_RECONNECTION_POLICY,
+    UNABLE_TO_CREATE_SUBSCRIPTION_EMULATOR,
     UNABLE_TO_CREATE_SESSION,
     UNABLE_TO_SET_PROPERTY,
     UNABLE_TO_START_JMS_CONNECTION,
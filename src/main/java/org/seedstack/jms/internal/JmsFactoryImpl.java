@@ -8,7 +8,9 @@
 package org.seedstack.jms.internal;
 
 import com.google.common.base.Strings;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
@@ -22,8 +24,11 @@ import javax.naming.NamingException;
 import jodd.bean.BeanUtil;
 import jodd.bean.BeanUtilBean;
 import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.reconnection.ExponentialBackoffPolicy;
 import org.seedstack.jms.spi.ConnectionDefinition;
+import org.seedstack.jms.spi.DestinationResolver;
 import org.seedstack.jms.spi.JmsFactory;
+import org.seedstack.jms.spi.ReconnectionPolicy;
 import org.seedstack.seed.SeedException;
 import org.seedstack.shed.reflect.Classes;
 import org.slf4j.Logger;
@@ -39,11 +44,14 @@ class JmsFactoryImpl implements JmsFactory {
     private final Map<String, Context> jndiContexts;
     private final String applicationName;
     private final JmsConfig jmsConfig;
+    private final JmsThreads threads;
 
-    JmsFactoryImpl(String applicationName, JmsConfig jmsConfig, Map<String, Context> jndiContexts) {
+    JmsFactoryImpl(String applicationName, JmsConfig jmsConfig, Map<String, Context> jndiContexts,
+            JmsThreads threads) {
         this.applicationName = applicationName;
         this.jmsConfig = jmsConfig;
         this.jndiContexts = jndiContexts;
+        this.threads = threads;
 
         configureConnectionFactories();
     }
@@ -58,7 +66,7 @@ class JmsFactoryImpl implements JmsFactory {
         Connection connection;
 
         if (connectionDefinition.isManaged()) {
-            connection = new ManagedConnection(connectionDefinition, this);
+            connection = createManagedConnection(connectionDefinition);
             if (connectionDefinition.getExceptionListenerClass() != null) {
                 LOGGER.debug("Setting exception listener {} on managed connection {}",
                         connectionDefinition.getExceptionListenerClass(),
@@ -66,6 +74,10 @@ class JmsFactoryImpl implements JmsFactory {
                 connection.setExceptionListener(new ExceptionListenerAdapter(connectionDefinition.getName()));
             }
         } else {
+            if (getConnectionConfig(connectionDefinition).getPhysicalConnections() > 1) {
+                LOGGER.warn("Ignoring physical connections of JMS connection {}, it is not managed",
+                        connectionDefinition.getName());
+            }
             connection = createRawConnection(connectionDefinition);
             if (!connectionDefinition.isJeeMode()) {
                 if (connectionDefinition.getExceptionListenerClass() != null) {
@@ -116,6 +128,103 @@ class JmsFactoryImpl implements JmsFactory {
         );
     }
 
+    private ReconnectionPolicy createReconnectionPolicy(JmsConfig.ConnectionConfig connectionConfig) {
+        JmsConfig.ReconnectionConfig reconnectionConfig = connectionConfig.getReconnection();
+        Class<? extends ReconnectionPolicy> policyClass = reconnectionConfig.getPolicy();
+        if (policyClass == null) {
+            // The reconnection delay is the delay before the first attempt
+            return new ExponentialBackoffPolicy(connectionConfig.getReconnectionDelay(),
+                    Math.max(connectionConfig.getReconnectionDelay(), reconnectionConfig.getMaxDelay()),
+                    reconnectionConfig.getMultiplier(),
+                    reconnectionConfig.getJitter(),
+                    reconnectionConfig.getCircuitBreakerThreshold());
+        }
+        try {
+            return Classes.instantiateDefault(policyClass);
+        } catch (RuntimeException e) {
+            throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_RECONNECTION_POLICY)
+                    .put("policyClass", policyClass.getName());
+        }
+    }
+
+    private Connection createManagedConnection(ConnectionDefinition connectionDefinition) throws JMSException {
+        JmsConfig.ConnectionConfig connectionConfig = getConnectionConfig(connectionDefinition);
+        ReconnectionPolicy reconnectionPolicy = createReconnectionPolicy(connectionConfig);
+        int physicalConnections = connectionConfig.getPhysicalConnections();
+        if (physicalConnections <= 1) {
+            return new ManagedConnection(connectionDefinition,
+                    this,
+                    connectionConfig.getReconnectionMode(),
+                    connectionConfig.getRefreshThreads(),
+                    reconnectionPolicy,
+                    threads);
+        }
+
+        LOGGER.debug("Creating {} physical connections for managed connection {}",
+                physicalConnections,
+                connectionDefinition.getName());
+        List<ManagedConnection> stripes = new ArrayList<>(physicalConnections);
+        try {
+            for (int i = 0; i < physicalConnections; i++) {
+                stripes.add(new ManagedConnection(createStripeDefinition(connectionDefinition, i),
+                        this,
+                        connectionConfig.getReconnectionMode(),
+                        connectionConfig.getRefreshThreads(),
+                        reconnectionPolicy,
+                        threads));
+            }
+        } catch (JMSException | RuntimeException e) {
+            for (ManagedConnection stripe : stripes) {
+                try {
+                    stripe.close();
+                } catch (JMSException closeException) {
+                    LOGGER.warn("Unable to close physical connection of {}", connectionDefinition.getName());
+                }
+            }
+            throw e;
+        }
+        return new StripedConnection(connectionDefinition.getName(),
+                stripes,
+                connectionConfig.getStripingStrategy());
+    }
+
+    private JmsConfig.ConnectionConfig getConnectionConfig(ConnectionDefinition connectionDefinition) {
+        return Optional.ofNullable(jmsConfig.getConnections().get(connectionDefinition.getName()))
+                .orElseGet(JmsConfig.ConnectionConfig::new);
+    }
+
+    private ConnectionDefinition createStripeDefinition(ConnectionDefinition connectionDefinition, int stripe) {
+        // Client IDs must be unique, the first stripe keeps the configured one
+        return new ConnectionDefinition(
+                connectionDefinition.getName(),
+                connectionDefinition.getConnectionFactory(),
+                true,
+                connectionDefinition.isJeeMode(),
+                connectionDefinition.isShouldSetClientId(),
+                stripe == 0 ? connectionDefinition.getClientId() : connectionDefinition.getClientId() + "-" + stripe,
+                connectionDefinition.getUser(),
+                connectionDefinition.getPassword(),
+                connectionDefinition.getReconnectionDelay(),
+                connectionDefinition.getExceptionListenerClass(),
+                connectionDefinition.getJmsExceptionHandlerClass()
+        );
+    }
+
+    /**
+     * Creates the destination resolver of a connection, which looks up the configured destinations in the JNDI
+     * contexts of the application.
+     *
+     * @param connectionName the name of the connection.
+     * @param connection     the connection.
+     * @return the destination resolver.
+     */
+    DestinationResolver createDestinationResolver(String connectionName, Connection connection) {
+        return new DestinationResolverImpl(connectionName,
+                connection instanceof ReconnectingConnection ? (ReconnectingConnection) connection : null,
+                jmsConfig.getDestinations(),
+                jndiContexts);
+    }
+
     Connection createRawConnection(ConnectionDefinition connectionDefinition) throws JMSException {
         Connection connection;
         if (connectionDefinition.getUser() != null) {
@@ -13,10 +13,13 @@ import org.seedstack.seed.transaction.spi.TransactionMetadata;
 import javax.jms.Session;
 
 class JmsListenerTransactionHandler extends AbstractJmsTransactionHandler {
-    private final Session session;
+    private final JmsSessionLink listenerSessionLink;
+    private final MessageListenerContainer messageListenerContainer;
 
-    JmsListenerTransactionHandler(Session session) {
-        this.session = session;
+    JmsListenerTransactionHandler(JmsSessionLink listenerSessionLink,
+            MessageListenerContainer messageListenerContainer) {
+        this.listenerSessionLink = listenerSessionLink;
+        this.messageListenerContainer = messageListenerContainer;
     }
 
     @Override
@@ -26,7 +29,34 @@ class JmsListenerTransactionHandler extends AbstractJmsTransactionHandler {
 
     @Override
     public Session doCreateTransaction() {
-        return session;
+        // With concurrent consumers, the transaction is the session which received the message
+        Session currentSession = listenerSessionLink.getCurrentTransaction();
+        if (currentSession != null) {
+            return currentSession;
+        } else {
+            return messageListenerContainer.getMessageListenerDefinition().getSession();
+        }
+    }
+
+    @Override
+    public void doCommitTransaction(Session session) {
+        if (session == listenerSessionLink.getCurrentTransaction()
+                && messageListenerContainer.isPollerTransaction(session)) {
+            // The poller which received the message owns the transaction and commits it
+            return;
+        }
+        super.doCommitTransaction(session);
+    }
+
+    @Override
+    public void doRollbackTransaction(Session session) {
+        if (session == listenerSessionLink.getCurrentTransaction()
+                && messageListenerContainer.isPollerTransaction(session)) {
+            // The poller rollbacks the transaction when the exception reaches it, possibly after other messages
+            // of the same session are done processing
+            return;
+        }
+        super.doRollbackTransaction(session);
     }
 
     @Override
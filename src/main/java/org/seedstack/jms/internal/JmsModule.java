@@ -10,7 +10,6 @@ package org.seedstack.jms.internal;
 import com.google.inject.AbstractModule;
 import com.google.inject.name.Names;
 import com.google.inject.util.Providers;
-import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import javax.jms.Connection;
@@ -18,47 +17,69 @@ import javax.jms.ConnectionFactory;
 import javax.jms.ExceptionListener;
 import javax.jms.MessageListener;
 import javax.jms.Session;
+import org.seedstack.jms.JmsAsyncSender;
+import org.seedstack.jms.JmsSender;
+import org.seedstack.jms.pollers.SharedPollerScheduler;
 import org.seedstack.jms.spi.ConnectionDefinition;
+import org.seedstack.jms.spi.DestinationResolver;
 import org.seedstack.jms.spi.JmsExceptionHandler;
 import org.seedstack.jms.spi.JmsFactory;
 import org.seedstack.jms.spi.MessageListenerDefinition;
 import org.seedstack.jms.spi.MessageListenerInstanceDefinition;
-import org.seedstack.jms.spi.MessagePoller;
-import org.seedstack.seed.core.internal.transaction.TransactionalProxy;
 
 class JmsModule extends AbstractModule {
     private final JmsFactory jmsFactory;
     private final Map<String, Connection> connections;
     private final Map<String, MessageListenerDefinition> messageListenerDefinitions;
     private final Map<String, ConnectionDefinition> connectionDefinitions;
-    private final Collection<MessagePoller> pollers;
+    private final Map<String, MessageListenerContainer> messageListenerContainers;
+    private final JmsSessionLink listenerSessionLink;
+    private final SharedPollerScheduler sharedPollerScheduler;
+    private final Map<String, JmsSessionPool> sessionPools;
+    private final Map<String, DestinationResolver> destinationResolvers;
+    private final Map<String, JmsSender> senders;
+    private final Map<String, JmsAsyncSenderImpl> asyncSenders;
 
     public JmsModule(JmsFactory jmsFactory, ConcurrentMap<String, Connection> connections,
             ConcurrentMap<String, ConnectionDefinition> connectionDefinitions,
-            Map<String, MessageListenerDefinition> messageListenerDefinitions, Collection<MessagePoller> pollers) {
+            Map<String, MessageListenerDefinition> messageListenerDefinitions,
+            Map<String, MessageListenerContainer> messageListenerContainers, JmsSessionLink listenerSessionLink,
+            SharedPollerScheduler sharedPollerScheduler, Map<String, JmsSessionPool> sessionPools,
+            Map<String, DestinationResolver> destinationResolvers, Map<String, JmsSender> senders,
+            Map<String, JmsAsyncSenderImpl> asyncSenders) {
         this.jmsFactory = jmsFactory;
         this.connections = connections;
         this.connectionDefinitions = connectionDefinitions;
         this.messageListenerDefinitions = messageListenerDefinitions;
-        this.pollers = pollers;
+        this.messageListenerContainers = messageListenerContainers;
+        this.listenerSessionLink = listenerSessionLink;
+        this.sharedPollerScheduler = sharedPollerScheduler;
+        this.sessionPools = sessionPools;
+        this.destinationResolvers = destinationResolvers;
+        this.senders = senders;
+        this.asyncSenders = asyncSenders;
     }
 
     @Override
     protected void configure() {
         requestStaticInjection(ExceptionListenerAdapter.class);
         requestStaticInjection(MessageListenerAdapter.class);
+        requestStaticInjection(MessageListenerContainer.class);
 
         bind(JmsFactory.class).toInstance(jmsFactory);
+        bind(SharedPollerScheduler.class).toInstance(sharedPollerScheduler);
         requestInjection(jmsFactory);
 
         JmsSessionLink jmsSessionLink = new JmsSessionLink();
-        bind(Session.class).toInstance(TransactionalProxy.create(Session.class, jmsSessionLink));
+        bind(Session.class).toInstance(JmsSessionProxy.create(jmsSessionLink));
 
         jmsFactory.getConnectionFactories()
                 .forEach((name, cf) -> bind(ConnectionFactory.class).annotatedWith(Names.named(name)).toInstance(cf));
         connections.forEach((key, value) -> bindConnection(connectionDefinitions.get(key), value, jmsSessionLink));
         messageListenerDefinitions.forEach((key, value) -> bindMessageListener(value));
-        pollers.forEach(this::requestInjection);
+        messageListenerContainers.values().stream()
+                .flatMap(messageListenerContainer -> messageListenerContainer.getMessagePollers().stream())
+                .forEach(this::requestInjection);
     }
 
     private void bindMessageListener(MessageListenerDefinition messageListenerDefinition) {
@@ -66,7 +87,8 @@ class JmsModule extends AbstractModule {
 
         bind(JmsListenerTransactionHandler.class)
                 .annotatedWith(Names.named(name))
-                .toInstance(new JmsListenerTransactionHandler(messageListenerDefinition.getSession()));
+                .toInstance(new JmsListenerTransactionHandler(listenerSessionLink,
+                        messageListenerContainers.get(name)));
 
         if (messageListenerDefinition instanceof MessageListenerInstanceDefinition) {
             MessageListener messageListener =
@@ -96,8 +118,12 @@ class JmsModule extends AbstractModule {
         }
 
         bind(Connection.class).annotatedWith(Names.named(name)).toInstance(connection);
+        bind(DestinationResolver.class).annotatedWith(Names.named(name)).toInstance(destinationResolvers.get(name));
+        bind(JmsSender.class).annotatedWith(Names.named(name)).toInstance(senders.get(name));
+        bind(JmsAsyncSender.class).annotatedWith(Names.named(name)).toInstance(asyncSenders.get(name));
 
-        JmsTransactionHandler transactionHandler = new JmsTransactionHandler(jmsSessionLink, connection);
+        JmsTransactionHandler transactionHandler = new JmsTransactionHandler(jmsSessionLink,
+                sessionPools.get(name));
         bind(JmsTransactionHandler.class).annotatedWith(Names.named(name)).toInstance(transactionHandler);
     }
 }
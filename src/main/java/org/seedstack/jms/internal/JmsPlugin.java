@@ -11,15 +11,18 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.seedstack.shed.reflect.AnnotationPredicates.elementAnnotatedWith;
 import static org.seedstack.shed.reflect.ClassPredicates.classImplements;
 
-import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import io.nuun.kernel.api.plugin.InitState;
 import io.nuun.kernel.api.plugin.context.InitContext;
 import io.nuun.kernel.api.plugin.request.ClasspathScanRequest;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import javax.jms.Connection;
@@ -27,18 +30,28 @@ import javax.jms.Destination;
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
+import javax.jms.Queue;
 import javax.jms.Session;
+import javax.jms.Topic;
 import javax.naming.Context;
+import org.seedstack.jms.BatchMessageListener;
 import org.seedstack.jms.DestinationType;
 import org.seedstack.jms.JmsConfig;
 import org.seedstack.jms.JmsMessageListener;
+import org.seedstack.jms.JmsSender;
+import org.seedstack.jms.pollers.BatchMessagePoller;
+import org.seedstack.jms.pollers.HandOffMessagePoller;
+import org.seedstack.jms.pollers.KeyOrderedMessagePoller;
+import org.seedstack.jms.pollers.SharedPollerScheduler;
+import org.seedstack.jms.pollers.SimpleMessagePoller;
 import org.seedstack.jms.spi.ConnectionDefinition;
+import org.seedstack.jms.spi.DestinationResolver;
 import org.seedstack.jms.spi.JmsExceptionHandler;
 import org.seedstack.jms.spi.JmsFactory;
 import org.seedstack.jms.spi.MessageListenerDefinition;
 import org.seedstack.jms.spi.MessagePoller;
+import org.seedstack.jms.spi.SharedSubscriptionEmulator;
 import org.seedstack.seed.Application;
 import org.seedstack.seed.SeedException;
 import org.seedstack.seed.core.internal.AbstractSeedPlugin;
@@ -68,14 +81,24 @@ public class JmsPlugin extends AbstractSeedPlugin {
     private final ConcurrentMap<String, ConnectionDefinition> connectionDefinitions = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<String, Connection> connections = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, MessagePoller> pollers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, JmsSessionPool> sessionPools = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DestinationResolver> destinationResolvers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, JmsSender> senders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, JmsAsyncSenderImpl> asyncSenders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MessageListenerContainer> messageListenerContainers =
+            new ConcurrentHashMap<>();
+    private final JmsSessionLink listenerSessionLink = new JmsSessionLink();
+    private final ConcurrentMap<String, MessageListenerAutoscaler> messageListenerAutoscalers =
+            new ConcurrentHashMap<>();
 
     private final AtomicBoolean shouldStartConnections = new AtomicBoolean(false);
-
-    private JmsFactory jmsFactory;
+    private JmsThreads threads;
+    private ThreadPoolExecutor senderExecutor;
+    private JmsFactoryImpl jmsFactory;
     private Application application;
     private TransactionPlugin transactionPlugin;
     private JmsConfig jmsConfig;
+    private SharedPollerScheduler sharedPollerScheduler;
 
     @Override
     public Collection<Class<?>> dependencies() {
@@ -95,7 +118,11 @@ public class JmsPlugin extends AbstractSeedPlugin {
 
         if (jmsConfig.isEnabled()) {
             Map<String, Context> jndiContexts = initContext.dependency(JndiPlugin.class).getJndiContexts();
-            jmsFactory = new JmsFactoryImpl(getApplication().getId(), jmsConfig, jndiContexts);
+            threads = new JmsThreads(jmsConfig.getSchedulerThreads());
+            senderExecutor = createSenderExecutor(threads);
+            jmsFactory = new JmsFactoryImpl(getApplication().getId(), jmsConfig, jndiContexts, threads);
+            sharedPollerScheduler = new SharedPollerScheduler(jmsConfig.getSharedPolling(),
+                    threads.newThreadFactory("shared-poller", true));
             configureConnections();
             configureMessageListeners(initContext.scannedTypesByPredicate().get(messageListenerSpec));
         } else {
@@ -118,14 +145,32 @@ public class JmsPlugin extends AbstractSeedPlugin {
             }
         }
 
-        pollers.values().forEach(MessagePoller::start);
+        messageListenerContainers.values().forEach(MessageListenerContainer::start);
+
+        messageListenerAutoscalers.values().forEach(autoscaler -> threads.getScheduler().scheduleWithFixedDelay(
+                autoscaler,
+                autoscaler.getScalingInterval(),
+                autoscaler.getScalingInterval(),
+                TimeUnit.MILLISECONDS));
     }
 
     @Override
     public void stop() {
         shouldStartConnections.set(false);
 
-        pollers.values().forEach(MessagePoller::stop);
+        if (threads != null) {
+            threads.shutdown();
+            senderExecutor.shutdown();
+        }
+        asyncSenders.values().forEach(JmsAsyncSenderImpl::close);
+
+        messageListenerContainers.values().forEach(MessageListenerContainer::stop);
+
+        if (sharedPollerScheduler != null) {
+            sharedPollerScheduler.shutdown();
+        }
+
+        sessionPools.values().forEach(JmsSessionPool::clear);
 
         for (Map.Entry<String, Connection> connection : this.connections.entrySet()) {
             try {
@@ -134,6 +179,13 @@ public class JmsPlugin extends AbstractSeedPlugin {
                 LOGGER.error("Unable to cleanly stop JMS connection " + connection.getKey(), e);
             }
         }
+
+        if (threads != null) {
+            LOGGER.debug("JMS add-on stopped: {} thread(s) created, {} still running, {} scheduled task(s) completed",
+                    threads.getCreatedThreads(),
+                    threads.getLiveThreads(),
+                    threads.getCompletedTasks());
+        }
     }
 
     @Override
@@ -153,7 +205,13 @@ public class JmsPlugin extends AbstractSeedPlugin {
                     connections,
                     connectionDefinitions,
                     messageListenerDefinitions,
-                    pollers.values()
+                    messageListenerContainers,
+                    listenerSessionLink,
+                    sharedPollerScheduler,
+                    sessionPools,
+                    destinationResolvers,
+                    senders,
+                    asyncSenders
             );
         } else {
             return null;
@@ -198,15 +256,62 @@ public class JmsPlugin extends AbstractSeedPlugin {
                 }
 
                 if (destinationType != DestinationType.DISABLED) {
+                    String subscriptionName = application.substituteWithConfiguration(annotation.subscriptionName());
+                    boolean shared = annotation.shared();
+                    boolean durable = annotation.durable();
+                    if ((shared || durable)
+                            && (destinationType != DestinationType.TOPIC || subscriptionName.isEmpty())) {
+                        throw SeedException.createNew(JmsErrorCode.INVALID_TOPIC_SUBSCRIPTION)
+                                .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
+                    }
+
+                    boolean isBatch = BatchMessageListener.class.isAssignableFrom(messageListenerClass);
+                    Class<? extends MessagePoller> messagePollerClass = null;
+                    if (annotation.poller().length > 0) {
+                        messagePollerClass = annotation.poller()[0];
+                    } else if (isBatch) {
+                        messagePollerClass = BatchMessagePoller.class;
+                    }
+
+                    boolean isHandOff = messagePollerClass != null
+                            && HandOffMessagePoller.class.isAssignableFrom(messagePollerClass);
                     boolean isTransactional;
                     try {
-                        isTransactional = transactionPlugin.isTransactional(messageListenerClass.getMethod("onMessage",
-                                Message.class));
+                        if (isBatch) {
+                            // Batches are always committed as a whole
+                            isTransactional = true;
+                        } else if (messagePollerClass != null
+                                && KeyOrderedMessagePoller.class.isAssignableFrom(messagePollerClass)) {
+                            // Dispatch windows are always committed as a whole
+                            isTransactional = true;
+                        } else if (isHandOff) {
+                            // Messages are acknowledged by the poller once processed
+                            isTransactional = false;
+                        } else {
+                            isTransactional = transactionPlugin.isTransactional(messageListenerClass.getMethod(
+                                    "onMessage",
+                                    Message.class));
+                        }
                     } catch (NoSuchMethodException e) {
                         throw SeedException.wrap(e, JmsErrorCode.INVALID_MESSAGE_LISTENER_CLASS)
                                 .put("messageListenerClass", messageListenerClass.getName());
                     }
 
+                    JmsConfig.ListenerConfig listenerConfig = getListenerConfig(messageListenerName);
+                    if (listenerConfig.getMaxCommitBatchSize() > 1) {
+                        if (!isTransactional) {
+                            LOGGER.warn("Ignoring group commit of JMS listener {}, it is not transactional",
+                                    messageListenerName);
+                        } else if (messagePollerClass == null) {
+                            // Grouped commits must run on the thread receiving the messages, which is the provider
+                            // thread with asynchronous delivery
+                            LOGGER.info("Polling JMS listener {} with {} to group its commits",
+                                    messageListenerName,
+                                    SimpleMessagePoller.class.getSimpleName());
+                            messagePollerClass = SimpleMessagePoller.class;
+                        }
+                    }
+
                     Connection listenerConnection = connections.get(annotation.connection());
 
                     if (listenerConnection == null) {
@@ -215,32 +320,33 @@ public class JmsPlugin extends AbstractSeedPlugin {
                                 .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
                     }
 
+                    if ((durable || shared) && listenerConnection instanceof StripedConnection) {
+                        // The subscription is bound to the client ID of the first physical connection
+                        listenerConnection = ((StripedConnection) listenerConnection).getStripes().get(0);
+                    }
+
                     Session session;
                     try {
-                        session = listenerConnection.createSession(isTransactional, Session.AUTO_ACKNOWLEDGE);
+                        session = listenerConnection.createSession(isTransactional,
+                                isHandOff ? Session.CLIENT_ACKNOWLEDGE : Session.AUTO_ACKNOWLEDGE);
                     } catch (JMSException e) {
                         throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_SESSION)
                                 .put(ERROR_CONNECTION_NAME, annotation.connection())
                                 .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
                     }
 
+                    if (destinationType != DestinationType.QUEUE && destinationType != DestinationType.TOPIC) {
+                        throw SeedException.createNew(JmsErrorCode.UNKNOWN_DESTINATION_TYPE)
+                                .put(ERROR_DESTINATION_TYPE, destinationType)
+                                .put(ERROR_CONNECTION_NAME, annotation.connection())
+                                .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
+                    }
+
                     Destination destination;
                     try {
-                        switch (destinationType) {
-                            case QUEUE:
-                                destination =
-                                        session.createQueue(application.substituteWithConfiguration(annotation.destinationName()));
-                                break;
-                            case TOPIC:
-                                destination =
-                                        session.createTopic(application.substituteWithConfiguration(annotation.destinationName()));
-                                break;
-                            default:
-                                throw SeedException.createNew(JmsErrorCode.UNKNOWN_DESTINATION_TYPE)
-                                        .put(ERROR_DESTINATION_TYPE, destinationType)
-                                        .put(ERROR_CONNECTION_NAME, annotation.connection())
-                                        .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
-                        }
+                        destination = destinationResolvers.get(annotation.connection()).resolve(session,
+                                destinationType,
+                                application.substituteWithConfiguration(annotation.destinationName()));
                     } catch (JMSException e) {
                         throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_DESTINATION)
                                 .put(ERROR_DESTINATION_TYPE, destinationType.name())
@@ -248,9 +354,44 @@ public class JmsPlugin extends AbstractSeedPlugin {
                                 .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
                     }
 
-                    Class<? extends MessagePoller> messagePollerClass = null;
-                    if (annotation.poller().length > 0) {
-                        messagePollerClass = annotation.poller()[0];
+                    if (shared) {
+                        try {
+                            if (!Jms2Support.isSupported(listenerConnection)) {
+                                // The emulated subscription is consumed like a queue, which is durable
+                                destination = createSharedSubscriptionEmulator(annotation.connection(),
+                                        messageListenerName).getSubscriptionDestination(session,
+                                        (Topic) destination,
+                                        subscriptionName);
+                                shared = false;
+                                durable = false;
+                                LOGGER.info("Emulating shared subscription {} of JMS listener {} with destination {}",
+                                        subscriptionName,
+                                        messageListenerName,
+                                        destination);
+                            }
+                        } catch (JMSException e) {
+                            throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_DESTINATION)
+                                    .put(ERROR_DESTINATION_TYPE, destinationType.name())
+                                    .put(ERROR_CONNECTION_NAME, annotation.connection())
+                                    .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
+                        }
+                    }
+
+                    int concurrency = Optional.ofNullable(listenerConfig.getConcurrency())
+                            .orElse(annotation.concurrency());
+                    int maxConcurrency = Optional.ofNullable(listenerConfig.getMaxConcurrency())
+                            .orElse(annotation.maxConcurrency());
+                    if (concurrency < 1) {
+                        throw SeedException.createNew(JmsErrorCode.INVALID_CONCURRENCY)
+                                .put("concurrency", concurrency)
+                                .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
+                    }
+                    if (Math.max(concurrency, maxConcurrency) > 1 && destinationType == DestinationType.TOPIC
+                            && !annotation.shared()) {
+                        LOGGER.warn("Ignoring concurrency of JMS topic listener {}, each consumer would receive "
+                                + "every message", messageListenerName);
+                        concurrency = 1;
+                        maxConcurrency = 1;
                     }
 
                     registerMessageListener(
@@ -261,7 +402,12 @@ public class JmsPlugin extends AbstractSeedPlugin {
                                     destination,
                                     application.substituteWithConfiguration(annotation.selector()),
                                     messageListenerClass,
-                                    messagePollerClass
+                                    messagePollerClass,
+                                    concurrency,
+                                    maxConcurrency,
+                                    subscriptionName,
+                                    shared,
+                                    durable
                             )
                     );
                 } else {
@@ -271,48 +417,56 @@ public class JmsPlugin extends AbstractSeedPlugin {
         }
     }
 
-    private MessageConsumer createMessageConsumer(
-            MessageListenerDefinition messageListenerDefinition) throws JMSException {
-        LOGGER.debug("Creating JMS consumer for listener {}", messageListenerDefinition.getName());
-
-        MessageConsumer consumer;
-        Session session = messageListenerDefinition.getSession();
+    private static ThreadPoolExecutor createSenderExecutor(JmsThreads threads) {
+        int senderThreads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threads.newThreadFactory("sender", true));
+        // Threads are only started by asynchronous batches
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
-        if (!Strings.isNullOrEmpty(messageListenerDefinition.getSelector())) {
-            consumer = session.createConsumer(messageListenerDefinition.getDestination(),
-                    messageListenerDefinition.getSelector());
-        } else {
-            consumer = session.createConsumer(messageListenerDefinition.getDestination());
+    private JmsSessionPool createSessionPool(Connection connection, ConnectionDefinition connectionDefinition) {
+        JmsConfig.ConnectionConfig connectionConfig = getConnectionConfig(connectionDefinition.getName());
+        // In JEE mode sessions are pooled by the container
+        JmsSessionPool sessionPool = new JmsSessionPool(connection,
+                connectionDefinition.isJeeMode() ? 0 : connectionConfig.getMaxIdleSessions(),
+                connectionConfig.getSessionIdleTimeout());
+        if (sessionPool.getIdleTimeout() > 0) {
+            threads.getScheduler().scheduleWithFixedDelay(sessionPool::evict,
+                    sessionPool.getIdleTimeout(),
+                    sessionPool.getIdleTimeout(),
+                    TimeUnit.MILLISECONDS);
         }
+        return sessionPool;
+    }
 
-        MessagePoller messagePoller;
-        if (messageListenerDefinition.getPoller() != null) {
-            try {
-                LOGGER.debug("Creating poller for JMS listener {}", messageListenerDefinition.getName());
-
-                Connection connection = connections.get(messageListenerDefinition.getConnectionName());
-
-                messagePoller = Classes.instantiateDefault(messageListenerDefinition.getPoller());
-                messagePoller.setSession(session);
-                messagePoller.setMessageConsumer(consumer);
-                messagePoller.setMessageListener(new MessageListenerAdapter(messageListenerDefinition.getName()));
-
-                if (connection instanceof ManagedConnection) {
-                    messagePoller.setExceptionListener((ExceptionListener) connection);
-                } else {
-                    messagePoller.setExceptionListener(connection.getExceptionListener());
-                }
-            } catch (RuntimeException e) {
-                throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_POLLER)
-                        .put("pollerClass", messageListenerDefinition.getPoller());
-            }
-
-            pollers.put(messageListenerDefinition.getName(), messagePoller);
-        } else {
-            consumer.setMessageListener(new MessageListenerAdapter(messageListenerDefinition.getName()));
+    private SharedSubscriptionEmulator createSharedSubscriptionEmulator(String connectionName,
+            String messageListenerName) {
+        Class<? extends SharedSubscriptionEmulator> emulatorClass = getConnectionConfig(connectionName)
+                .getSharedSubscriptionEmulator();
+        if (emulatorClass == null) {
+            throw SeedException.createNew(JmsErrorCode.SHARED_SUBSCRIPTION_NOT_SUPPORTED)
+                    .put(ERROR_CONNECTION_NAME, connectionName)
+                    .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerName);
         }
+        try {
+            return Classes.instantiateDefault(emulatorClass);
+        } catch (RuntimeException e) {
+            throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_SUBSCRIPTION_EMULATOR)
+                    .put("emulatorClass", emulatorClass.getName());
+        }
+    }
+
+    private JmsConfig.ConnectionConfig getConnectionConfig(String connectionName) {
+        return Optional.ofNullable(jmsConfig.getConnections().get(connectionName))
+                .orElseGet(JmsConfig.ConnectionConfig::new);
+    }
 
-        return consumer;
+    private JmsConfig.ListenerConfig getListenerConfig(String messageListenerName) {
+        return Optional.ofNullable(jmsConfig.getListeners().get(messageListenerName))
+                .orElseGet(JmsConfig.ListenerConfig::new);
     }
 
     /**
@@ -335,6 +489,18 @@ public class JmsPlugin extends AbstractSeedPlugin {
                     .put(ERROR_CONNECTION_NAME, connectionDefinition.getName());
         }
 
+        sessionPools.put(connectionDefinition.getName(), createSessionPool(connection, connectionDefinition));
+        destinationResolvers.put(connectionDefinition.getName(),
+                jmsFactory.createDestinationResolver(connectionDefinition.getName(), connection));
+        JmsSender sender = new JmsSenderImpl(connectionDefinition.getName(),
+                sessionPools.get(connectionDefinition.getName()),
+                senderExecutor);
+        senders.put(connectionDefinition.getName(), sender);
+        asyncSenders.put(connectionDefinition.getName(), new JmsAsyncSenderImpl(connectionDefinition.getName(),
+                sender,
+                getConnectionConfig(connectionDefinition.getName()).getAsyncSend(),
+                threads.newThreadFactory("async-sender-" + connectionDefinition.getName(), true)));
+
         if (shouldStartConnections.get()) {
             try {
                 connection.start();
@@ -361,8 +527,15 @@ public class JmsPlugin extends AbstractSeedPlugin {
                     .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerDefinition.getName());
         }
 
+        JmsConfig.ListenerConfig listenerConfig = getListenerConfig(messageListenerDefinition.getName());
+        MessageListenerContainer messageListenerContainer = new MessageListenerContainer(
+                messageListenerDefinition,
+                connections.get(messageListenerDefinition.getConnectionName()),
+                listenerSessionLink,
+                listenerConfig,
+                threads);
         try {
-            createMessageConsumer(messageListenerDefinition);
+            messageListenerContainer.initialize();
         } catch (JMSException e) {
             throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_MESSAGE_CONSUMER)
                     .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerDefinition.getName());
@@ -373,6 +546,20 @@ public class JmsPlugin extends AbstractSeedPlugin {
             throw SeedException.createNew(JmsErrorCode.DUPLICATE_MESSAGE_LISTENER_NAME)
                     .put(ERROR_MESSAGE_LISTENER_NAME, messageListenerDefinition.getName());
         }
+        messageListenerContainers.put(messageListenerDefinition.getName(), messageListenerContainer);
+
+        if (messageListenerDefinition.getMaxConcurrency() > messageListenerDefinition.getConcurrency()) {
+            if (messageListenerDefinition.getDestination() instanceof Queue) {
+                messageListenerAutoscalers.put(messageListenerDefinition.getName(), new MessageListenerAutoscaler(
+                        messageListenerContainer,
+                        connections.get(messageListenerDefinition.getConnectionName()),
+                        listenerConfig.getScalingInterval(),
+                        listenerConfig.getBacklogPerConsumer()));
+            } else {
+                LOGGER.warn("Scaling is only supported on queues, JMS listener {} will not be scaled",
+                        messageListenerDefinition.getName());
+            }
+        }
     }
 
     /**
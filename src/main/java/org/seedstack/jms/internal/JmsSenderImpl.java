@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import javax.jms.BytesMessage;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import org.seedstack.jms.JmsSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends batches over sessions borrowed from the session pool of the connection. The producer is closed after each
+ * batch, which returns it to the producer cache of the session.
+ */
+class JmsSenderImpl implements JmsSender {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsSenderImpl.class);
+    private final String connectionName;
+    private final JmsSessionPool sessionPool;
+    private final Executor executor;
+
+    JmsSenderImpl(String connectionName, JmsSessionPool sessionPool, Executor executor) {
+        this.connectionName = checkNotNull(connectionName);
+        this.sessionPool = checkNotNull(sessionPool);
+        this.executor = checkNotNull(executor);
+    }
+
+    @Override
+    public void sendBatch(Destination destination, Collection<?> messages) throws JMSException {
+        checkNotNull(destination);
+        checkNotNull(messages);
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Session session = sessionPool.borrow();
+        try {
+            MessageProducer producer = session.createProducer(destination);
+            try {
+                for (Object message : messages) {
+                    producer.send(toMessage(session, message));
+                }
+            } finally {
+                producer.close();
+            }
+            session.commit();
+            LOGGER.debug("Sent a batch of {} message(s) on JMS connection {}", messages.size(), connectionName);
+        } catch (JMSException | RuntimeException e) {
+            try {
+                session.rollback();
+            } catch (JMSException rollbackException) {
+                LOGGER.warn("Unable to rollback batch on JMS connection {}", connectionName, rollbackException);
+            }
+            throw e;
+        } finally {
+            sessionPool.release(session);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> sendBatchAsync(Destination destination, Collection<?> messages) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    sendBatch(destination, messages);
+                    result.complete(null);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private Message toMessage(Session session, Object object) throws JMSException {
+        if (object instanceof Message) {
+            return (Message) object;
+        } else if (object instanceof String) {
+            return session.createTextMessage((String) object);
+        } else if (object instanceof byte[]) {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes((byte[]) object);
+            return bytesMessage;
+        } else if (object instanceof Map) {
+            MapMessage mapMessage = session.createMapMessage();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                mapMessage.setObject(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            return mapMessage;
+        } else if (object instanceof Serializable) {
+            return session.createObjectMessage((Serializable) object);
+        } else {
+            throw new MessageFormatException("Cannot convert " + (object == null ? "null" : object.getClass().getName())
+                    + " to a JMS message");
+        }
+    }
+}
@@ -16,12 +16,13 @@ class JmsSessionLink implements TransactionalLink<Session> {
     private final ThreadLocal<Deque<Session>> sessionThreadLocal;
 
     JmsSessionLink() {
-        sessionThreadLocal = ThreadLocal.withInitial(ArrayDeque::new);
+        // No initial value so threads only reading the link, like JMS provider or virtual threads, hold no state
+        sessionThreadLocal = new ThreadLocal<>();
     }
 
     @Override
     public Session get() {
-        Session session = sessionThreadLocal.get().peek();
+        Session session = getCurrentTransaction();
         if (session == null) {
             throw new IllegalStateException("Attempt to use a JMS session without a transaction");
         }
@@ -30,11 +31,17 @@ class JmsSessionLink implements TransactionalLink<Session> {
     }
 
     Session getCurrentTransaction() {
-        return sessionThreadLocal.get().peek();
+        Deque<Session> sessions = sessionThreadLocal.get();
+        return sessions == null ? null : sessions.peek();
     }
 
     void push(Session session) {
-        sessionThreadLocal.get().push(session);
+        Deque<Session> sessions = sessionThreadLocal.get();
+        if (sessions == null) {
+            sessions = new ArrayDeque<>();
+            sessionThreadLocal.set(sessions);
+        }
+        sessions.push(session);
     }
 
     Session pop() {
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of the transacted sessions used by JMS transactions on a connection. The most recently released session
+ * is borrowed first so the least used ones become idle and are evicted after the idle timeout. Sessions are validated
+ * when borrowed and the ones left idle while a {@link ReconnectingConnection} reconnects are discarded. A managed
+ * session which has created consumers, browsers or temporary destinations is discarded instead of being pooled.
+ */
+class JmsSessionPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsSessionPool.class);
+    private final ConcurrentLinkedDeque<PooledSession> idleSessions = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Connection connection;
+    private final int maxIdleSessions;
+    private final int idleTimeout;
+
+    JmsSessionPool(Connection connection, int maxIdleSessions, int idleTimeout) {
+        this.connection = checkNotNull(connection);
+        this.maxIdleSessions = Math.max(0, maxIdleSessions);
+        this.idleTimeout = Math.max(0, idleTimeout);
+    }
+
+    /**
+     * Returns a valid idle session or creates a new one if none is available.
+     *
+     * @return a transacted session.
+     * @throws JMSException if a new session cannot be created.
+     */
+    Session borrow() throws JMSException {
+        PooledSession pooledSession;
+        while ((pooledSession = idleSessions.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            if (isValid(pooledSession)) {
+                return pooledSession.session;
+            }
+            discard(pooledSession.session);
+        }
+        return connection.createSession(true, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    /**
+     * Returns a session to the pool. The session is closed if the pool is full or if it is no longer usable.
+     *
+     * @param session the session to release.
+     */
+    void release(Session session) {
+        PooledSession pooledSession = new PooledSession(session, getGeneration(), System.currentTimeMillis());
+        if (idleCount.incrementAndGet() <= maxIdleSessions && isValid(pooledSession)) {
+            idleSessions.offerFirst(pooledSession);
+        } else {
+            idleCount.decrementAndGet();
+            discard(session);
+        }
+    }
+
+    /**
+     * Closes a session instead of returning it to the pool, typically because the transaction using it has failed.
+     *
+     * @param session the session to discard.
+     */
+    void discard(Session session) {
+        try {
+            session.close();
+        } catch (JMSException | RuntimeException e) {
+            LOGGER.debug("Unable to close discarded JMS session", e);
+        }
+    }
+
+    /**
+     * Closes the sessions which have been idle for longer than the idle timeout.
+     */
+    void evict() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledSession> iterator = idleSessions.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledSession pooledSession = iterator.next();
+            if (now - pooledSession.releasedAt < idleTimeout) {
+                // Older sessions are at the tail so the remaining ones are more recent
+                break;
+            }
+            if (idleSessions.removeLastOccurrence(pooledSession)) {
+                idleCount.decrementAndGet();
+                LOGGER.debug("Evicting idle JMS session");
+                discard(pooledSession.session);
+            }
+        }
+    }
+
+    /**
+     * Closes all idle sessions.
+     */
+    void clear() {
+        PooledSession pooledSession;
+        while ((pooledSession = idleSessions.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            discard(pooledSession.session);
+        }
+    }
+
+    int getIdleCount() {
+        return idleCount.get();
+    }
+
+    int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    private boolean isValid(PooledSession pooledSession) {
+        if (pooledSession.generation != getGeneration()) {
+            return false;
+        }
+        if (pooledSession.session instanceof ManagedSession
+                && !((ManagedSession) pooledSession.session).isReusable()) {
+            return false;
+        }
+        try {
+            return pooledSession.session.getTransacted();
+        } catch (JMSException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private int getGeneration() {
+        if (connection instanceof ReconnectingConnection) {
+            return ((ReconnectingConnection) connection).getGeneration();
+        }
+        return 0;
+    }
+
+    private static class PooledSession {
+        private final Session session;
+        private final int generation;
+        private final long releasedAt;
+
+        private PooledSession(Session session, int generation, long releasedAt) {
+            this.session = session;
+            this.generation = generation;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
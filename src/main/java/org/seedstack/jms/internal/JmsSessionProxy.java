@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import javax.jms.Session;
+
+/**
+ * The injectable session, which delegates every call to the session of the current transaction. Since JMS 2.0 the
+ * session is {@link AutoCloseable}, which the generic transactional proxy of Seed intercepts, so this proxy is used
+ * instead to keep {@link Session#close()} delegated.
+ */
+final class JmsSessionProxy implements InvocationHandler {
+    private final JmsSessionLink jmsSessionLink;
+
+    private JmsSessionProxy(JmsSessionLink jmsSessionLink) {
+        this.jmsSessionLink = jmsSessionLink;
+    }
+
+    static Session create(JmsSessionLink jmsSessionLink) {
+        return (Session) Proxy.newProxyInstance(JmsSessionProxy.class.getClassLoader(),
+                new Class<?>[]{Session.class},
+                new JmsSessionProxy(jmsSessionLink));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass().equals(Object.class)) {
+            // The proxy is a single injectable object, not the session of the current transaction
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "JmsSessionProxy@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+        }
+        try {
+            return method.invoke(jmsSessionLink.get(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Owns the threads of the add-on: a scheduler with a bounded number of threads running every timed task (reconnection
+ * attempts, poller restarts, autoscaling and session eviction) and the factories of the long-running threads
+ * (pollers, senders, session refreshes). Threads are named {@code jms-<purpose>-<number>} and counted, so leaks
+ * can be detected.
+ */
+class JmsThreads {
+    private static final int KEEP_ALIVE = 60;
+    private final ConcurrentMap<String, AtomicInteger> threadNumbers = new ConcurrentHashMap<>();
+    private final LongAdder createdThreads = new LongAdder();
+    private final AtomicInteger liveThreads = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * Creates the threads of the add-on. No thread is started until a task is scheduled or a thread is created.
+     *
+     * @param schedulerThreads the maximum number of threads of the scheduler.
+     */
+    JmsThreads(int schedulerThreads) {
+        scheduler = new ScheduledThreadPoolExecutor(Math.max(1, schedulerThreads),
+                newThreadFactory("scheduler", true));
+        // Idle scheduler threads are released, so the add-on holds no thread while nothing is scheduled
+        scheduler.setKeepAliveTime(KEEP_ALIVE, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Returns the scheduler shared by all the timed tasks of the add-on.
+     *
+     * @return the scheduler.
+     */
+    ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Creates a factory of named and counted threads.
+     *
+     * @param purpose the purpose of the threads, used in their name.
+     * @param daemon  true to create daemon threads, false otherwise.
+     * @return the thread factory.
+     */
+    ThreadFactory newThreadFactory(String purpose, boolean daemon) {
+        AtomicInteger threadNumber = threadNumbers.computeIfAbsent(purpose, p -> new AtomicInteger());
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                liveThreads.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    liveThreads.decrementAndGet();
+                }
+            }, "jms-" + purpose + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(daemon);
+            createdThreads.increment();
+            return thread;
+        };
+    }
+
+    /**
+     * Stops the scheduler, cancelling the pending tasks, and interrupts its threads.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    long getCreatedThreads() {
+        return createdThreads.sum();
+    }
+
+    int getLiveThreads() {
+        return liveThreads.get();
+    }
+
+    int getSchedulerThreads() {
+        return scheduler.getPoolSize();
+    }
+
+    int getScheduledTasks() {
+        return scheduler.getQueue().size();
+    }
+
+    long getCompletedTasks() {
+        return scheduler.getCompletedTaskCount();
+    }
+}
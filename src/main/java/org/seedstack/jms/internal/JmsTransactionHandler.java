@@ -10,24 +10,25 @@ package org.seedstack.jms.internal;
 
 import org.seedstack.seed.transaction.spi.TransactionMetadata;
 
-import javax.jms.Connection;
 import javax.jms.JMSException;
 import javax.jms.Session;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 class JmsTransactionHandler extends AbstractJmsTransactionHandler {
-    private Connection connection;
+    private final Set<Session> failedSessions = ConcurrentHashMap.newKeySet();
+    private JmsSessionPool sessionPool;
     private JmsSessionLink jmsSessionLink;
 
-    JmsTransactionHandler(JmsSessionLink jmsSessionLink, Connection connection) {
+    JmsTransactionHandler(JmsSessionLink jmsSessionLink, JmsSessionPool sessionPool) {
         this.jmsSessionLink = jmsSessionLink;
-        this.connection = connection;
+        this.sessionPool = sessionPool;
     }
 
     @Override
     public void doInitialize(TransactionMetadata transactionMetadata) {
         try {
-            Session session = connection.createSession(true, Session.AUTO_ACKNOWLEDGE);
-            jmsSessionLink.push(session);
+            jmsSessionLink.push(sessionPool.borrow());
         } catch (JMSException e) {
             throw new IllegalStateException(e);
         }
@@ -39,11 +40,29 @@ class JmsTransactionHandler extends AbstractJmsTransactionHandler {
     }
 
     @Override
-    public void doCleanup() {
+    public void doCommitTransaction(Session session) {
         try {
-            jmsSessionLink.pop().close();
-        } catch (JMSException e) {
-            throw new IllegalStateException("Unable to release JMS transaction", e);
+            super.doCommitTransaction(session);
+        } catch (RuntimeException e) {
+            failedSessions.add(session);
+            throw e;
+        }
+    }
+
+    @Override
+    public void doRollbackTransaction(Session session) {
+        // The session of a failed transaction may be broken, it is not reused
+        failedSessions.add(session);
+        super.doRollbackTransaction(session);
+    }
+
+    @Override
+    public void doCleanup() {
+        Session session = jmsSessionLink.pop();
+        if (failedSessions.remove(session)) {
+            sessionPool.discard(session);
+        } else {
+            sessionPool.release(session);
         }
     }
 
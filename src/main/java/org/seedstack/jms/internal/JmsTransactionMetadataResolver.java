@@ -8,61 +8,76 @@
 package org.seedstack.jms.internal;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.jms.BatchMessageListener;
 import org.seedstack.jms.JmsConnection;
 import org.seedstack.seed.transaction.spi.TransactionMetadata;
 import org.seedstack.seed.transaction.spi.TransactionMetadataResolver;
 
+import javax.jms.Message;
 import javax.jms.MessageListener;
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This {@link org.seedstack.seed.transaction.spi.TransactionMetadataResolver}
  * resolves metadata for transactions marked with
- * {@link org.seedstack.jms.JmsConnection} or for the method
- * {@link MessageListener#onMessage(javax.jms.Message)}.
+ * {@link org.seedstack.jms.JmsConnection} or for the methods
+ * {@link MessageListener#onMessage(javax.jms.Message)} and
+ * {@link BatchMessageListener#onMessages(java.util.List)}.
+ * The metadata is resolved once per method and shared by all
+ * its invocations, it must not be modified.
  */
 class JmsTransactionMetadataResolver implements TransactionMetadataResolver {
+    private final ConcurrentMap<Method, Optional<TransactionMetadata>> cache = new ConcurrentHashMap<>();
+
     @Override
     public TransactionMetadata resolve(MethodInvocation methodInvocation, TransactionMetadata defaults) {
-        Class<?> declaringClass = methodInvocation.getMethod().getDeclaringClass();
+        Method method = methodInvocation.getMethod();
+        Optional<TransactionMetadata> transactionMetadata = cache.get(method);
+        if (transactionMetadata == null) {
+            transactionMetadata = cache.computeIfAbsent(method, this::resolveMetadata);
+        }
+        return transactionMetadata.orElse(null);
+    }
+
+    Optional<TransactionMetadata> resolveMetadata(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
         if (MessageListener.class.isAssignableFrom(declaringClass)) {
-            if (compare(methodInvocation.getMethod(), MessageListener.class.getDeclaredMethods()[0])) {
+            if (isOnMessage(method) || isOnMessages(method)) {
                 TransactionMetadata transactionMetadata = new TransactionMetadata();
                 transactionMetadata.setHandler(JmsListenerTransactionHandler.class);
                 transactionMetadata.setResource(declaringClass.getCanonicalName());
 
-                return transactionMetadata;
+                return Optional.of(transactionMetadata);
             }
         }
-        Optional<JmsConnection> jmsConnection = JmsConnectionResolver.INSTANCE.apply(methodInvocation.getMethod());
+        Optional<JmsConnection> jmsConnection = JmsConnectionResolver.INSTANCE.apply(method);
 
         if (jmsConnection.isPresent()) {
             TransactionMetadata transactionMetadata = new TransactionMetadata();
             transactionMetadata.setHandler(JmsTransactionHandler.class);
             transactionMetadata.setResource(jmsConnection.get().value());
 
-            return transactionMetadata;
+            return Optional.of(transactionMetadata);
         }
 
-        return null;
+        return Optional.empty();
     }
 
-    private boolean compare(Method o1, Method o2) {
-        if (!o1.getName().equals(o2.getName())) {
-            return false;
-        }
-        if (o1.getParameterTypes().length != o2.getParameterTypes().length) {
-            return false;
-        }
-        final Class<?>[] parameterTypes1 = o1.getParameterTypes();
-        final Class<?>[] parameterTypes2 = o2.getParameterTypes();
-        for (int i = 0; i < parameterTypes1.length; i++) {
-            if (!parameterTypes1[i].equals(parameterTypes2[i])) {
-                return false;
-            }
-        }
-        return true;
+    private boolean isOnMessage(Method method) {
+        return "onMessage".equals(method.getName())
+                && method.getParameterTypes().length == 1
+                && method.getParameterTypes()[0].equals(Message.class);
+    }
+
+    private boolean isOnMessages(Method method) {
+        return BatchMessageListener.class.isAssignableFrom(method.getDeclaringClass())
+                && "onMessages".equals(method.getName())
+                && method.getParameterTypes().length == 1
+                && method.getParameterTypes()[0].equals(List.class);
     }
 
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.util.Providers;
+
+/**
+ * Resolves the listeners invoked by the adapters once, so no binding lookup happens for each message or exception.
+ */
+final class ListenerProviders {
+    private ListenerProviders() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Resolves the provider of a listener binding. The instance of a singleton listener is retrieved immediately and
+     * kept, other listeners are provided by the pre-resolved provider of the binding.
+     *
+     * @param injector the injector holding the binding.
+     * @param key      the key of the binding.
+     * @param <T>      the type of listener.
+     * @return the resolved provider.
+     */
+    static <T> Provider<T> resolve(Injector injector, Key<T> key) {
+        if (Scopes.isSingleton(injector.getBinding(key))) {
+            return Providers.of(injector.getInstance(key));
+        } else {
+            return injector.getProvider(key);
+        }
+    }
+}
@@ -10,12 +10,19 @@ package org.seedstack.jms.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.Sets;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
 import javax.jms.Connection;
 import javax.jms.ConnectionConsumer;
 import javax.jms.ConnectionMetaData;
@@ -25,29 +32,58 @@ import javax.jms.JMSException;
 import javax.jms.ServerSessionPool;
 import javax.jms.Session;
 import javax.jms.Topic;
+import org.seedstack.jms.JMSCircuitOpenException;
+import org.seedstack.jms.JmsConfig;
 import org.seedstack.jms.spi.ConnectionDefinition;
+import org.seedstack.jms.spi.ReconnectionPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This connection is a facade to the actual jms connection. It provides the reconnection mechanism.
+ *
+ * <p>In {@link JmsConfig.ConnectionConfig.ReconnectionMode#SERIAL} mode, the new connection is created and every
+ * session is refreshed one after the other while holding the connection lock. In
+ * {@link JmsConfig.ConnectionConfig.ReconnectionMode#MAKE_BEFORE_BREAK} mode, the new connection is created and the
+ * sessions are refreshed in parallel without the connection lock, then the new connection is published at once. In
+ * both modes the sessions with the highest refresh priority are refreshed first.</p>
+ *
+ * <p>Reconnection attempts are scheduled by the {@link ReconnectionPolicy} on the scheduler of the add-on.
+ * When the policy opens the circuit breaker, callers fail fast with a {@link JMSCircuitOpenException} until an attempt
+ * succeeds.</p>
  */
-class ManagedConnection implements Connection, ExceptionListener {
+class ManagedConnection implements ReconnectingConnection, ExceptionListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(ManagedConnection.class);
     private final Set<ManagedSession> sessions = Sets.newConcurrentHashSet();
+    private final Set<ManagedConnectionConsumer> connectionConsumers = Sets.newConcurrentHashSet();
     private final AtomicBoolean needToStart = new AtomicBoolean(false);
     private final ConnectionDefinition connectionDefinition;
     private final JmsFactoryImpl jmsFactoryImpl;
     private final AtomicBoolean scheduleInProgress;
-    private final ReentrantReadWriteLock connectionLock = new ReentrantReadWriteLock();
+    private final StampedLock connectionLock = new StampedLock();
+    private final JmsConfig.ConnectionConfig.ReconnectionMode reconnectionMode;
+    private final int refreshThreads;
+    private final ReconnectionPolicy reconnectionPolicy;
+    private final AtomicInteger failedAttempts = new AtomicInteger();
     private Connection connection;
     private ExceptionListener exceptionListener;
-
-    ManagedConnection(ConnectionDefinition connectionDefinition, JmsFactoryImpl jmsFactoryImpl) throws JMSException {
+    private volatile int generation;
+    private volatile boolean circuitOpen;
+    private volatile long nextAttempt;
+    private final JmsThreads threads;
+    private ThreadPoolExecutor refreshExecutor;
+
+    ManagedConnection(ConnectionDefinition connectionDefinition, JmsFactoryImpl jmsFactoryImpl,
+            JmsConfig.ConnectionConfig.ReconnectionMode reconnectionMode, int refreshThreads,
+            ReconnectionPolicy reconnectionPolicy, JmsThreads threads) throws JMSException {
         checkNotNull(connectionDefinition);
 
         this.jmsFactoryImpl = jmsFactoryImpl;
         this.connectionDefinition = connectionDefinition;
+        this.reconnectionMode = checkNotNull(reconnectionMode);
+        this.refreshThreads = Math.max(1, refreshThreads);
+        this.reconnectionPolicy = checkNotNull(reconnectionPolicy);
+        this.threads = checkNotNull(threads);
         this.scheduleInProgress = new AtomicBoolean(false);
         this.connection = createConnection();
     }
@@ -65,58 +101,216 @@ class ManagedConnection implements Connection, ExceptionListener {
         return newConnection;
     }
 
-    private void scheduleReconnection() {
-        TimerTask timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                connectionLock.writeLock().lock();
+    private long scheduleReconnection() {
+        long delay = Math.max(0, reconnectionPolicy.getDelay(failedAttempts.get() + 1));
+        nextAttempt = System.currentTimeMillis() + delay;
+        try {
+            threads.getScheduler().schedule(() -> {
+                if (reconnectionMode == JmsConfig.ConnectionConfig.ReconnectionMode.MAKE_BEFORE_BREAK) {
+                    reconnectBeforeSwap();
+                } else {
+                    reconnect();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Unable to schedule restart of managed JMS connection {}, the JMS add-on is stopped",
+                    connectionDefinition.getName());
+        }
+        return delay;
+    }
 
-                try {
-                    // Recreate the connection
-                    LOGGER.info("Recreating managed JMS connection {}", connectionDefinition.getName());
-                    connection = createConnection();
+    private void retryReconnection() {
+        int failures = failedAttempts.incrementAndGet();
+        if (!circuitOpen && reconnectionPolicy.isCircuitOpen(failures)) {
+            LOGGER.warn("Opening the circuit breaker of managed JMS connection {} after {} failed reconnection attempts",
+                    connectionDefinition.getName(),
+                    failures);
+            circuitOpen = true;
+        }
+        long delay = scheduleReconnection();
+        LOGGER.error("Failed to restart managed JMS connection {}, next attempt in {} ms",
+                connectionDefinition.getName(),
+                delay);
+    }
 
-                    // Refresh sessions
-                    for (ManagedSession session : sessions) {
-                        session.refresh(connection);
-                    }
+    private void reconnectionSucceeded() {
+        failedAttempts.set(0);
+        if (circuitOpen) {
+            LOGGER.info("Closing the circuit breaker of managed JMS connection {}", connectionDefinition.getName());
+            circuitOpen = false;
+        }
+    }
 
-                    // Start the new connection if needed
-                    if (needToStart.get()) {
-                        LOGGER.info("Restarting managed JMS connection {}", connectionDefinition.getName());
-                        connection.start();
-                        scheduleInProgress.set(false);
-                    }
-                } catch (JMSException | RuntimeException e) {
-                    LOGGER.error("Failed to restart managed JMS connection {}, next attempt in {} ms",
-                            connectionDefinition.getName(),
-                            connectionDefinition.getReconnectionDelay());
-                    scheduleReconnection();
-                } finally {
-                    connectionLock.writeLock().unlock();
-                }
+    private void checkCircuit() throws JMSCircuitOpenException {
+        if (circuitOpen) {
+            throw new JMSCircuitOpenException(connectionDefinition.getName(), nextAttempt);
+        }
+    }
+
+    private void reconnect() {
+        long stamp = connectionLock.writeLock();
 
+        try {
+            // Recreate the connection
+            LOGGER.info("Recreating managed JMS connection {}", connectionDefinition.getName());
+            connection = createConnection();
+
+            // Refresh sessions
+            for (ManagedSession session : getSessionsByPriority()) {
+                session.refresh(connection);
             }
-        };
 
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.MILLISECOND, connectionDefinition.getReconnectionDelay());
-        new Timer().schedule(timerTask, calendar.getTime());
+            // Refresh connection consumers
+            for (ManagedConnectionConsumer connectionConsumer : connectionConsumers) {
+                connectionConsumer.refresh(connection);
+            }
+
+            // Start the new connection if needed
+            if (needToStart.get()) {
+                LOGGER.info("Restarting managed JMS connection {}", connectionDefinition.getName());
+                connection.start();
+                scheduleInProgress.set(false);
+            }
+            reconnectionSucceeded();
+        } catch (JMSException | RuntimeException e) {
+            retryReconnection();
+        } finally {
+            connectionLock.unlockWrite(stamp);
+        }
     }
 
-    private Connection getConnection() throws JMSException {
-        connectionLock.readLock().lock();
+    private void reconnectBeforeSwap() {
+        // The connection stays unpublished while it is prepared, so new sessions fail fast instead of waiting
+        Connection newConnection = null;
         try {
-            if (connection == null) {
-                throw new JMSException("Managed JMS connection " + connectionDefinition.getName() + " is not ready");
+            LOGGER.info("Recreating managed JMS connection {} and refreshing {} session(s) in parallel",
+                    connectionDefinition.getName(),
+                    sessions.size());
+            newConnection = createConnection();
+            refreshSessionsInParallel(newConnection);
+            for (ManagedConnectionConsumer connectionConsumer : connectionConsumers) {
+                connectionConsumer.refresh(newConnection);
             }
+        } catch (JMSException | RuntimeException e) {
+            discard(newConnection);
+            retryReconnection();
+            return;
+        }
 
-            return connection;
+        long stamp = connectionLock.writeLock();
+        try {
+            connection = newConnection;
+            if (needToStart.get()) {
+                LOGGER.info("Restarting managed JMS connection {}", connectionDefinition.getName());
+                connection.start();
+                scheduleInProgress.set(false);
+            }
+            reconnectionSucceeded();
+        } catch (JMSException | RuntimeException e) {
+            connection = null;
+            discard(newConnection);
+            retryReconnection();
         } finally {
-            connectionLock.readLock().unlock();
+            connectionLock.unlockWrite(stamp);
+        }
+    }
+
+    private void refreshSessionsInParallel(Connection newConnection) throws JMSException {
+        // The executor queue is FIFO, so the sessions with the highest priority are refreshed first
+        ThreadPoolExecutor executor = getRefreshExecutor();
+        List<Future<Void>> refreshes = new ArrayList<>();
+        for (ManagedSession session : getSessionsByPriority()) {
+            refreshes.add(executor.submit(() -> {
+                session.refresh(newConnection);
+                return null;
+            }));
+        }
+
+        // Wait for every refresh, even after a failure, so none is still running when the connection is discarded
+        JMSException failure = null;
+        for (Future<Void> refresh : refreshes) {
+            try {
+                refresh.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = toJMSException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = toJMSException(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
         }
     }
 
+    private JMSException toJMSException(Throwable cause) {
+        if (cause instanceof JMSException) {
+            return (JMSException) cause;
+        }
+        JMSException exception = new JMSException("Unable to refresh a session of managed JMS connection "
+                + connectionDefinition.getName());
+        exception.initCause(cause);
+        return exception;
+    }
+
+    private void discard(Connection newConnection) {
+        // Objects refreshed on the discarded connection must not be used until the next attempt
+        for (ManagedSession session : sessions) {
+            session.reset();
+        }
+        for (ManagedConnectionConsumer connectionConsumer : connectionConsumers) {
+            connectionConsumer.reset();
+        }
+        if (newConnection != null) {
+            try {
+                newConnection.close();
+            } catch (JMSException | RuntimeException e) {
+                LOGGER.warn("Unable to cleanly close the managed JMS connection {}", connectionDefinition.getName());
+            }
+        }
+    }
+
+    private List<ManagedSession> getSessionsByPriority() {
+        List<ManagedSession> sessionsByPriority = new ArrayList<>(sessions);
+        sessionsByPriority.sort(Comparator.comparingInt(ManagedSession::getRefreshPriority).reversed());
+        return sessionsByPriority;
+    }
+
+    private synchronized ThreadPoolExecutor getRefreshExecutor() {
+        if (refreshExecutor == null) {
+            refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    threads.newThreadFactory("refresh-" + connectionDefinition.getName(), true));
+            // Threads are only started by reconnections
+            refreshExecutor.allowCoreThreadTimeOut(true);
+        }
+        return refreshExecutor;
+    }
+
+    private Connection getConnection() throws JMSException {
+        checkCircuit();
+        long stamp = connectionLock.tryOptimisticRead();
+        Connection currentConnection = connection;
+        if (!connectionLock.validate(stamp)) {
+            // A reset or a reconnection is in progress, wait for it to complete
+            stamp = connectionLock.readLock();
+            try {
+                currentConnection = connection;
+            } finally {
+                connectionLock.unlockRead(stamp);
+            }
+        }
+
+        if (currentConnection == null) {
+            throw new JMSException("Managed JMS connection " + connectionDefinition.getName() + " is not ready");
+        }
+        return currentConnection;
+    }
+
     @Override
     public void onException(JMSException exception) {
         LOGGER.error("An exception occurred on managed JMS connection {}", connectionDefinition.getName());
@@ -136,16 +330,17 @@ class ManagedConnection implements Connection, ExceptionListener {
             LOGGER.debug("Managed JMS connection {} already scheduled for restart", connectionDefinition.getName());
         } else {
             // reset the connection
-            LOGGER.warn("Resetting managed JMS connection {} and scheduling restart in {} ms",
-                    connectionDefinition.getName(),
-                    connectionDefinition.getReconnectionDelay());
+            LOGGER.warn("Resetting managed JMS connection {}", connectionDefinition.getName());
 
-            connectionLock.writeLock().lock();
+            long stamp = connectionLock.writeLock();
             try {
                 // Reset the sessions to prevent their use during refresh
                 for (ManagedSession session : sessions) {
                     session.reset();
                 }
+                for (ManagedConnectionConsumer connectionConsumer : connectionConsumers) {
+                    connectionConsumer.reset();
+                }
 
                 // Effectively close th connection and prevent its use during refresh
                 if (connection != null) {
@@ -157,11 +352,15 @@ class ManagedConnection implements Connection, ExceptionListener {
                     }
                 }
                 connection = null;
+                generation++;
 
                 // Schedule
-                scheduleReconnection();
+                long delay = scheduleReconnection();
+                LOGGER.info("Restart of managed JMS connection {} scheduled in {} ms",
+                        connectionDefinition.getName(),
+                        delay);
             } finally {
-                connectionLock.writeLock().unlock();
+                connectionLock.unlockWrite(stamp);
             }
         }
     }
@@ -170,10 +369,15 @@ class ManagedConnection implements Connection, ExceptionListener {
 
     @Override
     public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
-        connectionLock.readLock().lock();
+        checkCircuit();
+        // Hold the lock until the session is registered so a concurrent reconnection cannot miss it
+        long stamp = connectionLock.readLock();
         try {
+            if (connection == null) {
+                throw new JMSException("Managed JMS connection " + connectionDefinition.getName() + " is not ready");
+            }
             ManagedSession managedSession = new ManagedSession(
-                    getConnection().createSession(transacted, acknowledgeMode),
+                    connection.createSession(transacted, acknowledgeMode),
                     transacted,
                     acknowledgeMode,
                     connectionDefinition.isJeeMode(),
@@ -181,24 +385,88 @@ class ManagedConnection implements Connection, ExceptionListener {
             sessions.add(managedSession);
             return managedSession;
         } finally {
-            connectionLock.readLock().unlock();
+            connectionLock.unlockRead(stamp);
         }
     }
 
     @Override
     public ConnectionConsumer createConnectionConsumer(Destination destination, String messageSelector,
             ServerSessionPool sessionPool, int maxMessages) throws JMSException {
-        return getConnection().createConnectionConsumer(destination, messageSelector, sessionPool, maxMessages);
+        return createConnectionConsumer("Connection consumer",
+                sessionPool,
+                c -> c.createConnectionConsumer(destination, messageSelector, sessionPool, maxMessages));
     }
 
     @Override
     public ConnectionConsumer createDurableConnectionConsumer(Topic topic, String subscriptionName,
             String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
-        return getConnection().createDurableConnectionConsumer(topic,
-                subscriptionName,
-                messageSelector,
+        return createConnectionConsumer("Durable connection consumer",
+                sessionPool,
+                c -> c.createDurableConnectionConsumer(topic,
+                        subscriptionName,
+                        messageSelector,
+                        sessionPool,
+                        maxMessages));
+    }
+
+    @Override
+    public Session createSession(int sessionMode) throws JMSException {
+        // Sessions are refreshed with the JMS 1.1 method so the mode is translated to work with any provider
+        return createSession(sessionMode == Session.SESSION_TRANSACTED, sessionMode);
+    }
+
+    @Override
+    public Session createSession() throws JMSException {
+        return createSession(false, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Override
+    public ConnectionConsumer createSharedConnectionConsumer(Topic topic, String subscriptionName,
+            String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return createConnectionConsumer("Shared connection consumer",
                 sessionPool,
-                maxMessages);
+                c -> c.createSharedConnectionConsumer(topic,
+                        subscriptionName,
+                        messageSelector,
+                        sessionPool,
+                        maxMessages));
+    }
+
+    @Override
+    public ConnectionConsumer createSharedDurableConnectionConsumer(Topic topic, String subscriptionName,
+            String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return createConnectionConsumer("Shared durable connection consumer",
+                sessionPool,
+                c -> c.createSharedDurableConnectionConsumer(topic,
+                        subscriptionName,
+                        messageSelector,
+                        sessionPool,
+                        maxMessages));
+    }
+
+    private ConnectionConsumer createConnectionConsumer(String operation, ServerSessionPool sessionPool,
+            ManagedConnectionConsumer.Factory factory) throws JMSException {
+        checkCircuit();
+        // Hold the lock until the connection consumer is registered so a concurrent reconnection cannot miss it
+        long stamp = connectionLock.readLock();
+        try {
+            if (connection == null) {
+                throw new JMSException("Managed JMS connection " + connectionDefinition.getName() + " is not ready");
+            }
+            ManagedConnectionConsumer connectionConsumer;
+            try {
+                connectionConsumer = new ManagedConnectionConsumer(factory.create(connection),
+                        factory,
+                        sessionPool,
+                        this);
+            } catch (AbstractMethodError e) {
+                throw Jms2Support.unsupported(operation, e);
+            }
+            connectionConsumers.add(connectionConsumer);
+            return connectionConsumer;
+        } finally {
+            connectionLock.unlockRead(stamp);
+        }
     }
 
     @Override
@@ -249,4 +517,17 @@ class ManagedConnection implements Connection, ExceptionListener {
     void removeSession(ManagedSession managedSession) {
         sessions.remove(managedSession);
     }
+
+    void removeConnectionConsumer(ManagedConnectionConsumer managedConnectionConsumer) {
+        connectionConsumers.remove(managedConnectionConsumer);
+    }
+
+    int getSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public int getGeneration() {
+        return generation;
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.locks.StampedLock;
+import javax.jms.Connection;
+import javax.jms.ConnectionConsumer;
+import javax.jms.JMSException;
+import javax.jms.ServerSessionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This connection consumer is a facade of a JMS connection consumer. It allows the reconnection mechanism: the
+ * connection consumer is created again by its {@link Factory} with the same server session pool when the connection is
+ * recreated.
+ */
+class ManagedConnectionConsumer implements ConnectionConsumer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedConnectionConsumer.class);
+    private final Factory factory;
+    private final ServerSessionPool serverSessionPool;
+    private final StampedLock connectionConsumerLock = new StampedLock();
+    private final ManagedConnection managedConnection;
+    private ConnectionConsumer connectionConsumer;
+
+    ManagedConnectionConsumer(ConnectionConsumer connectionConsumer, Factory factory,
+            ServerSessionPool serverSessionPool, ManagedConnection managedConnection) {
+        checkNotNull(connectionConsumer);
+        checkNotNull(factory);
+
+        LOGGER.debug("Creating managed JMS connection consumer {}", this);
+
+        this.connectionConsumer = connectionConsumer;
+        this.factory = factory;
+        this.serverSessionPool = serverSessionPool;
+        this.managedConnection = managedConnection;
+    }
+
+    void refresh(Connection connection) throws JMSException {
+        long stamp = connectionConsumerLock.writeLock();
+        try {
+            LOGGER.debug("Refreshing managed JMS connection consumer {}", this);
+            connectionConsumer = factory.create(connection);
+        } finally {
+            connectionConsumerLock.unlockWrite(stamp);
+        }
+    }
+
+    void reset() {
+        long stamp = connectionConsumerLock.writeLock();
+        try {
+            LOGGER.debug("Resetting managed JMS connection consumer {}", this);
+            connectionConsumer = null;
+        } finally {
+            connectionConsumerLock.unlockWrite(stamp);
+        }
+    }
+
+    private ConnectionConsumer getConnectionConsumer() throws JMSException {
+        long stamp = connectionConsumerLock.tryOptimisticRead();
+        ConnectionConsumer currentConnectionConsumer = connectionConsumer;
+        if (!connectionConsumerLock.validate(stamp)) {
+            // A reset or a refresh is in progress, wait for it to complete
+            stamp = connectionConsumerLock.readLock();
+            try {
+                currentConnectionConsumer = connectionConsumer;
+            } finally {
+                connectionConsumerLock.unlockRead(stamp);
+            }
+        }
+        if (currentConnectionConsumer == null) {
+            throw new JMSException("Attempt to use a connection consumer during connection refresh");
+        }
+        return currentConnectionConsumer;
+    }
+
+    @Override
+    public ServerSessionPool getServerSessionPool() {
+        return serverSessionPool;
+    }
+
+    @Override
+    public void close() throws JMSException {
+        try {
+            LOGGER.debug("Closing managed JMS connection consumer {}", this);
+            getConnectionConsumer().close();
+        } finally {
+            managedConnection.removeConnectionConsumer(this);
+        }
+    }
+
+    /**
+     * Creates the actual connection consumer on a connection.
+     */
+    @FunctionalInterface
+    interface Factory {
+        ConnectionConsumer create(Connection connection) throws JMSException;
+    }
+}
@@ -17,80 +17,93 @@ import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
 import javax.jms.Session;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * This session is a facade of a jms messageConsumer. It allows the reconnection mechanism.
+ * This session is a facade of a jms messageConsumer. It allows the reconnection mechanism. The consumer is created again
+ * on refresh by its {@link Factory}, so the JMS 2.0 shared and durable consumers are refreshed like plain ones.
  */
 class ManagedMessageConsumer implements MessageConsumer {
     private static final Logger LOGGER = LoggerFactory.getLogger(ManagedMessageConsumer.class);
-    private final Destination destination;
-    private final String messageSelector;
-    private final boolean noLocal;
+    private final Factory factory;
     private final boolean polling;
-    private final ReentrantReadWriteLock messageConsumerLock = new ReentrantReadWriteLock();
+    private final StampedLock messageConsumerLock = new StampedLock();
     private final ManagedSession managedSession;
     private MessageListener messageListener;
     private MessageConsumer messageConsumer;
 
     ManagedMessageConsumer(MessageConsumer messageConsumer, Destination destination, @Nullable String messageSelector, boolean noLocal, boolean polling, ManagedSession managedSession) {
+        this(messageConsumer, createFactory(checkNotNull(destination), messageSelector, noLocal), polling, managedSession);
+    }
+
+    ManagedMessageConsumer(MessageConsumer messageConsumer, Factory factory, boolean polling, ManagedSession managedSession) {
         checkNotNull(messageConsumer);
-        checkNotNull(destination);
+        checkNotNull(factory);
 
         LOGGER.debug("Creating managed JMS message consumer {}", this);
 
         this.messageConsumer = messageConsumer;
-        this.messageSelector = messageSelector;
-        this.destination = destination;
-        this.noLocal = noLocal;
+        this.factory = factory;
         this.polling = polling;
         this.managedSession = managedSession;
     }
 
+    private static Factory createFactory(Destination destination, String messageSelector, boolean noLocal) {
+        return session -> {
+            if (noLocal) {
+                return session.createConsumer(destination, messageSelector, true);
+            } else if (messageSelector != null && !"".equals(messageSelector)) {
+                return session.createConsumer(destination, messageSelector);
+            } else {
+                return session.createConsumer(destination);
+            }
+        };
+    }
+
     void refresh(Session session) throws JMSException {
-        messageConsumerLock.writeLock().lock();
+        long stamp = messageConsumerLock.writeLock();
         try {
             // Create a new messageConsumer
             LOGGER.debug("Refreshing managed JMS message consumer {}", this);
-            if (this.noLocal) {
-                messageConsumer = session.createConsumer(destination, messageSelector, true);
-            } else if (messageSelector != null && !"".equals(messageSelector)) {
-                messageConsumer = session.createConsumer(destination, messageSelector);
-            } else {
-                messageConsumer = session.createConsumer(destination);
-            }
+            messageConsumer = factory.create(session);
 
             // Refresh the message listener if it exists
             if (messageListener != null && !this.polling) {
                 messageConsumer.setMessageListener(messageListener);
             }
         } finally {
-            messageConsumerLock.writeLock().unlock();
+            messageConsumerLock.unlockWrite(stamp);
         }
     }
 
     void reset() {
-        messageConsumerLock.writeLock().lock();
+        long stamp = messageConsumerLock.writeLock();
         try {
             LOGGER.debug("Resetting managed JMS message consumer {}", this);
             messageConsumer = null;
         } finally {
-            messageConsumerLock.writeLock().unlock();
+            messageConsumerLock.unlockWrite(stamp);
         }
     }
 
     private MessageConsumer getMessageConsumer() throws JMSException {
-        messageConsumerLock.readLock().lock();
-        try {
-            if (messageConsumer == null) {
-                throw new JMSException("Attempt to use a message consumer during connection refresh");
+        long stamp = messageConsumerLock.tryOptimisticRead();
+        MessageConsumer currentMessageConsumer = messageConsumer;
+        if (!messageConsumerLock.validate(stamp)) {
+            // A reset or a refresh is in progress, wait for it to complete
+            stamp = messageConsumerLock.readLock();
+            try {
+                currentMessageConsumer = messageConsumer;
+            } finally {
+                messageConsumerLock.unlockRead(stamp);
             }
-            return messageConsumer;
-        } finally {
-            messageConsumerLock.readLock().unlock();
         }
+        if (currentMessageConsumer == null) {
+            throw new JMSException("Attempt to use a message consumer during connection refresh");
+        }
+        return currentMessageConsumer;
     }
 
     @Override
@@ -135,4 +148,12 @@ class ManagedMessageConsumer implements MessageConsumer {
     public Message receive() throws JMSException {
         return getMessageConsumer().receive();
     }
+
+    /**
+     * Creates the actual message consumer on a session.
+     */
+    @FunctionalInterface
+    interface Factory {
+        MessageConsumer create(Session session) throws JMSException;
+    }
 }
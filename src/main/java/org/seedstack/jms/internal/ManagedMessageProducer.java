@@ -0,0 +1,297 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import org.seedstack.seed.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.CompletionListener;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import java.util.concurrent.locks.StampedLock;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * This producer is a facade of a JMS message producer. It allows the reconnection mechanism. Its settings are kept to
+ * be applied again when the producer is refreshed. The producer is cached by its session and is not closed by
+ * {@link #close()}: its settings are restored to their defaults and it stays available to the next caller until its
+ * session is closed. With a JMS 1.1
+ * provider, the asynchronous sends of JMS 2.0 are emulated by a synchronous send followed by the completion callback.
+ */
+class ManagedMessageProducer implements MessageProducer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedMessageProducer.class);
+    private final Destination destination;
+    private final StampedLock messageProducerLock = new StampedLock();
+    private MessageProducer messageProducer;
+    private boolean disableMessageID;
+    private boolean disableMessageTimestamp;
+    private int deliveryMode = Message.DEFAULT_DELIVERY_MODE;
+    private int priority = Message.DEFAULT_PRIORITY;
+    private long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+    private long deliveryDelay = Message.DEFAULT_DELIVERY_DELAY;
+    private boolean deliveryDelaySet;
+    private boolean customized;
+
+    ManagedMessageProducer(MessageProducer messageProducer, @Nullable Destination destination) {
+        checkNotNull(messageProducer);
+
+        LOGGER.debug("Creating managed JMS message producer {}", this);
+
+        this.messageProducer = messageProducer;
+        this.destination = destination;
+    }
+
+    void refresh(Session session) throws JMSException {
+        long stamp = messageProducerLock.writeLock();
+        try {
+            LOGGER.debug("Refreshing managed JMS message producer {}", this);
+            messageProducer = session.createProducer(destination);
+            if (customized) {
+                applySettings(messageProducer);
+            }
+        } finally {
+            messageProducerLock.unlockWrite(stamp);
+        }
+    }
+
+    void reset() {
+        long stamp = messageProducerLock.writeLock();
+        try {
+            LOGGER.debug("Resetting managed JMS message producer {}", this);
+            messageProducer = null;
+        } finally {
+            messageProducerLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Restores the default settings of the producer, so the next caller of the cached producer is not affected by the
+     * settings of the previous one.
+     *
+     * @throws JMSException if the settings cannot be applied to the JMS producer.
+     */
+    void restoreDefaults() throws JMSException {
+        if (customized) {
+            disableMessageID = false;
+            disableMessageTimestamp = false;
+            deliveryMode = Message.DEFAULT_DELIVERY_MODE;
+            priority = Message.DEFAULT_PRIORITY;
+            timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+            deliveryDelay = Message.DEFAULT_DELIVERY_DELAY;
+            applySettings(getMessageProducer());
+            deliveryDelaySet = false;
+            customized = false;
+        }
+    }
+
+    private MessageProducer getMessageProducer() throws JMSException {
+        long stamp = messageProducerLock.tryOptimisticRead();
+        MessageProducer currentMessageProducer = messageProducer;
+        if (!messageProducerLock.validate(stamp)) {
+            // A reset or a refresh is in progress, wait for it to complete
+            stamp = messageProducerLock.readLock();
+            try {
+                currentMessageProducer = messageProducer;
+            } finally {
+                messageProducerLock.unlockRead(stamp);
+            }
+        }
+        if (currentMessageProducer == null) {
+            throw new JMSException("Attempt to use a message producer during connection refresh");
+        }
+        return currentMessageProducer;
+    }
+
+    private void applySettings(MessageProducer producer) throws JMSException {
+        producer.setDisableMessageID(disableMessageID);
+        producer.setDisableMessageTimestamp(disableMessageTimestamp);
+        producer.setDeliveryMode(deliveryMode);
+        producer.setPriority(priority);
+        producer.setTimeToLive(timeToLive);
+        if (deliveryDelaySet) {
+            // Only a JMS 2.0 provider can have accepted a delivery delay
+            producer.setDeliveryDelay(deliveryDelay);
+        }
+    }
+
+    @Override
+    public void setDisableMessageID(boolean value) throws JMSException {
+        getMessageProducer().setDisableMessageID(value);
+        disableMessageID = value;
+        customized = true;
+    }
+
+    @Override
+    public boolean getDisableMessageID() {
+        return disableMessageID;
+    }
+
+    @Override
+    public void setDisableMessageTimestamp(boolean value) throws JMSException {
+        getMessageProducer().setDisableMessageTimestamp(value);
+        disableMessageTimestamp = value;
+        customized = true;
+    }
+
+    @Override
+    public boolean getDisableMessageTimestamp() {
+        return disableMessageTimestamp;
+    }
+
+    @Override
+    public void setDeliveryMode(int deliveryMode) throws JMSException {
+        getMessageProducer().setDeliveryMode(deliveryMode);
+        this.deliveryMode = deliveryMode;
+        customized = true;
+    }
+
+    @Override
+    public int getDeliveryMode() {
+        return deliveryMode;
+    }
+
+    @Override
+    public void setPriority(int defaultPriority) throws JMSException {
+        getMessageProducer().setPriority(defaultPriority);
+        this.priority = defaultPriority;
+        customized = true;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setTimeToLive(long timeToLive) throws JMSException {
+        getMessageProducer().setTimeToLive(timeToLive);
+        this.timeToLive = timeToLive;
+        customized = true;
+    }
+
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    @Override
+    public void setDeliveryDelay(long deliveryDelay) throws JMSException {
+        try {
+            getMessageProducer().setDeliveryDelay(deliveryDelay);
+        } catch (AbstractMethodError e) {
+            throw Jms2Support.unsupported("Delivery delay", e);
+        }
+        this.deliveryDelay = deliveryDelay;
+        deliveryDelaySet = true;
+        customized = true;
+    }
+
+    @Override
+    public long getDeliveryDelay() {
+        return deliveryDelay;
+    }
+
+    @Override
+    public Destination getDestination() {
+        return destination;
+    }
+
+    @Override
+    public void close() throws JMSException {
+        // The JMS producer is closed with its session
+        restoreDefaults();
+    }
+
+    @Override
+    public void send(Message message) throws JMSException {
+        getMessageProducer().send(message);
+    }
+
+    @Override
+    public void send(Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
+        getMessageProducer().send(message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Destination destination, Message message) throws JMSException {
+        getMessageProducer().send(destination, message);
+    }
+
+    @Override
+    public void send(Destination destination, Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
+        getMessageProducer().send(destination, message, deliveryMode, priority, timeToLive);
+    }
+
+    @Override
+    public void send(Message message, CompletionListener completionListener) throws JMSException {
+        MessageProducer producer = getMessageProducer();
+        try {
+            producer.send(message, completionListener);
+        } catch (AbstractMethodError e) {
+            sendAndNotify(message, completionListener, () -> producer.send(message));
+        }
+    }
+
+    @Override
+    public void send(Message message, int deliveryMode, int priority, long timeToLive,
+            CompletionListener completionListener) throws JMSException {
+        MessageProducer producer = getMessageProducer();
+        try {
+            producer.send(message, deliveryMode, priority, timeToLive, completionListener);
+        } catch (AbstractMethodError e) {
+            sendAndNotify(message,
+                    completionListener,
+                    () -> producer.send(message, deliveryMode, priority, timeToLive));
+        }
+    }
+
+    @Override
+    public void send(Destination destination, Message message,
+            CompletionListener completionListener) throws JMSException {
+        MessageProducer producer = getMessageProducer();
+        try {
+            producer.send(destination, message, completionListener);
+        } catch (AbstractMethodError e) {
+            sendAndNotify(message, completionListener, () -> producer.send(destination, message));
+        }
+    }
+
+    @Override
+    public void send(Destination destination, Message message, int deliveryMode, int priority, long timeToLive,
+            CompletionListener completionListener) throws JMSException {
+        MessageProducer producer = getMessageProducer();
+        try {
+            producer.send(destination, message, deliveryMode, priority, timeToLive, completionListener);
+        } catch (AbstractMethodError e) {
+            sendAndNotify(message,
+                    completionListener,
+                    () -> producer.send(destination, message, deliveryMode, priority, timeToLive));
+        }
+    }
+
+    private void sendAndNotify(Message message, CompletionListener completionListener, SyncSend syncSend) {
+        // The provider only implements JMS 1.1: send synchronously then report the outcome to the listener
+        try {
+            syncSend.send();
+        } catch (JMSException e) {
+            completionListener.onException(message, e);
+            return;
+        }
+        completionListener.onCompletion(message);
+    }
+
+    @FunctionalInterface
+    private interface SyncSend {
+        void send() throws JMSException;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import org.seedstack.seed.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.JMSException;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+import java.util.Enumeration;
+import java.util.concurrent.locks.StampedLock;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * This browser is a facade of a JMS queue browser. It allows the reconnection mechanism. An enumeration obtained before
+ * a reconnection is not refreshed, a new one must be requested.
+ */
+class ManagedQueueBrowser implements QueueBrowser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManagedQueueBrowser.class);
+    private final Queue queue;
+    private final String messageSelector;
+    private final StampedLock queueBrowserLock = new StampedLock();
+    private final ManagedSession managedSession;
+    private QueueBrowser queueBrowser;
+
+    ManagedQueueBrowser(QueueBrowser queueBrowser, Queue queue, @Nullable String messageSelector, ManagedSession managedSession) {
+        checkNotNull(queueBrowser);
+        checkNotNull(queue);
+
+        LOGGER.debug("Creating managed JMS queue browser {}", this);
+
+        this.queueBrowser = queueBrowser;
+        this.queue = queue;
+        this.messageSelector = messageSelector;
+        this.managedSession = managedSession;
+    }
+
+    void refresh(Session session) throws JMSException {
+        long stamp = queueBrowserLock.writeLock();
+        try {
+            LOGGER.debug("Refreshing managed JMS queue browser {}", this);
+            if (messageSelector != null && !"".equals(messageSelector)) {
+                queueBrowser = session.createBrowser(queue, messageSelector);
+            } else {
+                queueBrowser = session.createBrowser(queue);
+            }
+        } finally {
+            queueBrowserLock.unlockWrite(stamp);
+        }
+    }
+
+    void reset() {
+        long stamp = queueBrowserLock.writeLock();
+        try {
+            LOGGER.debug("Resetting managed JMS queue browser {}", this);
+            queueBrowser = null;
+        } finally {
+            queueBrowserLock.unlockWrite(stamp);
+        }
+    }
+
+    private QueueBrowser getQueueBrowser() throws JMSException {
+        long stamp = queueBrowserLock.tryOptimisticRead();
+        QueueBrowser currentQueueBrowser = queueBrowser;
+        if (!queueBrowserLock.validate(stamp)) {
+            // A reset or a refresh is in progress, wait for it to complete
+            stamp = queueBrowserLock.readLock();
+            try {
+                currentQueueBrowser = queueBrowser;
+            } finally {
+                queueBrowserLock.unlockRead(stamp);
+            }
+        }
+        if (currentQueueBrowser == null) {
+            throw new JMSException("Attempt to use a queue browser during connection refresh");
+        }
+        return currentQueueBrowser;
+    }
+
+    @Override
+    public Queue getQueue() {
+        return queue;
+    }
+
+    @Override
+    public String getMessageSelector() throws JMSException {
+        return getQueueBrowser().getMessageSelector();
+    }
+
+    @Override
+    public Enumeration<?> getEnumeration() throws JMSException {
+        return getQueueBrowser().getEnumeration();
+    }
+
+    @Override
+    public void close() throws JMSException {
+        try {
+            LOGGER.debug("Closing managed JMS queue browser {}", this);
+            getQueueBrowser().close();
+        } finally {
+            managedSession.removeQueueBrowser(this);
+        }
+    }
+}
@@ -32,22 +32,34 @@ import javax.jms.TopicSubscriber;
 import java.io.Serializable;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * This session is a facade of a JMS session. It allows the reconnection mechanism.
+ * This session is a facade of a JMS session. It allows the reconnection mechanism. Producers are cached by destination
+ * so they can be reused until the session is closed. Producers of temporary destinations, and of any destination once
+ * the cache is full, send through the cached anonymous producer. Like the session, a cached producer must not be used
+ * by several threads: its settings are restored to their defaults each time it is returned by
+ * {@link #createProducer(Destination)}.
  */
 class ManagedSession implements Session {
     private static final Logger LOGGER = LoggerFactory.getLogger(ManagedSession.class);
+    private static final int MAX_CACHED_PRODUCERS = 64;
     private final Boolean transacted;
     private final Integer acknowledgeMode;
     private final boolean polling;
     private final Set<ManagedMessageConsumer> messageConsumers = ConcurrentHashMap.newKeySet();
-    private final ReentrantReadWriteLock sessionLock = new ReentrantReadWriteLock();
+    private final Set<ManagedMessageProducer> messageProducers = ConcurrentHashMap.newKeySet();
+    private final Set<ManagedQueueBrowser> queueBrowsers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Destination, ManagedMessageProducer> cachedProducers = new ConcurrentHashMap<>();
+    private volatile ManagedMessageProducer anonymousProducer;
+    private final StampedLock sessionLock = new StampedLock();
     private final ManagedConnection managedConnection;
     private Session session;
+    private volatile int refreshPriority;
+    private volatile boolean reusable = true;
 
     ManagedSession(Session session, boolean transacted, int acknowledgeMode, boolean polling, ManagedConnection managedConnection) {
         checkNotNull(session);
@@ -62,44 +74,62 @@ class ManagedSession implements Session {
     }
 
     void refresh(Connection connection) throws JMSException {
-        sessionLock.writeLock().lock();
+        long stamp = sessionLock.writeLock();
         try {
             LOGGER.debug("Refreshing managed JMS session {}", this);
             session = connection.createSession(this.transacted, this.acknowledgeMode);
             for (ManagedMessageConsumer messageConsumer : messageConsumers) {
                 messageConsumer.refresh(session);
             }
+            for (ManagedMessageProducer messageProducer : messageProducers) {
+                messageProducer.refresh(session);
+            }
+            for (ManagedQueueBrowser queueBrowser : queueBrowsers) {
+                queueBrowser.refresh(session);
+            }
         } finally {
-            sessionLock.writeLock().unlock();
+            sessionLock.unlockWrite(stamp);
         }
     }
 
     /**
-     * Reset the session and the message consumers in cascade.
+     * Reset the session, the message consumers, the message producers and the queue browsers in cascade.
      */
     void reset() {
-        sessionLock.writeLock().lock();
+        long stamp = sessionLock.writeLock();
         try {
             LOGGER.debug("Resetting managed JMS session {}", this);
             session = null;
             for (ManagedMessageConsumer managedMessageConsumer : messageConsumers) {
                 managedMessageConsumer.reset();
             }
+            for (ManagedMessageProducer managedMessageProducer : messageProducers) {
+                managedMessageProducer.reset();
+            }
+            for (ManagedQueueBrowser managedQueueBrowser : queueBrowsers) {
+                managedQueueBrowser.reset();
+            }
         } finally {
-            sessionLock.writeLock().unlock();
+            sessionLock.unlockWrite(stamp);
         }
     }
 
     private Session getSession() throws JMSException {
-        sessionLock.readLock().lock();
-        try {
-            if (session == null) {
-                throw new JMSException("Attempt to use a session during connection refresh");
+        long stamp = sessionLock.tryOptimisticRead();
+        Session currentSession = session;
+        if (!sessionLock.validate(stamp)) {
+            // A reset or a refresh is in progress, wait for it to complete
+            stamp = sessionLock.readLock();
+            try {
+                currentSession = session;
+            } finally {
+                sessionLock.unlockRead(stamp);
             }
-            return session;
-        } finally {
-            sessionLock.readLock().unlock();
         }
+        if (currentSession == null) {
+            throw new JMSException("Attempt to use a session during connection refresh");
+        }
+        return currentSession;
     }
 
     @Override
@@ -168,6 +198,10 @@ class ManagedSession implements Session {
             LOGGER.debug("Closing managed JMS session {}", this);
             getSession().close();
         } finally {
+            // Closing the session closes its producers
+            anonymousProducer = null;
+            cachedProducers.clear();
+            messageProducers.clear();
             managedConnection.removeSession(this);
         }
     }
@@ -189,20 +223,53 @@ class ManagedSession implements Session {
 
     @Override
     public void run() {
-        sessionLock.readLock().lock();
+        long stamp = sessionLock.readLock();
         try {
             if (session == null) {
                 throw new IllegalStateException("The connection is closed");
             }
             session.run();
         } finally {
-            sessionLock.readLock().unlock();
+            sessionLock.unlockRead(stamp);
         }
     }
 
     @Override
     public MessageProducer createProducer(Destination destination) throws JMSException {
-        return getSession().createProducer(destination);
+        if (destination != null && !isCacheable(destination)) {
+            return new AnonymousProducerFacade((ManagedMessageProducer) createProducer(null), destination);
+        }
+
+        ManagedMessageProducer producer = destination == null ? anonymousProducer : cachedProducers.get(destination);
+        if (producer != null) {
+            // Settings left by a previous caller which didn't close the producer are not inherited
+            producer.restoreDefaults();
+            return producer;
+        }
+
+        // Hold the lock until the producer is registered so a concurrent refresh cannot miss it
+        long stamp = sessionLock.readLock();
+        try {
+            if (session == null) {
+                throw new JMSException("Attempt to use a session during connection refresh");
+            }
+            producer = new ManagedMessageProducer(session.createProducer(destination), destination);
+            messageProducers.add(producer);
+            if (destination == null) {
+                anonymousProducer = producer;
+            } else {
+                cachedProducers.put(destination, producer);
+            }
+            return producer;
+        } finally {
+            sessionLock.unlockRead(stamp);
+        }
+    }
+
+    private boolean isCacheable(Destination destination) {
+        // Temporary destinations are short-lived, they are better served by the anonymous producer
+        return !(destination instanceof TemporaryQueue || destination instanceof TemporaryTopic)
+                && (cachedProducers.size() < MAX_CACHED_PRODUCERS || cachedProducers.containsKey(destination));
     }
 
     @Override
@@ -217,15 +284,83 @@ class ManagedSession implements Session {
 
     @Override
     public MessageConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) throws JMSException {
-        ManagedMessageConsumer consumer = new ManagedMessageConsumer(
-                getSession().createConsumer(destination, messageSelector, noLocal),
-                destination,
-                messageSelector,
-                noLocal,
-                polling,
-                this);
-        messageConsumers.add(consumer);
-        return consumer;
+        // Hold the lock until the consumer is registered so a concurrent refresh cannot miss it
+        long stamp = sessionLock.readLock();
+        try {
+            if (session == null) {
+                throw new JMSException("Attempt to use a session during connection refresh");
+            }
+            ManagedMessageConsumer consumer = new ManagedMessageConsumer(
+                    session.createConsumer(destination, messageSelector, noLocal),
+                    destination,
+                    messageSelector,
+                    noLocal,
+                    polling,
+                    this);
+            messageConsumers.add(consumer);
+            reusable = false;
+            return consumer;
+        } finally {
+            sessionLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) throws JMSException {
+        return createSharedConsumer(topic, sharedSubscriptionName, null);
+    }
+
+    @Override
+    public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName,
+            String messageSelector) throws JMSException {
+        return createManagedConsumer("Shared consumer",
+                session -> session.createSharedConsumer(topic, sharedSubscriptionName, messageSelector));
+    }
+
+    @Override
+    public MessageConsumer createDurableConsumer(Topic topic, String name) throws JMSException {
+        return createDurableConsumer(topic, name, null, false);
+    }
+
+    @Override
+    public MessageConsumer createDurableConsumer(Topic topic, String name, String messageSelector,
+            boolean noLocal) throws JMSException {
+        return createManagedConsumer("Durable consumer",
+                session -> session.createDurableConsumer(topic, name, messageSelector, noLocal));
+    }
+
+    @Override
+    public MessageConsumer createSharedDurableConsumer(Topic topic, String name) throws JMSException {
+        return createSharedDurableConsumer(topic, name, null);
+    }
+
+    @Override
+    public MessageConsumer createSharedDurableConsumer(Topic topic, String name,
+            String messageSelector) throws JMSException {
+        return createManagedConsumer("Shared durable consumer",
+                session -> session.createSharedDurableConsumer(topic, name, messageSelector));
+    }
+
+    private MessageConsumer createManagedConsumer(String operation,
+            ManagedMessageConsumer.Factory factory) throws JMSException {
+        // Hold the lock until the consumer is registered so a concurrent refresh cannot miss it
+        long stamp = sessionLock.readLock();
+        try {
+            if (session == null) {
+                throw new JMSException("Attempt to use a session during connection refresh");
+            }
+            ManagedMessageConsumer consumer;
+            try {
+                consumer = new ManagedMessageConsumer(factory.create(session), factory, polling, this);
+            } catch (AbstractMethodError e) {
+                throw Jms2Support.unsupported(operation, e);
+            }
+            messageConsumers.add(consumer);
+            reusable = false;
+            return consumer;
+        } finally {
+            sessionLock.unlockRead(stamp);
+        }
     }
 
     @Override
@@ -240,32 +375,71 @@ class ManagedSession implements Session {
 
     @Override
     public TopicSubscriber createDurableSubscriber(Topic topic, String name) throws JMSException {
-        return getSession().createDurableSubscriber(topic, name);
+        return createDurableSubscriber(topic, name, null, false);
     }
 
     @Override
     public TopicSubscriber createDurableSubscriber(Topic topic, String name, String messageSelector, boolean noLocal) throws JMSException {
-        return getSession().createDurableSubscriber(topic, name, messageSelector, noLocal);
+        // Hold the lock until the subscriber is registered so a concurrent refresh cannot miss it
+        long stamp = sessionLock.readLock();
+        try {
+            if (session == null) {
+                throw new JMSException("Attempt to use a session during connection refresh");
+            }
+            ManagedTopicSubscriber subscriber = new ManagedTopicSubscriber(
+                    session.createDurableSubscriber(topic, name, messageSelector, noLocal),
+                    topic,
+                    name,
+                    messageSelector,
+                    noLocal,
+                    polling,
+                    this);
+            messageConsumers.add(subscriber);
+            reusable = false;
+            return subscriber;
+        } finally {
+            sessionLock.unlockRead(stamp);
+        }
     }
 
     @Override
     public QueueBrowser createBrowser(Queue queue) throws JMSException {
-        return getSession().createBrowser(queue);
+        return createBrowser(queue, null);
     }
 
     @Override
     public QueueBrowser createBrowser(Queue queue, String messageSelector) throws JMSException {
-        return getSession().createBrowser(queue, messageSelector);
+        // Hold the lock until the browser is registered so a concurrent refresh cannot miss it
+        long stamp = sessionLock.readLock();
+        try {
+            if (session == null) {
+                throw new JMSException("Attempt to use a session during connection refresh");
+            }
+            ManagedQueueBrowser browser = new ManagedQueueBrowser(
+                    session.createBrowser(queue, messageSelector),
+                    queue,
+                    messageSelector,
+                    this);
+            queueBrowsers.add(browser);
+            reusable = false;
+            return browser;
+        } finally {
+            sessionLock.unlockRead(stamp);
+        }
     }
 
     @Override
     public TemporaryQueue createTemporaryQueue() throws JMSException {
-        return getSession().createTemporaryQueue();
+        TemporaryQueue temporaryQueue = getSession().createTemporaryQueue();
+        reusable = false;
+        return temporaryQueue;
     }
 
     @Override
     public TemporaryTopic createTemporaryTopic() throws JMSException {
-        return getSession().createTemporaryTopic();
+        TemporaryTopic temporaryTopic = getSession().createTemporaryTopic();
+        reusable = false;
+        return temporaryTopic;
     }
 
     @Override
@@ -273,7 +447,37 @@ class ManagedSession implements Session {
         getSession().unsubscribe(name);
     }
 
+    ManagedConnection getManagedConnection() {
+        return managedConnection;
+    }
+
+    /**
+     * Returns the priority of this session when its connection is recreated. Sessions with a higher priority are
+     * refreshed first.
+     *
+     * @return the refresh priority.
+     */
+    int getRefreshPriority() {
+        return refreshPriority;
+    }
+
+    void setRefreshPriority(int refreshPriority) {
+        this.refreshPriority = refreshPriority;
+    }
+
+    /**
+     * @return false if the session has created consumers, browsers or temporary destinations, which would outlive the
+     *         transaction using the session if it was pooled.
+     */
+    boolean isReusable() {
+        return reusable;
+    }
+
     void removeMessageConsumer(ManagedMessageConsumer managedMessageConsumer) {
         messageConsumers.remove(managedMessageConsumer);
     }
+
+    void removeQueueBrowser(ManagedQueueBrowser managedQueueBrowser) {
+        queueBrowsers.remove(managedQueueBrowser);
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import org.seedstack.seed.Nullable;
+
+import javax.jms.Topic;
+import javax.jms.TopicSubscriber;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * This subscriber is a facade of a JMS durable topic subscriber. It allows the reconnection mechanism: the durable
+ * subscription is subscribed again with the same name when the session is refreshed.
+ */
+class ManagedTopicSubscriber extends ManagedMessageConsumer implements TopicSubscriber {
+    private final Topic topic;
+    private final boolean noLocal;
+
+    ManagedTopicSubscriber(TopicSubscriber topicSubscriber, Topic topic, String name, @Nullable String messageSelector, boolean noLocal, boolean polling, ManagedSession managedSession) {
+        super(topicSubscriber,
+                session -> session.createDurableSubscriber(topic, name, messageSelector, noLocal),
+                polling,
+                managedSession);
+        this.topic = checkNotNull(topic);
+        this.noLocal = noLocal;
+    }
+
+    @Override
+    public Topic getTopic() {
+        return topic;
+    }
+
+    @Override
+    public boolean getNoLocal() {
+        return noLocal;
+    }
+}
@@ -9,26 +9,75 @@ package org.seedstack.jms.internal;
 
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.name.Names;
 
+import java.util.List;
 import javax.inject.Inject;
 import javax.jms.Message;
 import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.seedstack.jms.BatchMessageListener;
 
-class MessageListenerAdapter implements MessageListener {
+class MessageListenerAdapter implements BatchMessageListener {
     @Inject
     private static Injector injector;
     private final Key<MessageListener> key;
     private final String name;
+    private final Session session;
+    private final JmsSessionLink listenerSessionLink;
+    private final MessageListenerStatistics statistics;
+    private volatile Provider<MessageListener> messageListenerProvider;
 
-    MessageListenerAdapter(String name) {
+    MessageListenerAdapter(String name, Session session, JmsSessionLink listenerSessionLink,
+            MessageListenerStatistics statistics) {
         this.key = Key.get(MessageListener.class, Names.named(name));
         this.name = name;
+        this.session = session;
+        this.listenerSessionLink = listenerSessionLink;
+        this.statistics = statistics;
     }
 
     @Override
     public void onMessage(Message message) {
-        injector.getInstance(key).onMessage(message);
+        // Expose the session which received the message to the listener transaction handler
+        listenerSessionLink.push(session);
+        long start = System.nanoTime();
+        try {
+            getMessageListener().onMessage(message);
+        } finally {
+            statistics.recordMessages(1, System.nanoTime() - start);
+            listenerSessionLink.pop();
+        }
+    }
+
+    @Override
+    public void onMessages(List<Message> messages) {
+        listenerSessionLink.push(session);
+        long start = System.nanoTime();
+        try {
+            MessageListener messageListener = getMessageListener();
+            if (messageListener instanceof BatchMessageListener) {
+                ((BatchMessageListener) messageListener).onMessages(messages);
+            } else {
+                for (Message message : messages) {
+                    messageListener.onMessage(message);
+                }
+            }
+        } finally {
+            statistics.recordMessages(messages.size(), System.nanoTime() - start);
+            listenerSessionLink.pop();
+        }
+    }
+
+    private MessageListener getMessageListener() {
+        Provider<MessageListener> provider = messageListenerProvider;
+        if (provider == null) {
+            // Resolved on first use as adapters are created before the injector
+            provider = ListenerProviders.resolve(injector, key);
+            messageListenerProvider = provider;
+        }
+        return provider.get();
     }
 
     @Override
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import com.google.common.base.Strings;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+import org.seedstack.jms.spi.MessageListenerDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically adjusts the number of consumers of a queue listener. The queue backlog is sampled with a
+ * {@link QueueBrowser} and compared to the number of consumers. When the backlog is too high, the number of consumers
+ * required to drain it within one scaling interval is estimated from the observed processing time. When the queue is
+ * empty and consumers are mostly idle, one consumer is removed.
+ */
+class MessageListenerAutoscaler implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageListenerAutoscaler.class);
+    private static final double IDLE_UTILIZATION = 0.25;
+    private final MessageListenerContainer container;
+    private final Connection connection;
+    private final Queue queue;
+    private final int scalingInterval;
+    private final long scalingIntervalNanos;
+    private final int backlogPerConsumer;
+    private long lastSampleTime = System.nanoTime();
+    private long lastProcessedMessages;
+    private long lastProcessingTime;
+
+    MessageListenerAutoscaler(MessageListenerContainer container, Connection connection, int scalingInterval,
+            int backlogPerConsumer) {
+        this.container = container;
+        this.connection = connection;
+        this.queue = (Queue) container.getMessageListenerDefinition().getDestination();
+        this.scalingInterval = scalingInterval;
+        this.scalingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(scalingInterval);
+        this.backlogPerConsumer = Math.max(1, backlogPerConsumer);
+    }
+
+    @Override
+    public void run() {
+        MessageListenerDefinition messageListenerDefinition = container.getMessageListenerDefinition();
+        try {
+            int consumerCount = container.getConsumerCount();
+            int target = computeTarget(consumerCount,
+                    sampleBacklog(messageListenerDefinition.getMaxConcurrency() * backlogPerConsumer + 1));
+            if (target != consumerCount) {
+                container.resize(target);
+            }
+        } catch (JMSException | RuntimeException e) {
+            LOGGER.warn("Unable to scale JMS listener {}, next attempt in {} ms",
+                    messageListenerDefinition.getName(),
+                    scalingInterval,
+                    e);
+        }
+    }
+
+    int getScalingInterval() {
+        return scalingInterval;
+    }
+
+    int computeTarget(int consumerCount, int backlog) {
+        long now = System.nanoTime();
+        long processedMessages = container.getStatistics().getProcessedMessages() - lastProcessedMessages;
+        long processingTime = container.getStatistics().getProcessingTime() - lastProcessingTime;
+        long elapsedTime = Math.max(1, now - lastSampleTime);
+        lastSampleTime = now;
+        lastProcessedMessages += processedMessages;
+        lastProcessingTime += processingTime;
+
+        if (backlog > consumerCount * backlogPerConsumer) {
+            int target = consumerCount + 1;
+            if (processedMessages > 0) {
+                // Consumers needed to drain the backlog within one interval at the observed processing time
+                double averageProcessingTime = (double) processingTime / processedMessages;
+                target = Math.max(target, (int) Math.ceil(backlog * averageProcessingTime / scalingIntervalNanos));
+            }
+            return target;
+        } else if (backlog == 0) {
+            double utilization = (double) processingTime / (elapsedTime * consumerCount);
+            if (utilization < IDLE_UTILIZATION) {
+                return consumerCount - 1;
+            }
+        }
+        return consumerCount;
+    }
+
+    private int sampleBacklog(int limit) throws JMSException {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            String selector = container.getMessageListenerDefinition().getSelector();
+            QueueBrowser queueBrowser;
+            if (!Strings.isNullOrEmpty(selector)) {
+                queueBrowser = session.createBrowser(queue, selector);
+            } else {
+                queueBrowser = session.createBrowser(queue);
+            }
+
+            int backlog = 0;
+            Enumeration<?> messages = queueBrowser.getEnumeration();
+            while (backlog < limit && messages.hasMoreElements()) {
+                messages.nextElement();
+                backlog++;
+            }
+            queueBrowser.close();
+            return backlog;
+        } finally {
+            session.close();
+        }
+    }
+}
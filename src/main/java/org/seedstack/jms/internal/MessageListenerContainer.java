@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Strings;
+import com.google.inject.Injector;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.jms.Connection;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.jms.Topic;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.pollers.VirtualThreads;
+import org.seedstack.jms.spi.MessageListenerDefinition;
+import org.seedstack.jms.spi.MessagePoller;
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.reflect.Classes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the sessions, consumers and pollers created for a message listener definition. Each consumer has its own
+ * session so messages can be received and processed concurrently. The number of consumers can be changed at runtime
+ * between the concurrency bounds of the definition.
+ */
+class MessageListenerContainer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageListenerContainer.class);
+    @Inject
+    private static Injector injector;
+    private final List<ListenerConsumer> listenerConsumers = new CopyOnWriteArrayList<>();
+    private final Set<Session> pollerTransactions = ConcurrentHashMap.newKeySet();
+    private final MessageListenerStatistics statistics = new MessageListenerStatistics();
+    private final MessageListenerDefinition messageListenerDefinition;
+    private final Connection connection;
+    private final JmsSessionLink listenerSessionLink;
+    private final JmsConfig.ListenerConfig listenerConfig;
+    private final JmsThreads threads;
+    private final Map<String, ThreadFactory> virtualThreadFactories = new ConcurrentHashMap<>();
+    private boolean started;
+
+    MessageListenerContainer(MessageListenerDefinition messageListenerDefinition, Connection connection,
+            JmsSessionLink listenerSessionLink, JmsConfig.ListenerConfig listenerConfig,
+            JmsThreads threads) {
+        this.messageListenerDefinition = checkNotNull(messageListenerDefinition);
+        this.connection = checkNotNull(connection);
+        this.listenerSessionLink = checkNotNull(listenerSessionLink);
+        this.listenerConfig = checkNotNull(listenerConfig);
+        this.threads = checkNotNull(threads);
+    }
+
+    /**
+     * Creates the consumers required by the listener definition. The first consumer uses the session of the definition
+     * and the other ones use new sessions created with the same parameters.
+     *
+     * @throws JMSException if a session or a consumer cannot be created.
+     */
+    synchronized void initialize() throws JMSException {
+        if (listenerConfig.getMaxCommitBatchSize() > 1 && messageListenerDefinition.getPoller() == null) {
+            LOGGER.warn("Ignoring group commit of JMS listener {}, only polled listeners can group their commits",
+                    messageListenerDefinition.getName());
+        }
+        addConsumer(messageListenerDefinition.getSession(), false);
+        for (int i = 1; i < messageListenerDefinition.getConcurrency(); i++) {
+            addConsumer(createSession(), false);
+        }
+    }
+
+    synchronized void start() {
+        started = true;
+        listenerConsumers.stream()
+                .map(ListenerConsumer::getMessagePoller)
+                .filter(Objects::nonNull)
+                .forEach(MessagePoller::start);
+    }
+
+    synchronized void stop() {
+        started = false;
+        listenerConsumers.stream()
+                .map(ListenerConsumer::getMessagePoller)
+                .filter(Objects::nonNull)
+                .forEach(MessagePoller::stop);
+    }
+
+    /**
+     * Adds or removes consumers to reach the specified count, bounded by the concurrency limits of the definition. The
+     * consumer using the session of the definition is never removed.
+     *
+     * @param consumerCount the desired number of consumers.
+     * @throws JMSException if a consumer cannot be added or removed.
+     */
+    synchronized void resize(int consumerCount) throws JMSException {
+        int target = Math.max(messageListenerDefinition.getConcurrency(),
+                Math.min(messageListenerDefinition.getMaxConcurrency(), consumerCount));
+        if (target != listenerConsumers.size()) {
+            LOGGER.info("Scaling JMS listener {} from {} to {} consumer(s)",
+                    messageListenerDefinition.getName(),
+                    listenerConsumers.size(),
+                    target);
+        }
+
+        while (listenerConsumers.size() < target) {
+            addConsumer(createSession(), true);
+        }
+        while (listenerConsumers.size() > target) {
+            removeConsumer(listenerConsumers.get(listenerConsumers.size() - 1));
+        }
+    }
+
+    List<MessagePoller> getMessagePollers() {
+        return listenerConsumers.stream()
+                .map(ListenerConsumer::getMessagePoller)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tells whether the transactions of a session are committed by its poller.
+     *
+     * @param session the session.
+     * @return true if the session is polled by a {@link MessagePoller#isTransactionOwner() transaction owner}, false
+     * otherwise.
+     */
+    boolean isPollerTransaction(Session session) {
+        return pollerTransactions.contains(session);
+    }
+
+    int getConsumerCount() {
+        return listenerConsumers.size();
+    }
+
+    MessageListenerStatistics getStatistics() {
+        return statistics;
+    }
+
+    MessageListenerDefinition getMessageListenerDefinition() {
+        return messageListenerDefinition;
+    }
+
+    private ThreadFactory getThreadFactory(String purpose) {
+        if (listenerConfig.isVirtualThreads()) {
+            return virtualThreadFactories.computeIfAbsent(purpose,
+                    p -> VirtualThreads.createFactory("jms-" + p + "-").orElseGet(() -> {
+                        LOGGER.warn("Virtual threads are not supported by this runtime, JMS listener {} will use "
+                                + "platform {} threads", messageListenerDefinition.getName(), p);
+                        return threads.newThreadFactory(p, false);
+                    }));
+        }
+        return threads.newThreadFactory(purpose, false);
+    }
+
+    private Session createSession() throws JMSException {
+        Session session = messageListenerDefinition.getSession();
+        Connection sessionConnection = connection;
+        if ((messageListenerDefinition.isShared() || messageListenerDefinition.isDurable())
+                && connection instanceof StripedConnection) {
+            // Subscriptions are scoped by client ID, which differs between the physical connections
+            sessionConnection = ((StripedConnection) connection).getStripes().get(0);
+        }
+        return sessionConnection.createSession(session.getTransacted(), session.getAcknowledgeMode());
+    }
+
+    private void addConsumer(Session session, boolean runtime) throws JMSException {
+        LOGGER.debug("Creating JMS consumer for listener {}", messageListenerDefinition.getName());
+
+        if (session instanceof ManagedSession) {
+            ((ManagedSession) session).setRefreshPriority(listenerConfig.getRefreshPriority());
+        }
+
+        MessageConsumer consumer;
+        if (messageListenerDefinition.isShared() && messageListenerDefinition.isDurable()) {
+            consumer = session.createSharedDurableConsumer((Topic) messageListenerDefinition.getDestination(),
+                    messageListenerDefinition.getSubscriptionName(),
+                    Strings.emptyToNull(messageListenerDefinition.getSelector()));
+        } else if (messageListenerDefinition.isShared()) {
+            consumer = session.createSharedConsumer((Topic) messageListenerDefinition.getDestination(),
+                    messageListenerDefinition.getSubscriptionName(),
+                    Strings.emptyToNull(messageListenerDefinition.getSelector()));
+        } else if (messageListenerDefinition.isDurable()) {
+            consumer = session.createDurableSubscriber((Topic) messageListenerDefinition.getDestination(),
+                    messageListenerDefinition.getSubscriptionName(),
+                    Strings.emptyToNull(messageListenerDefinition.getSelector()),
+                    false);
+        } else if (!Strings.isNullOrEmpty(messageListenerDefinition.getSelector())) {
+            consumer = session.createConsumer(messageListenerDefinition.getDestination(),
+                    messageListenerDefinition.getSelector());
+        } else {
+            consumer = session.createConsumer(messageListenerDefinition.getDestination());
+        }
+
+        MessageListenerAdapter messageListenerAdapter = new MessageListenerAdapter(
+                messageListenerDefinition.getName(),
+                session,
+                listenerSessionLink,
+                statistics);
+
+        MessagePoller messagePoller = null;
+        if (messageListenerDefinition.getPoller() != null) {
+            try {
+                LOGGER.debug("Creating poller for JMS listener {}", messageListenerDefinition.getName());
+
+                messagePoller = Classes.instantiateDefault(messageListenerDefinition.getPoller());
+                messagePoller.setSession(session);
+                messagePoller.setMessageConsumer(consumer);
+                messagePoller.setMessageListener(messageListenerAdapter);
+                messagePoller.setListenerConfig(listenerConfig);
+                messagePoller.setScheduler(threads.getScheduler());
+                messagePoller.setThreadFactory(getThreadFactory("poller"));
+                messagePoller.setThreadFactories(this::getThreadFactory);
+
+                if (session instanceof ManagedSession) {
+                    // Only the physical connection of the session is reset on failure
+                    messagePoller.setExceptionListener(((ManagedSession) session).getManagedConnection());
+                } else if (connection instanceof ManagedConnection) {
+                    messagePoller.setExceptionListener((ExceptionListener) connection);
+                } else {
+                    messagePoller.setExceptionListener(connection.getExceptionListener());
+                }
+
+                // Pollers created at initialization are injected by the module
+                if (runtime) {
+                    injector.injectMembers(messagePoller);
+                }
+
+                if (messagePoller.isTransactionOwner()) {
+                    pollerTransactions.add(session);
+                }
+            } catch (RuntimeException e) {
+                throw SeedException.wrap(e, JmsErrorCode.UNABLE_TO_CREATE_POLLER)
+                        .put("pollerClass", messageListenerDefinition.getPoller());
+            }
+        } else {
+            consumer.setMessageListener(messageListenerAdapter);
+        }
+
+        listenerConsumers.add(new ListenerConsumer(session, consumer, messagePoller));
+
+        if (started && messagePoller != null) {
+            messagePoller.start();
+        }
+    }
+
+    private void removeConsumer(ListenerConsumer listenerConsumer) throws JMSException {
+        LOGGER.debug("Removing JMS consumer for listener {}", messageListenerDefinition.getName());
+
+        listenerConsumers.remove(listenerConsumer);
+        if (listenerConsumer.getMessagePoller() != null) {
+            listenerConsumer.getMessagePoller().stop();
+        }
+        try {
+            // Closing the consumer waits for the message being processed, if any
+            listenerConsumer.getMessageConsumer().close();
+            pollerTransactions.remove(listenerConsumer.getSession());
+        } finally {
+            listenerConsumer.getSession().close();
+        }
+    }
+
+    private static class ListenerConsumer {
+        private final Session session;
+        private final MessageConsumer messageConsumer;
+        private final MessagePoller messagePoller;
+
+        private ListenerConsumer(Session session, MessageConsumer messageConsumer, MessagePoller messagePoller) {
+            this.session = session;
+            this.messageConsumer = messageConsumer;
+            this.messagePoller = messagePoller;
+        }
+
+        private Session getSession() {
+            return session;
+        }
+
+        private MessageConsumer getMessageConsumer() {
+            return messageConsumer;
+        }
+
+        private MessagePoller getMessagePoller() {
+            return messagePoller;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the number of processed messages and the time spent in the listener, across all the consumers of a
+ * message listener.
+ */
+class MessageListenerStatistics {
+    private final LongAdder processedMessages = new LongAdder();
+    private final LongAdder processingTime = new LongAdder();
+
+    void recordMessages(int count, long nanos) {
+        processedMessages.add(count);
+        processingTime.add(nanos);
+    }
+
+    long getProcessedMessages() {
+        return processedMessages.sum();
+    }
+
+    long getProcessingTime() {
+        return processingTime.sum();
+    }
+}
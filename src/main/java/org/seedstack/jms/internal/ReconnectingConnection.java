@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import javax.jms.Connection;
+
+/**
+ * A connection which transparently replaces its underlying connection when it fails.
+ */
+interface ReconnectingConnection extends Connection {
+    /**
+     * Returns the number of times this connection has been reset, which allows to detect objects created before a
+     * reconnection.
+     *
+     * @return the reset count.
+     */
+    int getGeneration();
+}
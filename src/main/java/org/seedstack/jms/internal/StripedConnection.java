@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.jms.ConnectionConsumer;
+import javax.jms.ConnectionMetaData;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.ServerSessionPool;
+import javax.jms.Session;
+import javax.jms.Topic;
+import org.seedstack.jms.JmsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This connection is a facade to several managed connections, called stripes, so the sessions of a logical connection
+ * are spread over several physical connections. Each stripe reconnects independently. When the chosen stripe is not
+ * ready, the session is created on the next available one.
+ */
+class StripedConnection implements ReconnectingConnection {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StripedConnection.class);
+    private final AtomicInteger next = new AtomicInteger();
+    private final String name;
+    private final List<ManagedConnection> stripes;
+    private final JmsConfig.ConnectionConfig.StripingStrategy stripingStrategy;
+
+    StripedConnection(String name, List<ManagedConnection> stripes,
+            JmsConfig.ConnectionConfig.StripingStrategy stripingStrategy) {
+        checkArgument(!stripes.isEmpty(), "At least one stripe is required");
+        this.name = checkNotNull(name);
+        this.stripes = stripes;
+        this.stripingStrategy = checkNotNull(stripingStrategy);
+    }
+
+    private int selectStripe() {
+        if (stripingStrategy == JmsConfig.ConnectionConfig.StripingStrategy.LEAST_SESSIONS) {
+            int selected = 0;
+            int minSessionCount = Integer.MAX_VALUE;
+            for (int i = 0; i < stripes.size(); i++) {
+                int sessionCount = stripes.get(i).getSessionCount();
+                if (sessionCount < minSessionCount) {
+                    selected = i;
+                    minSessionCount = sessionCount;
+                }
+            }
+            return selected;
+        } else {
+            return Math.floorMod(next.getAndIncrement(), stripes.size());
+        }
+    }
+
+    @Override
+    public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
+        int first = selectStripe();
+        JMSException failure = null;
+        for (int i = 0; i < stripes.size(); i++) {
+            ManagedConnection stripe = stripes.get((first + i) % stripes.size());
+            try {
+                return stripe.createSession(transacted, acknowledgeMode);
+            } catch (JMSException e) {
+                // The stripe may be reconnecting, try the next one
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        throw failure;
+    }
+
+    @Override
+    public ConnectionConsumer createConnectionConsumer(Destination destination, String messageSelector,
+            ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return stripes.get(selectStripe()).createConnectionConsumer(destination,
+                messageSelector,
+                sessionPool,
+                maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createDurableConnectionConsumer(Topic topic, String subscriptionName,
+            String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        // Durable subscriptions are bound to a client ID so they always use the first stripe
+        return stripes.get(0).createDurableConnectionConsumer(topic,
+                subscriptionName,
+                messageSelector,
+                sessionPool,
+                maxMessages);
+    }
+
+    @Override
+    public Session createSession(int sessionMode) throws JMSException {
+        return createSession(sessionMode == Session.SESSION_TRANSACTED, sessionMode);
+    }
+
+    @Override
+    public Session createSession() throws JMSException {
+        return createSession(false, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Override
+    public ConnectionConsumer createSharedConnectionConsumer(Topic topic, String subscriptionName,
+            String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        // Shared subscriptions are scoped by client ID so they use the first stripe like durable ones
+        return stripes.get(0).createSharedConnectionConsumer(topic,
+                subscriptionName,
+                messageSelector,
+                sessionPool,
+                maxMessages);
+    }
+
+    @Override
+    public ConnectionConsumer createSharedDurableConnectionConsumer(Topic topic, String subscriptionName,
+            String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
+        return stripes.get(0).createSharedDurableConnectionConsumer(topic,
+                subscriptionName,
+                messageSelector,
+                sessionPool,
+                maxMessages);
+    }
+
+    @Override
+    public void close() throws JMSException {
+        LOGGER.info("Closing striped JMS connection {}", name);
+        JMSException failure = null;
+        for (ManagedConnection stripe : stripes) {
+            try {
+                stripe.close();
+            } catch (JMSException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void start() throws JMSException {
+        for (ManagedConnection stripe : stripes) {
+            stripe.start();
+        }
+    }
+
+    @Override
+    public void stop() throws JMSException {
+        for (ManagedConnection stripe : stripes) {
+            stripe.stop();
+        }
+    }
+
+    @Override
+    public ConnectionMetaData getMetaData() throws JMSException {
+        return stripes.get(0).getMetaData();
+    }
+
+    @Override
+    public void setExceptionListener(ExceptionListener exceptionListener) throws JMSException {
+        for (ManagedConnection stripe : stripes) {
+            stripe.setExceptionListener(exceptionListener);
+        }
+    }
+
+    @Override
+    public ExceptionListener getExceptionListener() throws JMSException {
+        return stripes.get(0).getExceptionListener();
+    }
+
+    @Override
+    public void setClientID(String clientID) throws JMSException {
+        throw new IllegalStateException("Client ID cannot be changed on managed connections");
+    }
+
+    @Override
+    public String getClientID() throws JMSException {
+        throw new IllegalStateException("Client ID cannot be retrieved on managed connections");
+    }
+
+    @Override
+    public int getGeneration() {
+        int generation = 0;
+        for (ManagedConnection stripe : stripes) {
+            generation += stripe.getGeneration();
+        }
+        return generation;
+    }
+
+    List<ManagedConnection> getStripes() {
+        return stripes;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessagePoller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for {@link MessagePoller} implementations running on a dedicated thread. The {@link #poll()} method is
+ * invoked in loop while the poller is active. If it throws an exception or an error the session is rollbacked, the
+ * {@link ExceptionListener} is invoked if any, the polling thread is shutdown and scheduled for restart after the
+ * {@code restartDelay} of the listener configuration (10 seconds by default). The restart is scheduled on the scheduler
+ * of the add-on, or on a scheduler of its own when the poller is used outside of the add-on.
+ */
+public abstract class AbstractMessagePoller implements MessagePoller, Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMessagePoller.class);
+    private static final int IDLE_SCHEDULER_KEEP_ALIVE = 60;
+    private static final ConcurrentMap<String, AtomicInteger> THREAD_NUMBERS = new ConcurrentHashMap<>();
+    private final AtomicBoolean active = new AtomicBoolean(false);
+    private int restartDelay;
+    private ThreadFactory threadFactory = newDefaultThreadFactory("poller", false);
+    private Function<String, ThreadFactory> threadFactories = purpose -> newDefaultThreadFactory(purpose, false);
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> restart;
+    private volatile Thread thread;
+    private Session session;
+    private ExceptionListener exceptionListener;
+    private MessageListener messageListener;
+    private MessageConsumer messageConsumer;
+    private JmsConfig.ListenerConfig listenerConfig;
+
+    protected AbstractMessagePoller() {
+        this.listenerConfig = new JmsConfig.ListenerConfig();
+        this.restartDelay = listenerConfig.getRestartDelay();
+    }
+
+    @Override
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public void setMessageConsumer(MessageConsumer messageConsumer) {
+        this.messageConsumer = messageConsumer;
+    }
+
+    @Override
+    public void setExceptionListener(ExceptionListener exceptionListener) {
+        this.exceptionListener = exceptionListener;
+    }
+
+    @Override
+    public void setMessageListener(MessageListener messageListener) {
+        this.messageListener = messageListener;
+    }
+
+    @Override
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        this.listenerConfig = listenerConfig;
+        this.restartDelay = Math.max(0, listenerConfig.getRestartDelay());
+    }
+
+    @Override
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = checkNotNull(threadFactory);
+    }
+
+    @Override
+    public void setThreadFactories(Function<String, ThreadFactory> threadFactories) {
+        this.threadFactories = checkNotNull(threadFactories);
+    }
+
+    @Override
+    public void setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = checkNotNull(scheduler);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!active.getAndSet(true)) {
+            checkNotNull(this.session);
+            checkNotNull(this.messageConsumer);
+            checkNotNull(this.messageListener);
+
+            startThread();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (active.getAndSet(false)) {
+            if (restart != null) {
+                restart.cancel(false);
+                restart = null;
+            }
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        LOGGER.debug("Starting to poll messages for JMS listener {}", messageListener);
+
+        while (active.get()) {
+            try {
+                poll();
+            } catch (Exception | Error e) {
+                if (!active.get()) {
+                    // Interrupted by stop(), the uncommitted messages will be redelivered
+                    break;
+                }
+
+                try {
+                    rollback();
+                } catch (JMSException rollbackException) {
+                    LOGGER.warn("Unable to rollback after message listener exception", rollbackException);
+                }
+
+                if (exceptionListener != null && e instanceof JMSException) {
+                    exceptionListener.onException((JMSException) e);
+                } else {
+                    LOGGER.error("An exception occurred during JMS polling and no exception listener was defined", e);
+                }
+
+                break;
+            }
+        }
+
+        if (active.get()) {
+            LOGGER.warn("Message polling interrupted for JMS listener {}. Scheduling restart in {} ms",
+                    messageListener,
+                    restartDelay);
+
+            try {
+                scheduleRestart();
+            } catch (Exception e) {
+                LOGGER.error(
+                        "Unable to schedule polling restart for JMS listener {}, consider restarting the poller " +
+                                "manually if possible",
+                        messageListener);
+            }
+        } else {
+            LOGGER.debug("Stopping to poll messages for JMS listener {}", messageListener, restartDelay);
+        }
+    }
+
+    /**
+     * Receives and processes messages. Invoked in loop by the polling thread while the poller is active.
+     *
+     * @throws Exception if message reception or processing fails, which stops the polling thread until restart.
+     */
+    protected abstract void poll() throws Exception;
+
+    /**
+     * Rollbacks the messages received since the last commit after a polling failure, so they are redelivered.
+     *
+     * @throws JMSException if the session cannot be rollbacked.
+     */
+    protected void rollback() throws JMSException {
+        session.rollback();
+    }
+
+    protected Session getSession() {
+        return session;
+    }
+
+    protected MessageConsumer getMessageConsumer() {
+        return messageConsumer;
+    }
+
+    protected MessageListener getMessageListener() {
+        return messageListener;
+    }
+
+    protected JmsConfig.ListenerConfig getListenerConfig() {
+        return listenerConfig;
+    }
+
+    protected ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    /**
+     * Returns the factory of the threads of a purpose other than the polling loop.
+     *
+     * @param purpose the purpose of the threads, for instance {@code "worker"}.
+     * @return the thread factory.
+     */
+    protected ThreadFactory getThreadFactory(String purpose) {
+        return threadFactories.apply(purpose);
+    }
+
+    private void startThread() {
+        thread = threadFactory.newThread(this);
+        thread.start();
+    }
+
+    private synchronized void scheduleRestart() {
+        if (scheduler == null) {
+            // Outside of the add-on, restarts run on a daemon thread of the poller, released when idle
+            ScheduledThreadPoolExecutor ownScheduler = new ScheduledThreadPoolExecutor(1,
+                    newDefaultThreadFactory("poller-restart", true));
+            ownScheduler.setKeepAliveTime(IDLE_SCHEDULER_KEEP_ALIVE, TimeUnit.SECONDS);
+            ownScheduler.allowCoreThreadTimeOut(true);
+            scheduler = ownScheduler;
+        }
+        restart = scheduler.schedule(this::restart, restartDelay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void restart() {
+        restart = null;
+        if (active.get()) {
+            if (!thread.isAlive()) {
+                startThread();
+            } else {
+                scheduleRestart();
+            }
+        }
+    }
+
+    private static ThreadFactory newDefaultThreadFactory(String purpose, boolean daemon) {
+        // Outside of the add-on, threads are named like the ones of the add-on
+        AtomicInteger threadNumber = THREAD_NUMBERS.computeIfAbsent(purpose, p -> new AtomicInteger());
+        return runnable -> {
+            Thread thread = new Thread(runnable, "jms-" + purpose + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link IdleStrategy} progressively backing off: it first spins, then yields and then parks the thread for a period
+ * doubling at each attempt, from the minimum to the maximum park period. Messages arriving during a burst are
+ * received within microseconds while an idle poller uses almost no CPU.
+ */
+public class BackoffIdleStrategy implements IdleStrategy {
+    private final int maxSpins;
+    private final int maxYields;
+    private final long minParkPeriod;
+    private final long maxParkPeriod;
+    private int spins;
+    private int yields;
+    private long parkPeriod;
+
+    /**
+     * Creates a backoff idle strategy.
+     *
+     * @param maxSpins            the number of attempts to spin before yielding.
+     * @param maxYields           the number of attempts to yield before parking.
+     * @param minParkPeriodMicros the first park period in microseconds.
+     * @param maxParkPeriodMicros the maximum park period in microseconds.
+     */
+    public BackoffIdleStrategy(int maxSpins, int maxYields, long minParkPeriodMicros, long maxParkPeriodMicros) {
+        this.maxSpins = Math.max(0, maxSpins);
+        this.maxYields = Math.max(0, maxYields);
+        this.minParkPeriod = TimeUnit.MICROSECONDS.toNanos(Math.max(1, minParkPeriodMicros));
+        this.maxParkPeriod = Math.max(this.minParkPeriod, TimeUnit.MICROSECONDS.toNanos(maxParkPeriodMicros));
+        reset();
+    }
+
+    @Override
+    public void idle() {
+        if (spins < maxSpins) {
+            spins++;
+        } else if (yields < maxYields) {
+            yields++;
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkPeriod);
+            parkPeriod = Math.min(parkPeriod * 2, maxParkPeriod);
+        }
+    }
+
+    @Override
+    public void reset() {
+        spins = 0;
+        yields = 0;
+        parkPeriod = minParkPeriod;
+    }
+
+    long getParkPeriod() {
+        return parkPeriod;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import org.seedstack.jms.BatchMessageListener;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessagePoller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MessagePoller} accumulating messages into batches for a {@link BatchMessageListener}. It waits at most the
+ * configured receive timeout for a first message using {@link MessageConsumer#receive(long)}, then keeps receiving
+ * until the batch size is reached or the batch timeout has elapsed. The listener is invoked once with the whole batch and the session is
+ * committed once.
+ *
+ * <p>If the listener fails, the session is rollbacked and the messages of the failed batch are redelivered in batches
+ * of half the size, down to a single message, so one poison message doesn't prevent the others to be processed. A
+ * failure on a single message is handled as by the {@link SimpleMessagePoller}.</p>
+ *
+ * <p>The bisection assumes that the provider redelivers the rollbacked messages to this consumer before the messages
+ * it has not delivered yet, which is the case of most providers with a single consumer. Redelivered messages are
+ * recognized by their {@code JMSMessageID}, or by their {@code JMSRedelivered} flag when they have no ID, so new
+ * messages received along with them don't count as processed messages of the failed batch. The configured batch size is
+ * restored once all the messages of the failed batch have been processed, or as soon as a batch contains none of them,
+ * the remaining ones having been delivered to another consumer or to a dead letter queue.</p>
+ */
+public class BatchMessagePoller extends AbstractMessagePoller {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchMessagePoller.class);
+    private int batchSize;
+    private long batchTimeout;
+    private final Set<String> failedMessageIds = new HashSet<>();
+    private int batchLimit;
+    private boolean bisecting;
+    private boolean unidentifiedFailedMessages;
+
+    public BatchMessagePoller() {
+        setListenerConfig(new JmsConfig.ListenerConfig());
+    }
+
+    @Override
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        super.setListenerConfig(listenerConfig);
+        this.batchSize = Math.max(1, listenerConfig.getBatchSize());
+        this.batchTimeout = Math.max(0, listenerConfig.getBatchTimeout());
+        this.batchLimit = this.batchSize;
+    }
+
+    @Override
+    public synchronized void start() {
+        checkState(getMessageListener() instanceof BatchMessageListener,
+                "Message listener " + getMessageListener() + " cannot receive batches");
+        super.start();
+    }
+
+    @Override
+    public boolean isTransactionOwner() {
+        return true;
+    }
+
+    @Override
+    protected void poll() throws JMSException {
+        List<Message> batch = receiveBatch();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            ((BatchMessageListener) getMessageListener()).onMessages(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                getSession().rollback();
+                bisect(batch);
+                LOGGER.warn("Batch of {} messages failed for JMS listener {}, retrying with batches of {} messages",
+                        batch.size(),
+                        getMessageListener(),
+                        batchLimit,
+                        e);
+                return;
+            }
+            throw e;
+        }
+
+        getSession().commit();
+        processed(batch);
+    }
+
+    private List<Message> receiveBatch() throws JMSException {
+        MessageConsumer messageConsumer = getMessageConsumer();
+        List<Message> batch = new ArrayList<>(batchLimit);
+
+        Message message = messageConsumer.receive(getListenerConfig().getReceiveTimeout());
+        if (message != null) {
+            batch.add(message);
+            long deadline = System.currentTimeMillis() + batchTimeout;
+            while (batch.size() < batchLimit) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining > 0) {
+                    message = messageConsumer.receive(remaining);
+                } else {
+                    message = messageConsumer.receiveNoWait();
+                }
+                if (message == null) {
+                    break;
+                }
+                batch.add(message);
+            }
+        }
+
+        return batch;
+    }
+
+    private void bisect(List<Message> failedBatch) throws JMSException {
+        // The messages of the failed batch are redelivered first, process them by halves
+        for (Message message : failedBatch) {
+            String messageId = message.getJMSMessageID();
+            if (messageId != null) {
+                failedMessageIds.add(messageId);
+            } else {
+                unidentifiedFailedMessages = true;
+            }
+        }
+        bisecting = true;
+        batchLimit = Math.max(1, failedBatch.size() / 2);
+    }
+
+    private void processed(List<Message> batch) throws JMSException {
+        if (bisecting) {
+            boolean retried = false;
+            for (Message message : batch) {
+                String messageId = message.getJMSMessageID();
+                if (messageId != null ? failedMessageIds.remove(messageId) : message.getJMSRedelivered()) {
+                    retried = true;
+                }
+            }
+            if (!retried || failedMessageIds.isEmpty() && !unidentifiedFailedMessages) {
+                failedMessageIds.clear();
+                bisecting = false;
+                unidentifiedFailedMessages = false;
+                batchLimit = batchSize;
+            }
+        }
+    }
+}
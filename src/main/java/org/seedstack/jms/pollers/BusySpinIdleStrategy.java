@@ -0,0 +1,24 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+/**
+ * {@link IdleStrategy} busy spinning between receive attempts. It offers the lowest wake-up latency at the cost of a
+ * fully used CPU core per poller.
+ */
+public class BusySpinIdleStrategy implements IdleStrategy {
+    @Override
+    public void idle() {
+        // spin
+    }
+
+    @Override
+    public void reset() {
+        // nothing to do
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import java.util.concurrent.TimeUnit;
+import org.seedstack.jms.JmsConfig;
+
+/**
+ * Decides when the messages processed in a transacted session must be committed, so the cost of a commit is shared by
+ * several messages. A commit is due when the commit batch size is reached or when the oldest uncommitted message was
+ * processed more than the commit interval ago.
+ *
+ * <p>The commit batch size adapts to the measured commit latency: it grows by one message after each commit faster
+ * than the latency target, up to the configured maximum, and is halved after a slower commit or a rollback.</p>
+ *
+ * <p>A rollback applies to all the uncommitted messages of the session, including the ones already processed
+ * successfully, which are then redelivered and processed again. Listeners using group commit must therefore tolerate
+ * duplicates. Uncommitted messages are also redelivered if the session is closed before the commit.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public class GroupCommitController {
+    private final int maxBatchSize;
+    private final long commitInterval;
+    private final long latencyTarget;
+    private int batchSize = 1;
+    private int pendingMessages;
+    private long firstPendingTime;
+
+    /**
+     * Creates a group commit controller from a message listener configuration.
+     *
+     * @param listenerConfig the message listener configuration.
+     */
+    public GroupCommitController(JmsConfig.ListenerConfig listenerConfig) {
+        this.maxBatchSize = Math.max(1, listenerConfig.getMaxCommitBatchSize());
+        this.commitInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, listenerConfig.getCommitInterval()));
+        this.latencyTarget = TimeUnit.MILLISECONDS.toNanos(Math.max(0, listenerConfig.getCommitLatencyTarget()));
+    }
+
+    /**
+     * Records that a message has been successfully processed and is waiting for a commit.
+     */
+    public void messageProcessed() {
+        if (pendingMessages++ == 0) {
+            firstPendingTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return true if the uncommitted messages must be committed now.
+     */
+    public boolean isCommitDue() {
+        return pendingMessages >= batchSize || pendingMessages > 0 && getCommitDelay() <= 0;
+    }
+
+    /**
+     * @return the number of milliseconds before the uncommitted messages must be committed, or the commit interval if
+     *         there is no uncommitted message.
+     */
+    public long getCommitDelay() {
+        if (pendingMessages == 0) {
+            return TimeUnit.NANOSECONDS.toMillis(commitInterval);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(firstPendingTime + commitInterval - System.nanoTime());
+    }
+
+    public boolean hasPendingMessages() {
+        return pendingMessages > 0;
+    }
+
+    public int getPendingMessages() {
+        return pendingMessages;
+    }
+
+    /**
+     * Records a commit and adapts the batch size to its latency.
+     *
+     * @param latency the duration of the commit in nanoseconds.
+     */
+    public void committed(long latency) {
+        pendingMessages = 0;
+        if (latency > latencyTarget) {
+            batchSize = Math.max(1, batchSize / 2);
+        } else {
+            batchSize = Math.min(maxBatchSize, batchSize + 1);
+        }
+    }
+
+    /**
+     * Records a rollback, which halves the batch size to limit the number of messages processed again.
+     */
+    public void rolledBack() {
+        pendingMessages = 0;
+        batchSize = Math.max(1, batchSize / 2);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
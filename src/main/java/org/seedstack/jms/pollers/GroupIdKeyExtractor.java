@@ -0,0 +1,24 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import org.seedstack.jms.spi.MessageKeyExtractor;
+
+/**
+ * Default {@link MessageKeyExtractor} using the standard {@code JMSXGroupID} property of messages as ordering key.
+ */
+public class GroupIdKeyExtractor implements MessageKeyExtractor {
+    static final String JMSX_GROUP_ID = "JMSXGroupID";
+
+    @Override
+    public Object extractKey(Message message) throws JMSException {
+        return message.getStringProperty(JMSX_GROUP_ID);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessagePoller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MessagePoller} decoupling message reception from message processing. The polling thread only receives
+ * messages and hands them off to a bounded buffer of {@code handOffCapacity} messages, from which a pool of
+ * {@code dispatchThreads} workers takes them for processing, in no particular order.
+ *
+ * <p>The session uses {@link Session#CLIENT_ACKNOWLEDGE}. As acknowledging a message acknowledges all the messages
+ * received before it, messages are only acknowledged, in reception order, once all of them are processed. This
+ * happens whenever the workers catch up with the polling thread and at the latest when {@code handOffCapacity}
+ * messages are waiting for acknowledgement, in which case reception pauses until the workers are done.</p>
+ *
+ * <p>When a message fails, the buffered messages are discarded, the messages being processed are awaited and the
+ * session is recovered so every unacknowledged message is redelivered (at-least-once). Then the
+ * {@link javax.jms.ExceptionListener} is invoked if any and polling restarts after the {@code restartDelay} of the
+ * listener configuration.</p>
+ *
+ * <p>The message listener is invoked concurrently by the workers and must not use the listener session.</p>
+ */
+public class HandOffMessagePoller extends AbstractMessagePoller {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandOffMessagePoller.class);
+    private static final long ACKNOWLEDGE_CHECK_INTERVAL = 10;
+    private final Object completion = new Object();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile long received;
+    private long acknowledged;
+    private Message lastReceived;
+    private int capacity;
+    private BlockingQueue<Message> buffer;
+    private List<Thread> workers;
+
+    public HandOffMessagePoller() {
+        this.capacity = getListenerConfig().getHandOffCapacity();
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        super.setListenerConfig(listenerConfig);
+        this.capacity = Math.max(1, listenerConfig.getHandOffCapacity());
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (workers == null) {
+            int workerCount = Math.max(1, getListenerConfig().getDispatchThreads());
+            workers = new ArrayList<>(workerCount);
+            ThreadFactory workerThreadFactory = getThreadFactory("worker");
+            for (int i = 0; i < workerCount; i++) {
+                Thread worker = workerThreadFactory.newThread(this::work);
+                worker.start();
+                workers.add(worker);
+            }
+        }
+        super.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (workers != null) {
+            workers.forEach(Thread::interrupt);
+            workers = null;
+        }
+    }
+
+    @Override
+    public boolean isTransactionOwner() {
+        return true;
+    }
+
+    @Override
+    protected void poll() throws Exception {
+        // A failure is always visible once its message is counted as completed
+        boolean caughtUp = completed.get() == received;
+        Throwable processingFailure = failure.get();
+        if (processingFailure instanceof Error) {
+            throw (Error) processingFailure;
+        } else if (processingFailure != null) {
+            throw (Exception) processingFailure;
+        }
+
+        if (caughtUp) {
+            acknowledge();
+        } else if (received - acknowledged >= capacity) {
+            // Too many unacknowledged messages, wait for the workers to catch up
+            awaitCompletion();
+            return;
+        }
+
+        Message message;
+        if (caughtUp) {
+            message = getMessageConsumer().receive(getListenerConfig().getReceiveTimeout());
+        } else {
+            message = getMessageConsumer().receive(Math.min(ACKNOWLEDGE_CHECK_INTERVAL,
+                    getListenerConfig().getReceiveTimeout()));
+        }
+
+        if (message != null) {
+            lastReceived = message;
+            received++;
+            // Never blocks as the buffer can hold every unacknowledged message
+            buffer.put(message);
+        }
+    }
+
+    @Override
+    protected void rollback() throws JMSException {
+        // Discarded messages are redelivered by the recovery
+        List<Message> discarded = new ArrayList<>();
+        buffer.drainTo(discarded);
+        completed.addAndGet(discarded.size());
+        try {
+            awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        lastReceived = null;
+        acknowledged = received;
+        failure.set(null);
+        getSession().recover();
+    }
+
+    private void acknowledge() throws JMSException {
+        if (lastReceived != null) {
+            lastReceived.acknowledge();
+            lastReceived = null;
+            acknowledged = received;
+        }
+    }
+
+    private void awaitCompletion() throws InterruptedException {
+        synchronized (completion) {
+            while (completed.get() != received) {
+                completion.wait();
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Message message = buffer.take();
+                try {
+                    // Messages taken after a failure are skipped and redelivered by the recovery
+                    if (failure.get() == null) {
+                        getMessageListener().onMessage(message);
+                    }
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    if (completed.incrementAndGet() == received) {
+                        synchronized (completion) {
+                            completion.notifyAll();
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug("Stopping JMS worker {}", Thread.currentThread().getName());
+        }
+    }
+}
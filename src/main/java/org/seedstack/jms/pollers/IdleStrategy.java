@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+/**
+ * Strategy used by a poller to wait when no message is immediately available.
+ */
+public interface IdleStrategy {
+    /**
+     * Invoked after each unsuccessful attempt to receive a message.
+     */
+    void idle();
+
+    /**
+     * Invoked when a message has been received, to restart from the most reactive idle state.
+     */
+    void reset();
+}
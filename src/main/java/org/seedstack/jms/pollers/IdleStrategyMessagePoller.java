@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessagePoller;
+
+/**
+ * {@link MessagePoller} receiving messages with {@link MessageConsumer#receiveNoWait()} and waiting between
+ * unsuccessful attempts according to the {@link IdleStrategy} configured for the listener ({@code BACKOFF} by
+ * default). When a message is received, the listener is invoked and the session is committed. Errors are handled as by
+ * the {@link SimpleMessagePoller}.
+ */
+public class IdleStrategyMessagePoller extends AbstractMessagePoller {
+    private IdleStrategy idleStrategy;
+
+    public IdleStrategyMessagePoller() {
+        setListenerConfig(new JmsConfig.ListenerConfig());
+    }
+
+    @Override
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        super.setListenerConfig(listenerConfig);
+        this.idleStrategy = listenerConfig.getIdleStrategy().create(listenerConfig);
+    }
+
+    @Override
+    public boolean isTransactionOwner() {
+        return true;
+    }
+
+    @Override
+    protected void poll() throws JMSException {
+        Message message = getMessageConsumer().receiveNoWait();
+        if (message != null) {
+            idleStrategy.reset();
+            getMessageListener().onMessage(message);
+            getSession().commit();
+        } else {
+            idleStrategy.idle();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import org.seedstack.jms.JmsConfig;
+
+/**
+ * Enumerates the idle strategies available to {@link IdleStrategyMessagePoller}.
+ */
+public enum IdleStrategyType {
+    /**
+     * Busy spin, see {@link BusySpinIdleStrategy}.
+     */
+    SPIN {
+        @Override
+        public IdleStrategy create(JmsConfig.ListenerConfig listenerConfig) {
+            return new BusySpinIdleStrategy();
+        }
+    },
+    /**
+     * Yield the CPU, see {@link YieldingIdleStrategy}.
+     */
+    YIELD {
+        @Override
+        public IdleStrategy create(JmsConfig.ListenerConfig listenerConfig) {
+            return new YieldingIdleStrategy();
+        }
+    },
+    /**
+     * Spin, then yield and then park, see {@link BackoffIdleStrategy}.
+     */
+    BACKOFF {
+        @Override
+        public IdleStrategy create(JmsConfig.ListenerConfig listenerConfig) {
+            return new BackoffIdleStrategy(listenerConfig.getMaxSpins(),
+                    listenerConfig.getMaxYields(),
+                    listenerConfig.getMinParkPeriod(),
+                    listenerConfig.getMaxParkPeriod());
+        }
+    };
+
+    /**
+     * Creates an idle strategy of this type.
+     *
+     * @param listenerConfig the configuration of the message listener.
+     * @return the idle strategy.
+     */
+    public abstract IdleStrategy create(JmsConfig.ListenerConfig listenerConfig);
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessageKeyExtractor;
+import org.seedstack.jms.spi.MessagePoller;
+import org.seedstack.shed.reflect.Classes;
+
+/**
+ * {@link MessagePoller} receiving messages on a single consumer and dispatching them to {@code dispatchThreads}
+ * workers partitioned by the key returned by the configured {@link MessageKeyExtractor} ({@code JMSXGroupID} by
+ * default). Messages with the same key are always processed by the same worker, in reception order, while messages
+ * with different keys are processed in parallel. Messages without key are spread over the workers.
+ *
+ * <p>Messages are received in windows of at most {@code dispatchWindow} messages. The session is committed only once
+ * all the messages of a window are processed, so a commit never covers a message still being processed. When a
+ * message fails, the messages of the window not yet started are skipped and the whole window is rollbacked and
+ * redelivered, keeping the processing order of each key. The session is always transacted.</p>
+ *
+ * <p>The message listener is invoked concurrently by the workers and must not use the listener session.</p>
+ */
+public class KeyOrderedMessagePoller extends AbstractMessagePoller {
+    private MessageKeyExtractor keyExtractor = new GroupIdKeyExtractor();
+    private int dispatchWindow;
+    private int nextWorker;
+    private volatile ExecutorService[] workers;
+
+    public KeyOrderedMessagePoller() {
+        this.dispatchWindow = getListenerConfig().getDispatchWindow();
+    }
+
+    @Override
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        super.setListenerConfig(listenerConfig);
+        this.dispatchWindow = Math.max(1, listenerConfig.getDispatchWindow());
+        if (listenerConfig.getKeyExtractor() != null) {
+            this.keyExtractor = Classes.instantiateDefault(listenerConfig.getKeyExtractor());
+        } else {
+            this.keyExtractor = new GroupIdKeyExtractor();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (workers == null) {
+            ExecutorService[] executorServices = new ExecutorService[Math.max(1,
+                    getListenerConfig().getDispatchThreads())];
+            ThreadFactory dispatcherThreadFactory = getThreadFactory("dispatcher");
+            for (int i = 0; i < executorServices.length; i++) {
+                executorServices[i] = Executors.newSingleThreadExecutor(dispatcherThreadFactory);
+            }
+            workers = executorServices;
+        }
+        super.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (workers != null) {
+            for (ExecutorService worker : workers) {
+                worker.shutdownNow();
+            }
+            workers = null;
+        }
+    }
+
+    @Override
+    public boolean isTransactionOwner() {
+        return true;
+    }
+
+    @Override
+    protected void poll() throws Exception {
+        Message message = getMessageConsumer().receive(getListenerConfig().getReceiveTimeout());
+        if (message != null) {
+            ExecutorService[] executorServices = workers;
+            AtomicBoolean failed = new AtomicBoolean(false);
+            List<Future<?>> window = new ArrayList<>();
+            do {
+                window.add(dispatch(executorServices, message, failed));
+            } while (window.size() < dispatchWindow && (message = getMessageConsumer().receiveNoWait()) != null);
+
+            awaitWindow(window);
+            getSession().commit();
+        }
+    }
+
+    private Future<?> dispatch(ExecutorService[] executorServices, Message message, AtomicBoolean failed)
+            throws JMSException {
+        Object key = keyExtractor.extractKey(message);
+        int index;
+        if (key == null) {
+            index = nextWorker;
+            nextWorker = (nextWorker + 1) % executorServices.length;
+        } else {
+            index = Math.floorMod(key.hashCode(), executorServices.length);
+        }
+
+        MessageListener messageListener = getMessageListener();
+        return executorServices[index].submit(() -> {
+            // Skipped messages will be redelivered with the rest of the window
+            if (!failed.get()) {
+                try {
+                    messageListener.onMessage(message);
+                } catch (RuntimeException | Error e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private void awaitWindow(List<Future<?>> window) throws Exception {
+        Throwable failure = null;
+        for (Future<?> future : window) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw (Exception) failure;
+        }
+    }
+}
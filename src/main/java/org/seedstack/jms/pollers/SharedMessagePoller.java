@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.inject.Inject;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessagePoller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MessagePoller} without its own thread, polled by the {@link SharedPollerScheduler} along with the other
+ * shared pollers. Each turn receives messages with {@link MessageConsumer#receiveNoWait()} up to the scheduler quota.
+ * When a message is received, the {@link MessageListener} is invoked and the session is committed. If an exception
+ * occurs the session is rollbacked, the {@link ExceptionListener} is invoked if any and the next turn is delayed by the
+ * {@code restartDelay} of the listener configuration. Stopping the poller waits for its running turn, if any, to end
+ * after the message being processed.
+ *
+ * <p>Suited to many low-traffic destinations. The JMS provider must prefetch messages for
+ * {@link MessageConsumer#receiveNoWait()} to return them.</p>
+ */
+public class SharedMessagePoller implements MessagePoller {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMessagePoller.class);
+    private final Object turnLock = new Object();
+    private SharedPollerScheduler sharedPollerScheduler;
+    private Session session;
+    private ExceptionListener exceptionListener;
+    private MessageListener messageListener;
+    private MessageConsumer messageConsumer;
+    private JmsConfig.ListenerConfig listenerConfig = new JmsConfig.ListenerConfig();
+    private volatile boolean active;
+    private SharedPollerScheduler.PollingTask pollingTask;
+
+    @Inject
+    public void setSharedPollerScheduler(SharedPollerScheduler sharedPollerScheduler) {
+        this.sharedPollerScheduler = sharedPollerScheduler;
+    }
+
+    @Override
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public void setMessageConsumer(MessageConsumer messageConsumer) {
+        this.messageConsumer = messageConsumer;
+    }
+
+    @Override
+    public void setExceptionListener(ExceptionListener exceptionListener) {
+        this.exceptionListener = exceptionListener;
+    }
+
+    @Override
+    public void setMessageListener(MessageListener messageListener) {
+        this.messageListener = messageListener;
+    }
+
+    @Override
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        this.listenerConfig = listenerConfig;
+    }
+
+    @Override
+    public boolean isTransactionOwner() {
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!active) {
+            checkNotNull(this.sharedPollerScheduler);
+            checkNotNull(this.session);
+            checkNotNull(this.messageConsumer);
+            checkNotNull(this.messageListener);
+
+            active = true;
+            pollingTask = sharedPollerScheduler.register(this);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (active) {
+            active = false;
+            pollingTask.cancel();
+            pollingTask = null;
+            synchronized (turnLock) {
+                // The running turn, if any, ends after the message being processed
+                LOGGER.debug("Stopped to poll messages for JMS listener {}", messageListener);
+            }
+        }
+    }
+
+    int poll(int quota) throws JMSException {
+        synchronized (turnLock) {
+            int received = 0;
+            while (active && received < quota) {
+                Message message = messageConsumer.receiveNoWait();
+                if (message == null) {
+                    break;
+                }
+                messageListener.onMessage(message);
+                session.commit();
+                received++;
+            }
+            return received;
+        }
+    }
+
+    void handleFailure(Throwable t) {
+        synchronized (turnLock) {
+            if (!active) {
+                // Failed while stopping, the uncommitted messages will be redelivered
+                return;
+            }
+
+            try {
+                session.rollback();
+            } catch (JMSException rollbackException) {
+                LOGGER.warn("Unable to rollback after message listener exception", rollbackException);
+            }
+
+            if (exceptionListener != null && t instanceof JMSException) {
+                exceptionListener.onException((JMSException) t);
+            } else {
+                LOGGER.error("An exception occurred during JMS polling and no exception listener was defined", t);
+            }
+        }
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    int getRestartDelay() {
+        return Math.max(0, listenerConfig.getRestartDelay());
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(messageListener);
+    }
+}
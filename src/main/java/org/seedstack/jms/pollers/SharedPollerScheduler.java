@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.seedstack.jms.JmsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the polling turns of all {@link SharedMessagePoller}s on a fixed number of threads, independent of the number
+ * of destinations. Each registered poller is kept in a delay queue ordered by the time of its next turn:
+ *
+ * <ul>
+ * <li>A turn receives at most {@code quota} messages, so a busy destination cannot monopolize a thread.</li>
+ * <li>A poller which received messages is immediately due again, but behind the pollers which were already due, so
+ * every due poller gets its turn in FIFO order and none is starved.</li>
+ * <li>A poller which found no message backs off exponentially, from 1 ms up to {@code maxIdleDelay}, which bounds the
+ * reception latency of idle destinations.</li>
+ * </ul>
+ *
+ * <p>A poller is never in the queue while one of its turns is running, so its session is only used by one thread at a
+ * time. A turn failing with an exception or an error is handled by its poller and rescheduled after the restart delay,
+ * without stopping the thread which ran it.</p>
+ */
+public class SharedPollerScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedPollerScheduler.class);
+    private static final long MIN_IDLE_DELAY = TimeUnit.MILLISECONDS.toNanos(1);
+    private final DelayQueue<PollingTask> pollingTasks = new DelayQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+    private final int threadCount;
+    private final int quota;
+    private final long maxIdleDelay;
+    private final ThreadFactory threadFactory;
+    private boolean shutdown;
+
+    /**
+     * Creates the scheduler. Threads are started when the first poller is registered.
+     *
+     * @param sharedPollingConfig the shared polling configuration.
+     */
+    public SharedPollerScheduler(JmsConfig.SharedPollingConfig sharedPollingConfig) {
+        this(sharedPollingConfig, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "jms-shared-poller-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Creates the scheduler with the threads of a factory. Threads are started when the first poller is registered.
+     *
+     * @param sharedPollingConfig the shared polling configuration.
+     * @param threadFactory       the factory of the polling threads.
+     */
+    public SharedPollerScheduler(JmsConfig.SharedPollingConfig sharedPollingConfig, ThreadFactory threadFactory) {
+        this.threadFactory = checkNotNull(threadFactory);
+        this.threadCount = Math.max(1, sharedPollingConfig.getThreads());
+        this.quota = Math.max(1, sharedPollingConfig.getQuota());
+        this.maxIdleDelay = Math.max(MIN_IDLE_DELAY,
+                TimeUnit.MILLISECONDS.toNanos(sharedPollingConfig.getMaxIdleDelay()));
+    }
+
+    /**
+     * Stops the polling threads. Registered pollers are not polled anymore.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        pollingTasks.clear();
+        threads.forEach(Thread::interrupt);
+        threads.clear();
+    }
+
+    synchronized PollingTask register(SharedMessagePoller messagePoller) {
+        if (shutdown) {
+            throw new IllegalStateException("Shared poller scheduler is shut down");
+        }
+        if (threads.isEmpty()) {
+            for (int i = 0; i < threadCount; i++) {
+                Thread thread = threadFactory.newThread(this::work);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+
+        PollingTask pollingTask = new PollingTask(messagePoller);
+        pollingTask.schedule(0);
+        return pollingTask;
+    }
+
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                PollingTask pollingTask = pollingTasks.take();
+                try {
+                    pollingTask.run();
+                } catch (Throwable t) {
+                    LOGGER.error("Unable to handle the polling failure of JMS listener {}",
+                            pollingTask.messagePoller,
+                            t);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.debug("Shared JMS poller thread {} stopped", Thread.currentThread().getName());
+    }
+
+    class PollingTask implements Delayed {
+        private final SharedMessagePoller messagePoller;
+        private long idleDelay = MIN_IDLE_DELAY;
+        private long time;
+        private long order;
+        private boolean cancelled;
+
+        private PollingTask(SharedMessagePoller messagePoller) {
+            this.messagePoller = messagePoller;
+        }
+
+        private void run() {
+            // A failure delays the next turn, even if it cannot be handled
+            long delay = TimeUnit.MILLISECONDS.toNanos(messagePoller.getRestartDelay());
+            try {
+                if (messagePoller.poll(quota) > 0) {
+                    idleDelay = MIN_IDLE_DELAY;
+                    delay = 0;
+                } else {
+                    delay = idleDelay;
+                    idleDelay = Math.min(idleDelay * 2, maxIdleDelay);
+                }
+            } catch (Throwable t) {
+                idleDelay = MIN_IDLE_DELAY;
+                messagePoller.handleFailure(t);
+                if (messagePoller.isActive()) {
+                    LOGGER.warn("Message polling interrupted for JMS listener {}. Next attempt in {} ms",
+                            messagePoller,
+                            messagePoller.getRestartDelay());
+                }
+            } finally {
+                schedule(delay);
+            }
+        }
+
+        private synchronized void schedule(long delay) {
+            if (!cancelled) {
+                time = System.nanoTime() + delay;
+                order = sequence.getAndIncrement();
+                pollingTasks.add(this);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            pollingTasks.remove(this);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            PollingTask otherTask = (PollingTask) other;
+            int result = Long.compare(time - otherTask.time, 0);
+            if (result == 0) {
+                result = Long.compare(order, otherTask.order);
+            }
+            return result;
+        }
+    }
+}
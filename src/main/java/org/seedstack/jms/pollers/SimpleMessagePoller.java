@@ -7,140 +7,88 @@
  */
 package org.seedstack.jms.pollers;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.atomic.AtomicBoolean;
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
-import javax.jms.Session;
+import org.seedstack.jms.JmsConfig;
 import org.seedstack.jms.spi.MessagePoller;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * {@link MessagePoller} implementing a simple polling strategy that waits at most 30 seconds using
- * {@link MessageConsumer#receive(long)} and then loop over. When a message is received, the {@link MessageListener} is
- * invoked and the session is committed. If an exception occurs the session is rollbacked, the {@link ExceptionListener}
- * is invoked if any, the polling thread is shutdown and scheduled for restart in 10 seconds.
+ * {@link MessagePoller} implementing a simple polling strategy that waits at most the {@code receiveTimeout} of the
+ * listener configuration (30 seconds by default) using {@link MessageConsumer#receive(long)} and then loop over. When a
+ * message is received, the {@link MessageListener} is invoked and the session is committed. If an exception occurs the
+ * session is rollbacked, the {@link ExceptionListener} is invoked if any, the polling thread is shutdown and scheduled
+ * for restart after the {@code restartDelay} of the listener configuration (10 seconds by default).
+ *
+ * <p>When the {@code maxCommitBatchSize} of the listener configuration is greater than 1 and the session is transacted,
+ * commits are grouped as decided by a {@link GroupCommitController}. Grouped commits are always made on the polling
+ * thread, between two messages, so a commit never includes a message being processed. When no message arrives, the
+ * receive is shortened so the pending messages are committed within the {@code commitInterval}. A failure rollbacks
+ * all the uncommitted messages, which are redelivered, as are the messages still pending when the poller is
+ * stopped.</p>
  */
-public class SimpleMessagePoller implements MessagePoller, Runnable {
-    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleMessagePoller.class);
-    private final AtomicBoolean active = new AtomicBoolean(false);
-    private final Timer timer = new Timer();
-    private long receiveTimeout = 30000;
-    private int restartDelay = 10000;
-    private Thread thread;
-    private Session session;
-    private ExceptionListener exceptionListener;
-    private MessageListener messageListener;
-    private MessageConsumer messageConsumer;
-
-    @Override
-    public void setSession(Session session) {
-        this.session = session;
-    }
-
-    @Override
-    public void setMessageConsumer(MessageConsumer messageConsumer) {
-        this.messageConsumer = messageConsumer;
-    }
+public class SimpleMessagePoller extends AbstractMessagePoller {
+    private GroupCommitController groupCommitController;
 
     @Override
-    public void setExceptionListener(ExceptionListener exceptionListener) {
-        this.exceptionListener = exceptionListener;
-    }
-
-    @Override
-    public void setMessageListener(MessageListener messageListener) {
-        this.messageListener = messageListener;
+    public void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        super.setListenerConfig(listenerConfig);
+        if (listenerConfig.getMaxCommitBatchSize() > 1) {
+            groupCommitController = new GroupCommitController(listenerConfig);
+        } else {
+            groupCommitController = null;
+        }
     }
 
     @Override
-    public synchronized void start() {
-        if (!active.getAndSet(true)) {
-            checkNotNull(this.session);
-            checkNotNull(this.messageConsumer);
-            checkNotNull(this.messageListener);
-
-            startThread();
-        }
+    public boolean isTransactionOwner() {
+        return true;
     }
 
     @Override
-    public synchronized void stop() {
-        if (active.getAndSet(false)) {
-            timer.cancel();
-            thread.interrupt();
+    protected void poll() throws JMSException {
+        if (groupCommitController != null && getSession().getTransacted()) {
+            pollWithGroupCommit();
+        } else {
+            Message message = getMessageConsumer().receive(getListenerConfig().getReceiveTimeout());
+            if (message != null) {
+                getMessageListener().onMessage(message);
+                getSession().commit();
+            }
         }
     }
 
-    @Override
-    public void run() {
-        LOGGER.debug("Starting to poll messages for JMS listener {}", messageListener);
-
-        while (active.get()) {
-            try {
-                Message message = messageConsumer.receive(receiveTimeout);
-                if (message != null) {
-                    messageListener.onMessage(message);
-                    session.commit();
-                }
-            } catch (Exception e) {
-                try {
-                    session.rollback();
-                } catch (JMSException rollbackException) {
-                    LOGGER.warn("Unable to rollback after message listener exception", rollbackException);
-                }
-
-                if (exceptionListener != null && e instanceof JMSException) {
-                    exceptionListener.onException((JMSException) e);
-                } else {
-                    LOGGER.error("An exception occurred during JMS polling and no exception listener was defined", e);
+    private void pollWithGroupCommit() throws JMSException {
+        try {
+            long timeout = getListenerConfig().getReceiveTimeout();
+            if (groupCommitController.hasPendingMessages()) {
+                timeout = Math.min(timeout, groupCommitController.getCommitDelay());
+                if (timeout <= 0) {
+                    commit();
+                    return;
                 }
-
-                break;
             }
-        }
 
-        if (active.get()) {
-            LOGGER.warn("Message polling interrupted for JMS listener {}. Scheduling restart in {} ms",
-                    messageListener,
-                    restartDelay);
-
-            try {
-                timer.schedule(new MyTimerTask(), restartDelay);
-            } catch (Exception e) {
-                LOGGER.error(
-                        "Unable to schedule polling restart for JMS listener {}, consider restarting the poller " +
-                                "manually if possible",
-                        messageListener);
+            Message message = getMessageConsumer().receive(timeout);
+            if (message != null) {
+                getMessageListener().onMessage(message);
+                groupCommitController.messageProcessed();
+                if (groupCommitController.isCommitDue()) {
+                    commit();
+                }
             }
-        } else {
-            LOGGER.debug("Stopping to poll messages for JMS listener {}", messageListener, restartDelay);
+        } catch (JMSException | RuntimeException | Error e) {
+            // The session will be rollbacked with all its uncommitted messages
+            groupCommitController.rolledBack();
+            throw e;
         }
     }
 
-    private void startThread() {
-        thread = new Thread(this);
-        thread.setName("jms-poller-" + thread.getId());
-        thread.start();
-    }
-
-    private class MyTimerTask extends TimerTask {
-        @Override
-        public void run() {
-            synchronized (SimpleMessagePoller.this) {
-                if (!thread.isAlive()) {
-                    startThread();
-                } else {
-                    timer.schedule(new MyTimerTask(), restartDelay);
-                }
-            }
-        }
+    private void commit() throws JMSException {
+        long start = System.nanoTime();
+        getSession().commit();
+        groupCommitController.committed(System.nanoTime() - start);
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates virtual thread factories when the runtime supports them (Java 21 or later). The virtual thread API is
+ * accessed reflectively so the add-on can still run on older runtimes, where platform threads are used instead.
+ *
+ * <p>Virtual threads only help if blocking calls don't pin their carrier thread: a JMS provider waiting for messages
+ * inside a {@code synchronized} block may limit the number of pollers that can block concurrently.</p>
+ */
+public final class VirtualThreads {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+    private static final Method OF_VIRTUAL_METHOD;
+    private static final Method NAME_METHOD;
+    private static final Method FACTORY_METHOD;
+
+    static {
+        Method ofVirtualMethod = null;
+        Method nameMethod = null;
+        Method factoryMethod = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+            nameMethod = builderClass.getMethod("name", String.class, long.class);
+            factoryMethod = builderClass.getMethod("factory");
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            LOGGER.debug("Virtual threads are not supported by this runtime");
+        }
+        OF_VIRTUAL_METHOD = ofVirtualMethod;
+        NAME_METHOD = nameMethod;
+        FACTORY_METHOD = factoryMethod;
+    }
+
+    private VirtualThreads() {
+        // no instantiation allowed
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL_METHOD != null;
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the specified prefix followed by a counter.
+     *
+     * @param prefix the thread name prefix.
+     * @return the virtual thread factory or an empty optional if virtual threads are not supported.
+     */
+    public static Optional<ThreadFactory> createFactory(String prefix) {
+        if (!isSupported()) {
+            return Optional.empty();
+        }
+        try {
+            Object builder = NAME_METHOD.invoke(OF_VIRTUAL_METHOD.invoke(null), prefix, 0L);
+            return Optional.of((ThreadFactory) FACTORY_METHOD.invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Unable to create a virtual thread factory, falling back to platform threads", e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+/**
+ * {@link IdleStrategy} yielding the CPU to other threads between receive attempts.
+ */
+public class YieldingIdleStrategy implements IdleStrategy {
+    @Override
+    public void idle() {
+        Thread.yield();
+    }
+
+    @Override
+    public void reset() {
+        // nothing to do
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.reconnection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.seedstack.jms.spi.ReconnectionPolicy;
+
+/**
+ * {@link ReconnectionPolicy} multiplying the delay between attempts after each failure, from a minimum delay up to a
+ * maximum delay. A random part of each delay, up to the jitter fraction, is removed so the nodes of an application do
+ * not reconnect in lockstep when a broker restarts. The circuit breaker opens after a number of failed attempts, or
+ * never if that threshold is 0.
+ */
+public class ExponentialBackoffPolicy implements ReconnectionPolicy {
+    private final long minDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final double jitter;
+    private final int circuitBreakerThreshold;
+
+    /**
+     * Creates the policy.
+     *
+     * @param minDelay                the delay before the first attempt in milliseconds.
+     * @param maxDelay                the maximum delay between attempts in milliseconds.
+     * @param multiplier              the factor applied to the delay after each failed attempt.
+     * @param jitter                  the maximum fraction of each delay randomly removed, between 0 and 1.
+     * @param circuitBreakerThreshold the number of failed attempts opening the circuit breaker, or 0 to never open
+     *                                it.
+     */
+    public ExponentialBackoffPolicy(long minDelay, long maxDelay, double multiplier, double jitter,
+            int circuitBreakerThreshold) {
+        checkArgument(minDelay >= 0 && maxDelay >= minDelay, "Invalid reconnection delays");
+        checkArgument(multiplier >= 1, "Reconnection delay multiplier must be at least 1");
+        checkArgument(jitter >= 0 && jitter <= 1, "Reconnection jitter must be between 0 and 1");
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+    }
+
+    @Override
+    public long getDelay(int attempt) {
+        double delay = Math.min(maxDelay, minDelay * Math.pow(multiplier, Math.max(0, attempt - 1)));
+        if (jitter > 0) {
+            delay -= delay * jitter * ThreadLocalRandom.current().nextDouble();
+        }
+        return (long) delay;
+    }
+
+    @Override
+    public boolean isCircuitOpen(int failedAttempts) {
+        return circuitBreakerThreshold > 0 && failedAttempts >= circuitBreakerThreshold;
+    }
+}
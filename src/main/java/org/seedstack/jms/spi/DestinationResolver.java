@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.spi;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.seedstack.jms.DestinationType;
+
+/**
+ * Resolves JMS destinations by name. A resolver is bound for each connection and can be injected with the connection
+ * name as qualifier (like {@code @Named("connectionName") DestinationResolver}). Destinations configured under
+ * {@code jms.destinations} are looked up in JNDI, other names are created dynamically with the session. Resolved
+ * destinations are cached until the connection is reconnected.
+ */
+public interface DestinationResolver {
+    /**
+     * Resolves a destination.
+     *
+     * @param session         the session used to create dynamic destinations.
+     * @param destinationType the type of the destination (QUEUE or TOPIC).
+     * @param destinationName the name of the destination.
+     * @return the destination.
+     * @throws JMSException if the destination cannot be resolved.
+     */
+    Destination resolve(Session session, DestinationType destinationType, String destinationName) throws JMSException;
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.spi;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Extracts the ordering key of messages dispatched by a key-ordered poller. Messages with equal keys are processed one
+ * at a time in reception order, messages with different keys may be processed in parallel.
+ */
+public interface MessageKeyExtractor {
+    /**
+     * Extracts the ordering key of a message.
+     *
+     * @param message the received message.
+     * @return the key of the message or null if the message can be processed in any order.
+     * @throws JMSException if the key cannot be read from the message.
+     */
+    Object extractKey(Message message) throws JMSException;
+}
@@ -23,6 +23,11 @@ public class MessageListenerDefinition {
     private final Destination destination;
     private final String selector;
     private final Class<? extends MessagePoller> poller;
+    private final int concurrency;
+    private final int maxConcurrency;
+    private final String subscriptionName;
+    private final boolean shared;
+    private final boolean durable;
 
     /**
      * Creates a JMS message listener definition based on a MessageListener implementing class.
@@ -35,6 +40,59 @@ public class MessageListenerDefinition {
      * @param poller               an optional {@link MessagePoller} to retrieve messages via receive().
      */
     public MessageListenerDefinition(String name, String connectionName, Session session, Destination destination, String selector, Class<? extends MessageListener> messageListenerClass, Class<? extends MessagePoller> poller) {
+        this(name, connectionName, session, destination, selector, messageListenerClass, poller, 1, 1);
+    }
+
+    /**
+     * Creates a JMS message listener definition based on a MessageListener implementing class.
+     * @param name                 the name of the message listener definition.
+     * @param connectionName  the connection name that this listener is attached to.
+     * @param session              the JMS session of the first consumer.
+     * @param destination          the JMS destination
+     * @param selector             the message selector
+     * @param messageListenerClass the class implementing MessageListener
+     * @param poller               an optional {@link MessagePoller} to retrieve messages via receive().
+     * @param concurrency          the minimum number of concurrent consumers, each with its own session.
+     * @param maxConcurrency       the maximum number of concurrent consumers, greater than concurrency to enable scaling.
+     */
+    public MessageListenerDefinition(String name, String connectionName, Session session, Destination destination, String selector, Class<? extends MessageListener> messageListenerClass, Class<? extends MessagePoller> poller, int concurrency, int maxConcurrency) {
+        this(name, connectionName, session, destination, selector, messageListenerClass, poller, concurrency, maxConcurrency, null, false);
+    }
+
+    /**
+     * Creates a JMS message listener definition based on a MessageListener implementing class.
+     * @param name                 the name of the message listener definition.
+     * @param connectionName  the connection name that this listener is attached to.
+     * @param session              the JMS session of the first consumer.
+     * @param destination          the JMS destination
+     * @param selector             the message selector
+     * @param messageListenerClass the class implementing MessageListener
+     * @param poller               an optional {@link MessagePoller} to retrieve messages via receive().
+     * @param concurrency          the minimum number of concurrent consumers, each with its own session.
+     * @param maxConcurrency       the maximum number of concurrent consumers, greater than concurrency to enable scaling.
+     * @param subscriptionName     the name of the topic subscription, required if shared.
+     * @param shared               true to consume the topic through a JMS 2.0 shared subscription.
+     */
+    public MessageListenerDefinition(String name, String connectionName, Session session, Destination destination, String selector, Class<? extends MessageListener> messageListenerClass, Class<? extends MessagePoller> poller, int concurrency, int maxConcurrency, String subscriptionName, boolean shared) {
+        this(name, connectionName, session, destination, selector, messageListenerClass, poller, concurrency, maxConcurrency, subscriptionName, shared, false);
+    }
+
+    /**
+     * Creates a JMS message listener definition based on a MessageListener implementing class.
+     * @param name                 the name of the message listener definition.
+     * @param connectionName  the connection name that this listener is attached to.
+     * @param session              the JMS session of the first consumer.
+     * @param destination          the JMS destination
+     * @param selector             the message selector
+     * @param messageListenerClass the class implementing MessageListener
+     * @param poller               an optional {@link MessagePoller} to retrieve messages via receive().
+     * @param concurrency          the minimum number of concurrent consumers, each with its own session.
+     * @param maxConcurrency       the maximum number of concurrent consumers, greater than concurrency to enable scaling.
+     * @param subscriptionName     the name of the topic subscription, required if shared or durable.
+     * @param shared               true to consume the topic through a JMS 2.0 shared subscription.
+     * @param durable              true to consume the topic through a durable subscription.
+     */
+    public MessageListenerDefinition(String name, String connectionName, Session session, Destination destination, String selector, Class<? extends MessageListener> messageListenerClass, Class<? extends MessagePoller> poller, int concurrency, int maxConcurrency, String subscriptionName, boolean shared, boolean durable) {
         this.name = name;
         this.connectionName = connectionName;
         this.session = session;
@@ -42,6 +100,11 @@ public class MessageListenerDefinition {
         this.selector = selector;
         this.messageListenerClass = messageListenerClass;
         this.poller = poller;
+        this.concurrency = concurrency;
+        this.maxConcurrency = Math.max(concurrency, maxConcurrency);
+        this.subscriptionName = subscriptionName;
+        this.shared = shared;
+        this.durable = durable;
     }
 
     public String getName() {
@@ -71,4 +134,24 @@ public class MessageListenerDefinition {
     public Class<? extends MessagePoller> getPoller() {
         return poller;
     }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public String getSubscriptionName() {
+        return subscriptionName;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    public boolean isDurable() {
+        return durable;
+    }
 }
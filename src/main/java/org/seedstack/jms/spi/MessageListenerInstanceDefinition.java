@@ -29,7 +29,24 @@ public class MessageListenerInstanceDefinition extends MessageListenerDefinition
      * @param poller          an optional {@link MessagePoller} to retrieve messages via receive().
      */
     public MessageListenerInstanceDefinition(String name, String connectionName, Session session, Destination destination, String selector, MessageListener messageListener, Class<? extends MessagePoller> poller) {
-        super(name, connectionName, session, destination, selector, messageListener.getClass(), poller);
+        this(name, connectionName, session, destination, selector, messageListener, poller, 1, 1);
+    }
+
+    /**
+     * Creates a JMS message listener definition based on a MessageListener instance shared by concurrent consumers.
+     *
+     * @param name            the listener name
+     * @param connectionName  the connection name that this listener is attached to.
+     * @param session         the JMS session of the first consumer.
+     * @param destination     the JMS destination
+     * @param selector        the message selector
+     * @param messageListener the MessageListener instance
+     * @param poller          an optional {@link MessagePoller} to retrieve messages via receive().
+     * @param concurrency     the minimum number of concurrent consumers, each with its own session.
+     * @param maxConcurrency  the maximum number of concurrent consumers, greater than concurrency to enable scaling.
+     */
+    public MessageListenerInstanceDefinition(String name, String connectionName, Session session, Destination destination, String selector, MessageListener messageListener, Class<? extends MessagePoller> poller, int concurrency, int maxConcurrency) {
+        super(name, connectionName, session, destination, selector, messageListener.getClass(), poller, concurrency, maxConcurrency);
         this.messageListener = messageListener;
     }
 
@@ -8,10 +8,14 @@
 package org.seedstack.jms.spi;
 
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
 import javax.jms.ExceptionListener;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
 import javax.jms.Session;
+import org.seedstack.jms.JmsConfig;
 
 /**
  * Interface for message pollers.
@@ -25,6 +29,60 @@ public interface MessagePoller {
 
     void setMessageListener(MessageListener messageListener);
 
+    /**
+     * Provides the configuration of the message listener this poller is polling for. Pollers without tunable
+     * parameters can ignore it.
+     *
+     * @param listenerConfig the message listener configuration.
+     */
+    default void setListenerConfig(JmsConfig.ListenerConfig listenerConfig) {
+        // no configuration by default
+    }
+
+    /**
+     * Provides the factory of the threads running the polling loop, for instance a virtual thread factory. Pollers not
+     * owning their threads can ignore it.
+     *
+     * @param threadFactory the thread factory.
+     */
+    default void setThreadFactory(ThreadFactory threadFactory) {
+        // own threads by default
+    }
+
+    /**
+     * Provides the factories of the threads run besides the polling loop, by purpose (for instance {@code "dispatcher"}
+     * or {@code "worker"}), so they are named after their purpose like the other threads of the add-on and are virtual
+     * when the polling loop is. Pollers without such threads can ignore it.
+     *
+     * @param threadFactories the function returning the thread factory of a purpose.
+     */
+    default void setThreadFactories(Function<String, ThreadFactory> threadFactories) {
+        // own threads by default
+    }
+
+    /**
+     * Provides the scheduler shared by the timed tasks of the add-on, for instance to restart polling after a failure.
+     * Pollers without timed tasks can ignore it.
+     *
+     * @param scheduler the scheduler.
+     */
+    default void setScheduler(ScheduledExecutorService scheduler) {
+        // no timed task by default
+    }
+
+    /**
+     * Tells whether this poller ends the transaction of each message it processes by itself, i.e. commits the session
+     * after the message listener returns and rollbacks it when the listener throws (or acknowledges and recovers the
+     * session when it is not transacted). The transaction handler of the listener then leaves the session of the
+     * poller alone. Otherwise, which is the default, the transaction handler commits the session when the listener
+     * returns.
+     *
+     * @return true if this poller commits the session itself, false otherwise.
+     */
+    default boolean isTransactionOwner() {
+        return false;
+    }
+
     void start();
 
     void stop();
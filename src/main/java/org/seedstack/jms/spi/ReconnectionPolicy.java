@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.spi;
+
+/**
+ * Decides when a managed connection attempts to reconnect after a failure and when its circuit breaker opens. While
+ * the circuit breaker is open, the connection fails fast with a {@link org.seedstack.jms.JMSCircuitOpenException}
+ * instead of letting callers wait for the reconnection attempts. It closes again as soon as an attempt succeeds.
+ *
+ * <p>The same policy can be used by several connections concurrently, so implementations must be thread-safe.</p>
+ */
+public interface ReconnectionPolicy {
+    /**
+     * Returns the delay before a reconnection attempt.
+     *
+     * @param attempt the number of the attempt since the connection failed, starting at 1.
+     * @return the delay in milliseconds.
+     */
+    long getDelay(int attempt);
+
+    /**
+     * Checks if the circuit breaker of the connection opens after consecutive failed reconnection attempts.
+     *
+     * @param failedAttempts the number of failed attempts since the connection failed.
+     * @return true if callers must fail fast until the next successful attempt, false otherwise.
+     */
+    default boolean isCircuitOpen(int failedAttempts) {
+        return false;
+    }
+}
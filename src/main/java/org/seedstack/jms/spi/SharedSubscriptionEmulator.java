@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.spi;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.jms.Topic;
+
+/**
+ * Emulates the shared topic subscriptions of JMS 2.0 with a JMS 1.1 provider, usually with a provider-specific feature
+ * mapping a subscription to a queue. The consumers of a shared subscription then consume the destination returned by
+ * the emulator, so each message of the topic is processed by only one of them.
+ */
+public interface SharedSubscriptionEmulator {
+    /**
+     * Returns the destination to consume to receive the messages of a shared subscription.
+     *
+     * @param session          the session of the consumer.
+     * @param topic            the subscribed topic.
+     * @param subscriptionName the name of the shared subscription.
+     * @return the destination of the subscription.
+     * @throws JMSException if the destination cannot be created.
+     */
+    Destination getSubscriptionDestination(Session session, Topic topic, String subscriptionName) throws JMSException;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.subscriptions;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import javax.jms.Topic;
+import org.seedstack.jms.spi.SharedSubscriptionEmulator;
+
+/**
+ * {@link SharedSubscriptionEmulator} using the virtual topics of ActiveMQ. The messages of a virtual topic, named
+ * {@code VirtualTopic.<name>} by default, are copied by the broker to each queue named
+ * {@code Consumer.<subscription>.VirtualTopic.<name>}, whose consumers share the messages. Override
+ * {@link #getQueueName(String, String)} if the broker uses other naming conventions.
+ */
+public class VirtualTopicEmulator implements SharedSubscriptionEmulator {
+    private static final String CONSUMER_PREFIX = "Consumer.";
+
+    @Override
+    public Destination getSubscriptionDestination(Session session, Topic topic,
+            String subscriptionName) throws JMSException {
+        return session.createQueue(getQueueName(topic.getTopicName(), subscriptionName));
+    }
+
+    /**
+     * Returns the name of the queue receiving the messages of a virtual topic for a subscription.
+     *
+     * @param topicName        the name of the virtual topic.
+     * @param subscriptionName the name of the subscription.
+     * @return the name of the queue.
+     */
+    protected String getQueueName(String topicName, String subscriptionName) {
+        return CONSUMER_PREFIX + subscriptionName + "." + topicName;
+    }
+}
@@ -0,0 +1,11 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+/**
+ * Provides {@link org.seedstack.jms.spi.SharedSubscriptionEmulator} implementations.
+ */
+package org.seedstack.jms.subscriptions;
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jms.Connection;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+
+@RunWith(SeedITRunner.class)
+public class JmsBatchIT {
+    public static List<String> processed = new CopyOnWriteArrayList<>();
+    public static CountDownLatch count = new CountDownLatch(4);
+
+    @Inject
+    @Named("connection1")
+    private Connection connection;
+
+    @Test
+    public void poison_message_does_not_prevent_batch_processing() throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            MessageProducer producer = session.createProducer(session.createQueue("queue6"));
+            for (int i = 0; i < 4; i++) {
+                producer.send(session.createTextMessage("BATCH" + i));
+            }
+            producer.send(session.createTextMessage("POISON"));
+        } finally {
+            session.close();
+        }
+
+        assertThat(count.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).containsExactly("BATCH0", "BATCH1", "BATCH2", "BATCH3");
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jms.Connection;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+
+@RunWith(SeedITRunner.class)
+public class JmsConcurrencyIT {
+    public static CyclicBarrier barrier = new CyclicBarrier(3);
+    public static CountDownLatch count = new CountDownLatch(3);
+
+    @Inject
+    @Named("connection1")
+    private Connection connection;
+
+    /**
+     * TestMessageListener5 declares a concurrency of 2 which is overridden to 3 by configuration.
+     */
+    @Test
+    public void messages_are_processed_concurrently() throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            MessageProducer producer = session.createProducer(session.createQueue("queue5"));
+            for (int i = 0; i < 3; i++) {
+                producer.send(session.createTextMessage("CONCURRENT" + i));
+            }
+        } finally {
+            session.close();
+        }
+
+        assertThat(count.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.jms.spi.DestinationResolver;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+
+@RunWith(SeedITRunner.class)
+public class JmsDurableSubscriptionIT {
+    public static List<String> received = new CopyOnWriteArrayList<>();
+
+    @Inject
+    @Named("connection1")
+    private JmsSender jmsSender;
+
+    @Inject
+    @Named("connection1")
+    private DestinationResolver destinationResolver;
+
+    @Inject
+    @Named("connection1")
+    private Connection connection1;
+
+    @Inject
+    @Named("connection3")
+    private Connection connection3;
+
+    @Test
+    public void durable_subscription_receives_messages_sent_during_reconnection() throws Exception {
+        Destination topic;
+        Session session = connection1.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            topic = destinationResolver.resolve(session, DestinationType.TOPIC, "durableTopic");
+        } finally {
+            session.close();
+        }
+
+        jmsSender.sendBatch(topic, Collections.singletonList("DURABLE1"));
+        awaitReceived("DURABLE1");
+
+        // The subscriber is offline until the connection is refreshed
+        connection3.close();
+        ((ExceptionListener) connection3).onException(new JMSException("Connection is down"));
+        jmsSender.sendBatch(topic, Collections.singletonList("DURABLE2"));
+
+        awaitReceived("DURABLE2");
+        assertThat(received).containsExactly("DURABLE1", "DURABLE2");
+    }
+
+    private void awaitReceived(String text) throws InterruptedException {
+        for (int i = 0; i < 100 && !received.contains(text); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(received).contains(text);
+    }
+}
@@ -10,9 +10,12 @@ package org.seedstack.jms;
 import static org.junit.Assert.fail;
 
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
 import javax.jms.JMSException;
+import javax.jms.Session;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -26,8 +29,14 @@ public class JmsPollingIT {
     @Inject
     TestSender4 testSender4;
 
+    @Inject
+    @Named("connection1")
+    Connection connection;
+
     public static CountDownLatch count = new CountDownLatch(1);
     public static String text = null;
+    public static CountDownLatch sharedCount = new CountDownLatch(1);
+    public static String sharedText = null;
 
     /**
      * TestSender4 and TestMessageListener4.
@@ -44,4 +53,20 @@ public class JmsPollingIT {
             fail("Thread interrupted");
         }
     }
+
+    /**
+     * TestMessageListener6 polled by the shared poller scheduler.
+     */
+    @Test
+    public void shared_message_polling_is_working() throws Exception {
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            session.createProducer(session.createQueue("queue7")).send(session.createTextMessage("SHARED"));
+        } finally {
+            session.close();
+        }
+
+        Assertions.assertThat(sharedCount.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(sharedText).isEqualTo("SHARED");
+    }
 }
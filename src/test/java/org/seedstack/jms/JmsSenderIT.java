@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jms.Destination;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.jms.spi.DestinationResolver;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+
+@RunWith(SeedITRunner.class)
+public class JmsSenderIT {
+    public static List<String> received = new CopyOnWriteArrayList<>();
+    public static CountDownLatch count = new CountDownLatch(6);
+
+    @Inject
+    @Named("connection1")
+    private JmsSender jmsSender;
+
+    @Inject
+    @Named("connection1")
+    private DestinationResolver destinationResolver;
+
+    @Inject
+    @Named("connection1")
+    private javax.jms.Connection connection;
+
+    @Test
+    public void batches_are_sent_and_received() throws Exception {
+        Destination queue;
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            queue = destinationResolver.resolve(session, DestinationType.QUEUE, "queue8");
+        } finally {
+            session.close();
+        }
+
+        jmsSender.sendBatch(queue, Arrays.asList("SYNC0", "SYNC1", "SYNC2"));
+        jmsSender.sendBatchAsync(queue, Arrays.asList("ASYNC0", "ASYNC1", "ASYNC2"))
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(count.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactly("SYNC0", "SYNC1", "SYNC2", "ASYNC0", "ASYNC1", "ASYNC2");
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.jms.Destination;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.jms.spi.DestinationResolver;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+
+@RunWith(SeedITRunner.class)
+public class JmsSharedSubscriptionIT {
+    private static final int MESSAGE_COUNT = 10;
+    public static List<String> received = new CopyOnWriteArrayList<>();
+    public static CountDownLatch count = new CountDownLatch(MESSAGE_COUNT);
+    public static List<String> stripedReceived = new CopyOnWriteArrayList<>();
+    public static CountDownLatch stripedCount = new CountDownLatch(MESSAGE_COUNT);
+
+    @Inject
+    @Named("connection1")
+    private JmsSender jmsSender;
+
+    @Inject
+    @Named("connection1")
+    private DestinationResolver destinationResolver;
+
+    @Inject
+    @Named("connection1")
+    private javax.jms.Connection connection;
+
+    @Inject
+    @Named("connection2")
+    private JmsSender stripedJmsSender;
+
+    @Inject
+    @Named("connection2")
+    private DestinationResolver stripedDestinationResolver;
+
+    @Inject
+    @Named("connection2")
+    private javax.jms.Connection stripedConnection;
+
+    @Test
+    public void shared_subscription_consumers_split_topic_messages() throws Exception {
+        Destination topic;
+        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            topic = destinationResolver.resolve(session, DestinationType.TOPIC, "VirtualTopic.shared");
+        } finally {
+            session.close();
+        }
+
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            messages.add("SHARED" + i);
+        }
+        jmsSender.sendBatch(topic, messages);
+
+        assertThat(count.await(10, TimeUnit.SECONDS)).isTrue();
+        // Give a duplicate delivery the time to happen
+        Thread.sleep(200);
+        assertThat(received).containsExactlyInAnyOrderElementsOf(messages);
+    }
+
+    @Test
+    public void shared_subscription_consumers_of_a_striped_connection_receive_each_message_once() throws Exception {
+        Destination topic;
+        Session session = stripedConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            topic = stripedDestinationResolver.resolve(session, DestinationType.TOPIC, "VirtualTopic.striped");
+        } finally {
+            session.close();
+        }
+
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            messages.add("STRIPED" + i);
+        }
+        stripedJmsSender.sendBatch(topic, messages);
+
+        assertThat(stripedCount.await(10, TimeUnit.SECONDS)).isTrue();
+        // Give a duplicate delivery the time to happen
+        Thread.sleep(200);
+        assertThat(stripedReceived).containsExactlyInAnyOrderElementsOf(messages);
+    }
+}
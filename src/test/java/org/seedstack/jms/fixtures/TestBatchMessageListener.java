@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.fixtures;
+
+import java.util.List;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+import org.seedstack.jms.BatchMessageListener;
+import org.seedstack.jms.JmsBatchIT;
+import org.seedstack.jms.JmsMessageListener;
+
+@JmsMessageListener(connection = "connection1", destinationName = "queue6")
+public class TestBatchMessageListener implements BatchMessageListener {
+    @Override
+    public void onMessages(List<Message> messages) {
+        try {
+            for (Message message : messages) {
+                if ("POISON".equals(((TextMessage) message).getText())) {
+                    throw new IllegalStateException("Poison message received");
+                }
+            }
+            for (Message message : messages) {
+                JmsBatchIT.processed.add(((TextMessage) message).getText());
+                JmsBatchIT.count.countDown();
+            }
+        } catch (JMSException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
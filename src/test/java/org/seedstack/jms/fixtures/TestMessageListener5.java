@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.fixtures;
+
+import java.util.concurrent.TimeUnit;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import org.seedstack.jms.JmsConcurrencyIT;
+import org.seedstack.jms.JmsMessageListener;
+import org.seedstack.seed.transaction.Transactional;
+
+@JmsMessageListener(connection = "connection1", destinationName = "queue5", concurrency = 2)
+public class TestMessageListener5 implements MessageListener {
+    @Override
+    @Transactional
+    public void onMessage(Message message) {
+        try {
+            // Only succeeds if all the configured consumers process a message at the same time
+            JmsConcurrencyIT.barrier.await(5, TimeUnit.SECONDS);
+            JmsConcurrencyIT.count.countDown();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
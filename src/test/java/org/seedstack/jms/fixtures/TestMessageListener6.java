@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.fixtures;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+import org.seedstack.jms.JmsMessageListener;
+import org.seedstack.jms.JmsPollingIT;
+import org.seedstack.jms.pollers.SharedMessagePoller;
+import org.seedstack.seed.transaction.Transactional;
+
+@JmsMessageListener(connection = "connection1", destinationName = "queue7", poller = SharedMessagePoller.class)
+public class TestMessageListener6 implements MessageListener {
+    @Override
+    @Transactional
+    public void onMessage(Message message) {
+        try {
+            JmsPollingIT.sharedText = ((TextMessage) message).getText();
+        } catch (JMSException e) {
+            throw new RuntimeException(e);
+        } finally {
+            JmsPollingIT.sharedCount.countDown();
+        }
+    }
+}
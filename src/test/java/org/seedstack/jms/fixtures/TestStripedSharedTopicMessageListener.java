@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.fixtures;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.TextMessage;
+import org.seedstack.jms.DestinationType;
+import org.seedstack.jms.JmsMessageListener;
+import org.seedstack.jms.JmsSharedSubscriptionIT;
+
+@JmsMessageListener(connection = "connection2", destinationType = DestinationType.TOPIC,
+        destinationName = "VirtualTopic.striped", subscriptionName = "striped", shared = true, concurrency = 2)
+public class TestStripedSharedTopicMessageListener implements MessageListener {
+    @Override
+    public void onMessage(Message message) {
+        try {
+            JmsSharedSubscriptionIT.stripedReceived.add(((TextMessage) message).getText());
+        } catch (JMSException e) {
+            throw new RuntimeException(e);
+        } finally {
+            JmsSharedSubscriptionIT.stripedCount.countDown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import com.google.common.collect.ImmutableMap;
+import javax.jms.InvalidDestinationException;
+import javax.jms.JMSException;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
+import javax.naming.Context;
+import javax.naming.NamingException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.DestinationType;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DestinationResolverImplTest {
+    private DestinationResolverImpl underTest;
+    @Mock
+    private ManagedConnection connection;
+    @Mock
+    private Session session;
+    @Mock
+    private Context context;
+
+    @Before
+    public void setUp() {
+        underTest = new DestinationResolverImpl("connection",
+                connection,
+                ImmutableMap.of("administered", new JmsConfig.DestinationConfig().setJndiName("jms/queue")),
+                ImmutableMap.of("default", context));
+    }
+
+    @Test
+    public void dynamic_destinations_are_cached() throws JMSException {
+        Queue queue = Mockito.mock(Queue.class);
+        Mockito.when(session.createQueue("queue1")).thenReturn(queue);
+
+        assertThat(underTest.resolve(session, DestinationType.QUEUE, "queue1")).isSameAs(queue);
+        assertThat(underTest.resolve(session, DestinationType.QUEUE, "queue1")).isSameAs(queue);
+        Mockito.verify(session, Mockito.times(1)).createQueue("queue1");
+    }
+
+    @Test
+    public void configured_destinations_are_looked_up_in_jndi() throws Exception {
+        Queue queue = Mockito.mock(Queue.class);
+        Mockito.when(context.lookup("jms/queue")).thenReturn(queue);
+
+        assertThat(underTest.resolve(session, DestinationType.QUEUE, "administered")).isSameAs(queue);
+        assertThat(underTest.resolve(session, DestinationType.QUEUE, "administered")).isSameAs(queue);
+        Mockito.verify(context, Mockito.times(1)).lookup("jms/queue");
+        Mockito.verify(session, Mockito.never()).createQueue("administered");
+    }
+
+    @Test
+    public void cache_is_invalidated_after_a_reconnection() throws JMSException {
+        Topic topic1 = Mockito.mock(Topic.class);
+        Topic topic2 = Mockito.mock(Topic.class);
+        Mockito.when(session.createTopic("topic1")).thenReturn(topic1, topic2);
+
+        assertThat(underTest.resolve(session, DestinationType.TOPIC, "topic1")).isSameAs(topic1);
+        Mockito.when(connection.getGeneration()).thenReturn(1);
+        assertThat(underTest.resolve(session, DestinationType.TOPIC, "topic1")).isSameAs(topic2);
+        assertThat(underTest.resolve(session, DestinationType.TOPIC, "topic1")).isSameAs(topic2);
+    }
+
+    @Test
+    public void jndi_errors_are_reported_as_invalid_destinations() throws Exception {
+        Mockito.when(context.lookup("jms/queue")).thenThrow(new NamingException("not bound"));
+        try {
+            underTest.resolve(session, DestinationType.QUEUE, "administered");
+            fail("should have failed");
+        } catch (InvalidDestinationException e) {
+            assertThat(e.getLinkedException()).isInstanceOf(NamingException.class);
+        }
+    }
+}
@@ -16,7 +16,8 @@ import java.util.HashMap;
 
 public class FakeConnectionFactoryImpl extends JmsFactoryImpl {
     public FakeConnectionFactoryImpl() {
-        super("test", new JmsConfig(), new HashMap<>());
+        // Only raw connections are requested from this factory, which need no thread
+        super("test", new JmsConfig(), new HashMap<>(), null);
     }
 
     @Override
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.ResourceAllocationException;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.JmsSender;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JmsAsyncSenderImplTest {
+    private static final JmsThreads THREADS = new JmsThreads(1);
+    private JmsAsyncSenderImpl underTest;
+    @Mock
+    private JmsSender jmsSender;
+    @Mock
+    private Destination destination1;
+    @Mock
+    private Destination destination2;
+
+    @After
+    public void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void lingering_messages_are_sent_by_batches_per_destination() throws Exception {
+        underTest = new JmsAsyncSenderImpl("connection", jmsSender, new JmsConfig.AsyncSendConfig()
+                .setLinger(500)
+                .setBatchSize(4), THREADS.newThreadFactory("async-sender", true));
+
+        CompletableFuture<Void> first = underTest.send(destination1, "1").toCompletableFuture();
+        underTest.send(destination2, "2");
+        underTest.send(destination1, "3");
+        CompletableFuture<Void> last = underTest.send(destination2, "4").toCompletableFuture();
+
+        CompletableFuture.allOf(first, last).get(5, TimeUnit.SECONDS);
+        Mockito.verify(jmsSender).sendBatch(destination1, Arrays.asList("1", "3"));
+        Mockito.verify(jmsSender).sendBatch(destination2, Arrays.asList("2", "4"));
+        assertThat(underTest.getStatistics().get(destination1).getSentMessages()).isEqualTo(2);
+        assertThat(underTest.getStatistics().get(destination1).getSentBatches()).isEqualTo(1);
+    }
+
+    @Test
+    public void failed_batches_complete_exceptionally() throws Exception {
+        underTest = new JmsAsyncSenderImpl("connection", jmsSender, new JmsConfig.AsyncSendConfig().setLinger(0),
+                THREADS.newThreadFactory("async-sender", true));
+        Mockito.doThrow(new JMSException("broken")).when(jmsSender).sendBatch(eq(destination1), anyCollection());
+
+        CompletableFuture<Void> result = underTest.send(destination1, "1").toCompletableFuture();
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("should have failed");
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(JMSException.class);
+        }
+        assertThat(underTest.getStatistics().get(destination1).getFailedMessages()).isEqualTo(1);
+    }
+
+    @Test
+    public void full_buffer_fails_fast() throws Exception {
+        underTest = new JmsAsyncSenderImpl("connection", jmsSender, new JmsConfig.AsyncSendConfig()
+                .setLinger(0)
+                .setBufferCapacity(1)
+                .setBlockWhenFull(false), THREADS.newThreadFactory("async-sender", true));
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(jmsSender).sendBatch(any(Destination.class), eq(Collections.singletonList("1")));
+
+        underTest.send(destination1, "1");
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        underTest.send(destination1, "2");
+        try {
+            underTest.send(destination1, "3");
+            fail("should have failed");
+        } catch (ResourceAllocationException e) {
+            assertThat(underTest.getBufferedMessages()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import javax.jms.Connection;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Queue;
+import javax.jms.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.pollers.SimpleMessagePoller;
+import org.seedstack.jms.spi.MessageListenerDefinition;
+import org.seedstack.jms.spi.MessagePoller;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JmsListenerTransactionHandlerTest {
+    private final JmsThreads threads = new JmsThreads(1);
+    private final JmsSessionLink listenerSessionLink = new JmsSessionLink();
+    @Mock
+    private Connection connection;
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer messageConsumer;
+    @Mock
+    private Queue queue;
+
+    @Before
+    public void setUp() throws JMSException {
+        Mockito.when(session.createConsumer(queue)).thenReturn(messageConsumer);
+        listenerSessionLink.push(session);
+    }
+
+    @After
+    public void tearDown() {
+        listenerSessionLink.pop();
+        threads.shutdown();
+    }
+
+    @Test
+    public void the_session_of_a_custom_poller_is_committed() throws JMSException {
+        createHandler(CustomPoller.class).doCommitTransaction(session);
+        Mockito.verify(session).commit();
+    }
+
+    @Test
+    public void the_session_of_a_transaction_owner_is_left_to_the_poller() throws JMSException {
+        createHandler(SimpleMessagePoller.class).doCommitTransaction(session);
+        Mockito.verify(session, Mockito.never()).commit();
+    }
+
+    @Test
+    public void the_session_of_a_custom_poller_is_rollbacked() throws JMSException {
+        createHandler(CustomPoller.class).doRollbackTransaction(session);
+        Mockito.verify(session).rollback();
+    }
+
+    @Test
+    public void the_rollback_of_a_transaction_owner_is_left_to_the_poller() throws JMSException {
+        createHandler(SimpleMessagePoller.class).doRollbackTransaction(session);
+        Mockito.verify(session, Mockito.never()).rollback();
+    }
+
+    private JmsListenerTransactionHandler createHandler(Class<? extends MessagePoller> pollerClass)
+            throws JMSException {
+        MessageListenerContainer messageListenerContainer = new MessageListenerContainer(
+                new MessageListenerDefinition("listener",
+                        "connection",
+                        session,
+                        queue,
+                        null,
+                        null,
+                        pollerClass),
+                connection,
+                listenerSessionLink,
+                new JmsConfig.ListenerConfig(),
+                threads);
+        messageListenerContainer.initialize();
+        return new JmsListenerTransactionHandler(listenerSessionLink, messageListenerContainer);
+    }
+
+    public static class CustomPoller implements MessagePoller {
+        @Override
+        public void setSession(Session session) {
+        }
+
+        @Override
+        public void setMessageConsumer(MessageConsumer messageConsumer) {
+        }
+
+        @Override
+        public void setExceptionListener(ExceptionListener exceptionListener) {
+        }
+
+        @Override
+        public void setMessageListener(MessageListener messageListener) {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JmsSenderImplTest {
+    private JmsSenderImpl underTest;
+    @Mock
+    private JmsSessionPool sessionPool;
+    @Mock
+    private Session session;
+    @Mock
+    private MessageProducer producer;
+    @Mock
+    private Destination destination;
+
+    @Before
+    public void setUp() throws JMSException {
+        underTest = new JmsSenderImpl("connection", sessionPool, Runnable::run);
+        Mockito.when(sessionPool.borrow()).thenReturn(session);
+        Mockito.when(session.createProducer(destination)).thenReturn(producer);
+        Mockito.when(session.createTextMessage(Mockito.anyString())).thenReturn(Mockito.mock(TextMessage.class));
+    }
+
+    @Test
+    public void batch_is_committed_once() throws JMSException {
+        underTest.sendBatch(destination, Arrays.asList("1", "2", "3"));
+
+        Mockito.verify(producer, Mockito.times(3)).send(any(TextMessage.class));
+        Mockito.verify(session, Mockito.times(1)).commit();
+        Mockito.verify(sessionPool).release(session);
+    }
+
+    @Test
+    public void failed_batch_is_rollbacked() throws JMSException {
+        Mockito.doNothing().doThrow(new JMSException("broken")).when(producer).send(any(TextMessage.class));
+
+        CompletableFuture<Void> result = underTest.sendBatchAsync(destination, Arrays.asList("1", "2", "3"))
+                .toCompletableFuture();
+
+        assertThat(result).isCompletedExceptionally();
+        Mockito.verify(session, Mockito.never()).commit();
+        Mockito.verify(session).rollback();
+        Mockito.verify(sessionPool).release(session);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicReference;
+import javax.jms.Session;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class JmsSessionLinkTest {
+    private final JmsSessionLink underTest = new JmsSessionLink();
+
+    @Test
+    public void sessions_are_stacked_per_thread() throws InterruptedException {
+        Session session1 = Mockito.mock(Session.class);
+        Session session2 = Mockito.mock(Session.class);
+        assertThat(underTest.getCurrentTransaction()).isNull();
+        underTest.push(session1);
+        underTest.push(session2);
+
+        AtomicReference<Session> otherThreadSession = new AtomicReference<>(session1);
+        Thread otherThread = new Thread(() -> otherThreadSession.set(underTest.getCurrentTransaction()));
+        otherThread.start();
+        otherThread.join();
+        assertThat(otherThreadSession.get()).isNull();
+
+        assertThat(underTest.get()).isSameAs(session2);
+        assertThat(underTest.pop()).isSameAs(session2);
+        assertThat(underTest.pop()).isSameAs(session1);
+        assertThat(underTest.getCurrentTransaction()).isNull();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void get_fails_without_transaction() {
+        underTest.get();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JmsSessionPoolTest {
+    @Mock
+    private ManagedConnection connection;
+    @Mock
+    private Session session1;
+    @Mock
+    private Session session2;
+
+    @Before
+    public void setUp() throws JMSException {
+        Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(session1, session2);
+        Mockito.when(session1.getTransacted()).thenReturn(true);
+    }
+
+    @Test
+    public void released_sessions_are_reused() throws JMSException {
+        JmsSessionPool underTest = new JmsSessionPool(connection, 8, 60000);
+        Session session = underTest.borrow();
+        underTest.release(session);
+        assertThat(underTest.borrow()).isSameAs(session);
+        Mockito.verify(connection, Mockito.times(1)).createSession(true, Session.AUTO_ACKNOWLEDGE);
+        Mockito.verify(session, Mockito.never()).close();
+    }
+
+    @Test
+    public void sessions_beyond_max_idle_are_closed() throws JMSException {
+        JmsSessionPool underTest = new JmsSessionPool(connection, 1, 60000);
+        Session first = underTest.borrow();
+        Session second = underTest.borrow();
+        underTest.release(first);
+        underTest.release(second);
+        assertThat(underTest.getIdleCount()).isEqualTo(1);
+        Mockito.verify(first, Mockito.never()).close();
+        Mockito.verify(second).close();
+    }
+
+    @Test
+    public void idle_sessions_are_evicted() throws JMSException {
+        JmsSessionPool underTest = new JmsSessionPool(connection, 8, 0);
+        underTest.release(underTest.borrow());
+        underTest.evict();
+        assertThat(underTest.getIdleCount()).isEqualTo(0);
+        Mockito.verify(session1).close();
+        assertThat(underTest.borrow()).isSameAs(session2);
+    }
+
+    @Test
+    public void sessions_idle_during_a_reconnection_are_discarded() throws JMSException {
+        JmsSessionPool underTest = new JmsSessionPool(connection, 8, 60000);
+        underTest.release(underTest.borrow());
+        Mockito.when(connection.getGeneration()).thenReturn(1);
+        assertThat(underTest.borrow()).isSameAs(session2);
+        Mockito.verify(session1).close();
+    }
+
+    @Test
+    public void invalid_sessions_are_discarded() throws JMSException {
+        JmsSessionPool underTest = new JmsSessionPool(connection, 8, 60000);
+        underTest.release(underTest.borrow());
+        Mockito.when(session1.getTransacted()).thenThrow(new javax.jms.IllegalStateException("closed"));
+        assertThat(underTest.borrow()).isSameAs(session2);
+        Mockito.verify(session1).close();
+    }
+
+    @Test
+    public void sessions_which_created_consumers_browsers_or_temporary_destinations_are_not_pooled() throws JMSException {
+        ManagedSession managedSession = Mockito.mock(ManagedSession.class);
+        Mockito.when(managedSession.isReusable()).thenReturn(false);
+        JmsSessionPool underTest = new JmsSessionPool(connection, 8, 60000);
+
+        underTest.release(managedSession);
+
+        assertThat(underTest.getIdleCount()).isEqualTo(0);
+        Mockito.verify(managedSession).close();
+    }
+}
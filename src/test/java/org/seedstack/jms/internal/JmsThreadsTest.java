@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class JmsThreadsTest {
+    private final JmsThreads underTest = new JmsThreads(2);
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void threads_are_named_and_counted() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = underTest.newThreadFactory("poller", false).newThread(() -> awaitQuietly(release));
+        Thread second = underTest.newThreadFactory("poller", true).newThread(() -> awaitQuietly(release));
+        assertThat(first.getName()).isEqualTo("jms-poller-1");
+        assertThat(first.isDaemon()).isFalse();
+        assertThat(second.getName()).isEqualTo("jms-poller-2");
+        assertThat(second.isDaemon()).isTrue();
+
+        first.start();
+        second.start();
+        assertThat(underTest.getCreatedThreads()).isEqualTo(2);
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+        assertThat(underTest.getLiveThreads()).isZero();
+    }
+
+    @Test
+    public void scheduler_is_bounded() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            underTest.getScheduler().schedule(done::countDown, 10, TimeUnit.MILLISECONDS);
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(underTest.getSchedulerThreads()).isLessThanOrEqualTo(2);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JmsTransactionHandlerTest {
+    private final JmsSessionLink jmsSessionLink = new JmsSessionLink();
+    @Mock
+    private JmsSessionPool sessionPool;
+    @Mock
+    private Session session;
+    private JmsTransactionHandler underTest;
+
+    @Before
+    public void setUp() throws JMSException {
+        Mockito.when(sessionPool.borrow()).thenReturn(session);
+        underTest = new JmsTransactionHandler(jmsSessionLink, sessionPool);
+        underTest.doInitialize(null);
+    }
+
+    @Test
+    public void the_session_of_a_committed_transaction_is_released() {
+        underTest.doCommitTransaction(underTest.doCreateTransaction());
+        underTest.doCleanup();
+
+        Mockito.verify(sessionPool).release(session);
+        Mockito.verify(sessionPool, Mockito.never()).discard(session);
+    }
+
+    @Test
+    public void the_session_of_a_rollbacked_transaction_is_discarded() {
+        underTest.doRollbackTransaction(underTest.doCreateTransaction());
+        underTest.doCleanup();
+
+        Mockito.verify(sessionPool).discard(session);
+        Mockito.verify(sessionPool, Mockito.never()).release(session);
+    }
+
+    @Test
+    public void the_session_of_a_failed_commit_is_discarded() throws JMSException {
+        Mockito.doThrow(new JMSException("Failed")).when(session).commit();
+
+        try {
+            underTest.doCommitTransaction(underTest.doCreateTransaction());
+            fail("should have failed");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasCauseInstanceOf(JMSException.class);
+        }
+        underTest.doCleanup();
+
+        Mockito.verify(sessionPool).discard(session);
+        Mockito.verify(sessionPool, Mockito.never()).release(session);
+    }
+}
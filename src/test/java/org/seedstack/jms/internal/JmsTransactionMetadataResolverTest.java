@@ -9,6 +9,7 @@ package org.seedstack.jms.internal;
 
 import java.lang.reflect.Method;
 
+import java.util.List;
 import javax.jms.Message;
 import javax.jms.MessageListener;
 
@@ -16,6 +17,7 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.seedstack.jms.BatchMessageListener;
 import org.seedstack.jms.JmsConnection;
 import org.seedstack.seed.transaction.spi.TransactionMetadata;
 
@@ -44,6 +46,14 @@ public class JmsTransactionMetadataResolverTest {
 
     }
 
+    class MyBatchJmsListener implements BatchMessageListener {
+
+        @Override
+        public void onMessages(List<Message> messages) {
+        }
+
+    }
+
     @Test
     public void testResolveWithoutJmsClass() throws Exception {
         MethodInvocation inv = Mockito.mock(MethodInvocation.class);
@@ -67,6 +77,19 @@ public class JmsTransactionMetadataResolverTest {
 
     }
 
+    @Test
+    public void testResolveWithBatchJmsListenerOK() throws Exception {
+        MethodInvocation inv = Mockito.mock(MethodInvocation.class);
+        Method m = MyBatchJmsListener.class.getDeclaredMethod("onMessages", List.class);
+        Mockito.doReturn(m).when(inv).getMethod();
+        JmsTransactionMetadataResolver resolver = new JmsTransactionMetadataResolver();
+        TransactionMetadata transactionMetadata = resolver.resolve(inv, null);
+        Assertions.assertThat(transactionMetadata).isNotNull();
+
+        Assertions.assertThat(transactionMetadata.getHandler()).isEqualTo(JmsListenerTransactionHandler.class);
+        Assertions.assertThat(transactionMetadata.getResource()).isEqualTo(MyBatchJmsListener.class.getCanonicalName());
+    }
+
     @Test
     public void testResolveWithJmsListenerAndAnotherMethod() throws Exception {
         MethodInvocation inv = Mockito.mock(MethodInvocation.class);
@@ -120,4 +143,16 @@ public class JmsTransactionMetadataResolverTest {
         Assertions.assertThat(transactionMetadata.getResource()).isEqualTo(producerConnection);
     }
 
+    @Test
+    public void testResolveIsMemoizedPerMethod() throws Exception {
+        MethodInvocation inv = Mockito.mock(MethodInvocation.class);
+        Method m = MyJmsListener.class.getDeclaredMethod("onMessage", Message.class);
+        Mockito.doReturn(m).when(inv).getMethod();
+        JmsTransactionMetadataResolver resolver = Mockito.spy(new JmsTransactionMetadataResolver());
+
+        TransactionMetadata transactionMetadata = resolver.resolve(inv, null);
+        Assertions.assertThat(resolver.resolve(inv, null)).isSameAs(transactionMetadata);
+        Mockito.verify(resolver, Mockito.times(1)).resolveMetadata(m);
+    }
+
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.name.Names;
+import javax.inject.Singleton;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import org.junit.Test;
+
+public class ListenerProvidersTest {
+    private static final Key<MessageListener> SINGLETON = Key.get(MessageListener.class, Names.named("singleton"));
+    private static final Key<MessageListener> UNSCOPED = Key.get(MessageListener.class, Names.named("unscoped"));
+    private final Injector injector = Guice.createInjector(new AbstractModule() {
+        @Override
+        protected void configure() {
+            bind(MessageListener.class).annotatedWith(Names.named("singleton")).to(SingletonListener.class);
+            bind(MessageListener.class).annotatedWith(Names.named("unscoped")).to(UnscopedListener.class);
+        }
+    });
+
+    @Test
+    public void singleton_listeners_are_resolved_once() {
+        Provider<MessageListener> provider = ListenerProviders.resolve(injector, SINGLETON);
+        assertThat(provider.get()).isSameAs(injector.getInstance(SINGLETON));
+        assertThat(provider.get()).isSameAs(provider.get());
+    }
+
+    @Test
+    public void unscoped_listeners_are_provided_for_each_use() {
+        Provider<MessageListener> provider = ListenerProviders.resolve(injector, UNSCOPED);
+        assertThat(provider.get()).isInstanceOf(UnscopedListener.class);
+        assertThat(provider.get()).isNotSameAs(provider.get());
+    }
+
+    @Singleton
+    static class SingletonListener implements MessageListener {
+        @Override
+        public void onMessage(Message message) {
+            // nothing to do
+        }
+    }
+
+    static class UnscopedListener implements MessageListener {
+        @Override
+        public void onMessage(Message message) {
+            // nothing to do
+        }
+    }
+}
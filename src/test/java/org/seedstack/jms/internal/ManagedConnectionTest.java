@@ -11,25 +11,35 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.jms.Connection;
+import javax.jms.ConnectionConsumer;
 import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
 import javax.jms.ExceptionListener;
 import javax.jms.JMSException;
+import javax.jms.ServerSessionPool;
 import javax.jms.Session;
 import org.assertj.core.api.Assertions;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JMSCircuitOpenException;
+import org.seedstack.jms.JmsConfig;
 import org.seedstack.jms.Whitebox;
+import org.seedstack.jms.reconnection.ExponentialBackoffPolicy;
 import org.seedstack.jms.spi.ConnectionDefinition;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ManagedConnectionTest {
 
+    private final JmsThreads threads = new JmsThreads(1);
     private ManagedConnection underTest;
     @Mock
     private ConnectionFactory connectionFactory;
@@ -55,7 +65,17 @@ public class ManagedConnectionTest {
                 null);
         Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(Mockito.mock(Session.class));
         Mockito.when(jmsFactoryImpl.createRawConnection(connectionDefinition)).thenReturn(connection);
-        underTest = new ManagedConnection(connectionDefinition, jmsFactoryImpl);
+        underTest = new ManagedConnection(connectionDefinition,
+                jmsFactoryImpl,
+                JmsConfig.ConnectionConfig.ReconnectionMode.SERIAL,
+                1,
+                new ExponentialBackoffPolicy(100, 100, 1, 0, 0),
+                threads);
+    }
+
+    @After
+    public void tearDown() {
+        threads.shutdown();
     }
 
     @Test
@@ -113,4 +133,89 @@ public class ManagedConnectionTest {
         session.close();
         assertThat((Set<ManagedSession>) Whitebox.getInternalState(underTest, "sessions")).isEmpty();
     }
+
+    @Test
+    public void connection_consumers_are_refreshed_after_reconnection() throws Exception {
+        Destination destination = Mockito.mock(Destination.class);
+        ServerSessionPool serverSessionPool = Mockito.mock(ServerSessionPool.class);
+        ConnectionConsumer newConnectionConsumer = Mockito.mock(ConnectionConsumer.class);
+        Mockito.when(connection.createConnectionConsumer(destination, null, serverSessionPool, 1))
+                .thenReturn(Mockito.mock(ConnectionConsumer.class), newConnectionConsumer);
+        ConnectionConsumer connectionConsumer = underTest.createConnectionConsumer(destination,
+                null,
+                serverSessionPool,
+                1);
+
+        underTest.onException(new JMSException("Connection closed"));
+        assertThat((Object) Whitebox.getInternalState(connectionConsumer, "connectionConsumer")).isNull();
+
+        // wait for the timer to refresh the connection
+        Thread.sleep(300);
+        assertThat((Object) Whitebox.getInternalState(connectionConsumer, "connectionConsumer"))
+                .isSameAs(newConnectionConsumer);
+        assertThat(connectionConsumer.getServerSessionPool()).isSameAs(serverSessionPool);
+    }
+
+    @Test
+    public void sessions_are_refreshed_by_priority_before_the_connection_is_published() throws Exception {
+        ManagedConnection makeBeforeBreak = new ManagedConnection(
+                (ConnectionDefinition) (Object) Whitebox.getInternalState(underTest, "connectionDefinition"),
+                jmsFactoryImpl,
+                JmsConfig.ConnectionConfig.ReconnectionMode.MAKE_BEFORE_BREAK,
+                1,
+                new ExponentialBackoffPolicy(100, 100, 1, 0, 0),
+                threads);
+        makeBeforeBreak.start();
+        List<String> refreshes = new CopyOnWriteArrayList<>();
+        ManagedSession normalSession = mockSession("normal", 0, makeBeforeBreak, refreshes);
+        ManagedSession criticalSession = mockSession("critical", 10, makeBeforeBreak, refreshes);
+        Whitebox.setInternalState(makeBeforeBreak,
+                "sessions",
+                Sets.newConcurrentHashSet(Lists.newArrayList(normalSession, criticalSession)));
+
+        makeBeforeBreak.onException(new JMSException("Connection closed"));
+        assertThat((Object) Whitebox.getInternalState(makeBeforeBreak, "connection")).isNull();
+
+        // wait for the timer to refresh the connection
+        Thread.sleep(300);
+        assertThat((Object) Whitebox.getInternalState(makeBeforeBreak, "connection")).isSameAs(connection);
+        assertThat(refreshes).containsExactly("critical", "normal");
+        Mockito.verify(connection, Mockito.times(2)).start();
+    }
+
+    @Test
+    public void callers_fail_fast_while_the_circuit_is_open() throws Exception {
+        ManagedConnection circuitBreaking = new ManagedConnection(
+                (ConnectionDefinition) (Object) Whitebox.getInternalState(underTest, "connectionDefinition"),
+                jmsFactoryImpl,
+                JmsConfig.ConnectionConfig.ReconnectionMode.SERIAL,
+                1,
+                new ExponentialBackoffPolicy(50, 50, 1, 0, 2),
+                threads);
+        circuitBreaking.start();
+        Whitebox.setInternalState(circuitBreaking, "jmsFactoryImpl", new FakeConnectionFactoryImpl());
+
+        // Failure then two failed attempts
+        circuitBreaking.onException(new JMSException("Connection closed"));
+        Thread.sleep(200);
+        Assertions.assertThatThrownBy(() -> circuitBreaking.createSession(true, Session.AUTO_ACKNOWLEDGE))
+                .isInstanceOf(JMSCircuitOpenException.class);
+
+        // The connection is back
+        Whitebox.setInternalState(circuitBreaking, "jmsFactoryImpl", jmsFactoryImpl);
+        Thread.sleep(200);
+        assertThat(circuitBreaking.createSession(true, Session.AUTO_ACKNOWLEDGE)).isNotNull();
+    }
+
+    private ManagedSession mockSession(String name, int refreshPriority, ManagedConnection managedConnection,
+            List<String> refreshes) throws JMSException {
+        ManagedSession session = Mockito.mock(ManagedSession.class);
+        Mockito.when(session.getRefreshPriority()).thenReturn(refreshPriority);
+        Mockito.doAnswer(invocation -> {
+            // The new connection is not published while sessions are refreshed
+            refreshes.add(name + ((Object) Whitebox.getInternalState(managedConnection, "connection") == null ? "" : "!"));
+            return null;
+        }).when(session).refresh(connection);
+        return session;
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.jms.CompletionListener;
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.Whitebox;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ManagedMessageProducerTest {
+    @Mock
+    private MessageProducer messageProducer;
+    @Mock
+    private MessageProducer newMessageProducer;
+    @Mock
+    private Destination destination;
+    @Mock
+    private ManagedSession session;
+    @Mock
+    private Message message;
+    @Mock
+    private CompletionListener completionListener;
+
+    @Test
+    public void messageProducer_is_reset_then_refreshed_with_its_settings() throws JMSException {
+        ManagedMessageProducer underTest = new ManagedMessageProducer(messageProducer, destination);
+        when(session.createProducer(destination)).thenReturn(newMessageProducer);
+        underTest.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+
+        underTest.reset();
+        Assertions.assertThat((Object) Whitebox.getInternalState(underTest, "messageProducer")).isNull();
+
+        underTest.refresh(session);
+        Assertions.assertThat((Object) Whitebox.getInternalState(underTest, "messageProducer")).isSameAs(newMessageProducer);
+        verify(newMessageProducer).setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+    }
+
+    @Test
+    public void messageProducer_is_restored_instead_of_closed() throws JMSException {
+        ManagedMessageProducer underTest = new ManagedMessageProducer(messageProducer, destination);
+        underTest.setPriority(9);
+
+        underTest.close();
+
+        verify(messageProducer, never()).close();
+        verify(messageProducer).setPriority(Message.DEFAULT_PRIORITY);
+        Assertions.assertThat(underTest.getPriority()).isEqualTo(Message.DEFAULT_PRIORITY);
+    }
+
+    @Test
+    public void delivery_delay_is_reapplied_on_refresh() throws JMSException {
+        ManagedMessageProducer underTest = new ManagedMessageProducer(messageProducer, destination);
+        when(session.createProducer(destination)).thenReturn(newMessageProducer);
+        underTest.setDeliveryDelay(1000);
+
+        underTest.reset();
+        underTest.refresh(session);
+
+        verify(newMessageProducer).setDeliveryDelay(1000);
+        Assertions.assertThat(underTest.getDeliveryDelay()).isEqualTo(1000);
+    }
+
+    @Test
+    public void asynchronous_send_is_emulated_with_a_jms11_provider() throws JMSException {
+        ManagedMessageProducer underTest = new ManagedMessageProducer(messageProducer, destination);
+        doThrow(new AbstractMethodError()).when(messageProducer).send(message, completionListener);
+
+        underTest.send(message, completionListener);
+
+        verify(messageProducer).send(message);
+        verify(completionListener).onCompletion(message);
+    }
+}
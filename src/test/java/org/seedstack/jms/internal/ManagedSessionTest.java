@@ -12,10 +12,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.jms.Destination;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
 import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
 import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+import javax.jms.TopicSubscriber;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -105,4 +116,190 @@ public class ManagedSessionTest {
         consumer.close();
         assertThat((Set<ManagedMessageConsumer>) Whitebox.getInternalState(underTest, "messageConsumers")).isEmpty();
     }
+
+    @Test
+    public void session_use_waits_for_a_refresh_in_progress() throws Exception {
+        Session newSession = Mockito.mock(Session.class);
+        TextMessage textMessage = Mockito.mock(TextMessage.class);
+        Mockito.when(newSession.createTextMessage()).thenReturn(textMessage);
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenAnswer(invocation -> {
+            refreshing.countDown();
+            release.await();
+            return newSession;
+        });
+        underTest.reset();
+
+        Thread refreshThread = new Thread(() -> {
+            try {
+                underTest.refresh(connection);
+            } catch (JMSException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        refreshThread.start();
+        assertThat(refreshing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<TextMessage> created = new AtomicReference<>();
+        Thread userThread = new Thread(() -> {
+            try {
+                created.set(underTest.createTextMessage());
+            } catch (JMSException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        userThread.start();
+        Thread.sleep(100);
+        assertThat(userThread.isAlive()).isTrue();
+
+        release.countDown();
+        userThread.join(5000);
+        refreshThread.join(5000);
+        assertThat(created.get()).isSameAs(textMessage);
+    }
+
+    @Test
+    public void producers_are_cached_by_destination() throws Exception {
+        TemporaryQueue replyTo = Mockito.mock(TemporaryQueue.class);
+        Mockito.when(session.createProducer(Mockito.any())).thenAnswer(
+                invocation -> Mockito.mock(MessageProducer.class));
+
+        MessageProducer producer = underTest.createProducer(destination);
+        producer.close();
+        assertThat(underTest.createProducer(destination)).isSameAs(producer);
+        MessageProducer anonymousProducer = underTest.createProducer(null);
+        assertThat(underTest.createProducer(null)).isSameAs(anonymousProducer);
+        Mockito.verify(session, Mockito.times(1)).createProducer(destination);
+        Mockito.verify(session, Mockito.times(1)).createProducer(null);
+    }
+
+    @Test
+    public void temporary_destinations_are_sent_to_by_the_anonymous_producer() throws Exception {
+        TemporaryQueue replyTo = Mockito.mock(TemporaryQueue.class);
+        MessageProducer anonymousProducer = Mockito.mock(MessageProducer.class);
+        Mockito.when(session.createProducer(null)).thenReturn(anonymousProducer);
+        TextMessage message = Mockito.mock(TextMessage.class);
+
+        MessageProducer replyProducer = underTest.createProducer(replyTo);
+        replyProducer.setPriority(7);
+        replyProducer.send(message);
+        replyProducer.close();
+
+        assertThat(replyProducer.getDestination()).isSameAs(replyTo);
+        Mockito.verify(anonymousProducer).send(replyTo, message, Message.DEFAULT_DELIVERY_MODE, 7,
+                Message.DEFAULT_TIME_TO_LIVE);
+        Mockito.verify(anonymousProducer, Mockito.never()).close();
+        Mockito.verify(session, Mockito.never()).createProducer(replyTo);
+    }
+
+    @Test
+    public void destinations_beyond_the_producer_cache_are_sent_to_by_the_anonymous_producer() throws Exception {
+        Mockito.when(session.createProducer(Mockito.any())).thenAnswer(
+                invocation -> Mockito.mock(MessageProducer.class));
+        for (int i = 0; i < 64; i++) {
+            underTest.createProducer(Mockito.mock(Queue.class));
+        }
+        Queue queue = Mockito.mock(Queue.class);
+
+        MessageProducer producer = underTest.createProducer(queue);
+
+        assertThat(producer.getDestination()).isSameAs(queue);
+        Mockito.verify(session, Mockito.never()).createProducer(queue);
+        Mockito.verify(session).createProducer(null);
+    }
+
+    @Test
+    public void cached_producers_are_handed_out_with_default_settings() throws Exception {
+        MessageProducer messageProducer = Mockito.mock(MessageProducer.class);
+        Mockito.when(session.createProducer(destination)).thenReturn(messageProducer);
+
+        // The first caller doesn't close the producer
+        underTest.createProducer(destination).setPriority(9);
+        MessageProducer producer = underTest.createProducer(destination);
+
+        assertThat(producer.getPriority()).isEqualTo(Message.DEFAULT_PRIORITY);
+        Mockito.verify(messageProducer).setPriority(Message.DEFAULT_PRIORITY);
+    }
+
+    @Test
+    public void session_which_created_a_consumer_is_not_reusable() throws Exception {
+        assertThat(underTest.isReusable()).isTrue();
+        underTest.createConsumer(destination).close();
+        assertThat(underTest.isReusable()).isFalse();
+    }
+
+    @Test
+    public void session_which_created_a_browser_is_not_reusable() throws Exception {
+        Queue queue = Mockito.mock(Queue.class);
+        Mockito.when(session.createBrowser(queue, null)).thenReturn(Mockito.mock(QueueBrowser.class));
+        underTest.createBrowser(queue);
+        assertThat(underTest.isReusable()).isFalse();
+    }
+
+    @Test
+    public void session_which_created_a_temporary_destination_is_not_reusable() throws Exception {
+        Mockito.when(session.createTemporaryQueue()).thenReturn(Mockito.mock(TemporaryQueue.class));
+        underTest.createTemporaryQueue();
+        assertThat(underTest.isReusable()).isFalse();
+    }
+
+    @Test
+    public void cached_producers_are_refreshed() throws Exception {
+        Session newSession = Mockito.mock(Session.class);
+        MessageProducer newProducer = Mockito.mock(MessageProducer.class);
+        Mockito.when(session.createProducer(destination)).thenReturn(Mockito.mock(MessageProducer.class));
+        Mockito.when(newSession.createProducer(destination)).thenReturn(newProducer);
+        Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(newSession);
+        MessageProducer producer = underTest.createProducer(destination);
+
+        underTest.reset();
+        underTest.refresh(connection);
+
+        assertThat(underTest.createProducer(destination)).isSameAs(producer);
+        assertThat((Object) Whitebox.getInternalState(producer, "messageProducer")).isSameAs(newProducer);
+    }
+
+    @Test
+    public void shared_durable_consumers_are_refreshed() throws Exception {
+        Topic topic = Mockito.mock(Topic.class);
+        Session newSession = Mockito.mock(Session.class);
+        MessageConsumer newConsumer = Mockito.mock(MessageConsumer.class);
+        Mockito.when(session.createSharedDurableConsumer(topic, "subscription", null))
+                .thenReturn(Mockito.mock(MessageConsumer.class));
+        Mockito.when(newSession.createSharedDurableConsumer(topic, "subscription", null)).thenReturn(newConsumer);
+        Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(newSession);
+        MessageConsumer consumer = underTest.createSharedDurableConsumer(topic, "subscription");
+
+        underTest.reset();
+        underTest.refresh(connection);
+
+        assertThat((Object) Whitebox.getInternalState(consumer, "messageConsumer")).isSameAs(newConsumer);
+    }
+
+    @Test
+    public void durable_subscribers_and_browsers_are_refreshed() throws Exception {
+        Topic topic = Mockito.mock(Topic.class);
+        Queue queue = Mockito.mock(Queue.class);
+        Session newSession = Mockito.mock(Session.class);
+        TopicSubscriber newSubscriber = Mockito.mock(TopicSubscriber.class);
+        QueueBrowser newBrowser = Mockito.mock(QueueBrowser.class);
+        Mockito.when(session.createDurableSubscriber(topic, "subscription", null, false))
+                .thenReturn(Mockito.mock(TopicSubscriber.class));
+        Mockito.when(session.createBrowser(queue, null)).thenReturn(Mockito.mock(QueueBrowser.class));
+        Mockito.when(newSession.createDurableSubscriber(topic, "subscription", null, false))
+                .thenReturn(newSubscriber);
+        Mockito.when(newSession.createBrowser(queue)).thenReturn(newBrowser);
+        Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(newSession);
+        TopicSubscriber subscriber = underTest.createDurableSubscriber(topic, "subscription");
+        QueueBrowser browser = underTest.createBrowser(queue);
+
+        underTest.reset();
+        underTest.refresh(connection);
+
+        assertThat(subscriber.getTopic()).isSameAs(topic);
+        subscriber.receiveNoWait();
+        Mockito.verify(newSubscriber).receiveNoWait();
+        assertThat((Object) Whitebox.getInternalState(browser, "queueBrowser")).isSameAs(newBrowser);
+    }
 }
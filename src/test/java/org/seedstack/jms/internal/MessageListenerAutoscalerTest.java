@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.Queue;
+import javax.jms.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.spi.MessageListenerDefinition;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageListenerAutoscalerTest {
+    private MessageListenerAutoscaler underTest;
+    private MessageListenerStatistics statistics = new MessageListenerStatistics();
+    @Mock
+    private MessageListenerContainer container;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Session session;
+    @Mock
+    private Queue queue;
+
+    @Before
+    public void setUp() {
+        MessageListenerDefinition messageListenerDefinition = new MessageListenerDefinition("listener",
+                "connection",
+                session,
+                queue,
+                null,
+                null,
+                null,
+                1,
+                10);
+        Mockito.when(container.getMessageListenerDefinition()).thenReturn(messageListenerDefinition);
+        Mockito.when(container.getStatistics()).thenReturn(statistics);
+        underTest = new MessageListenerAutoscaler(container, connection, 1000, 10);
+    }
+
+    @Test
+    public void consumers_are_added_according_to_backlog_and_processing_time() {
+        // 10 messages processed in 100 ms each
+        for (int i = 0; i < 10; i++) {
+            statistics.recordMessages(1, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        // 50 messages at 100 ms each need 5 consumers to be drained in 1 s
+        assertThat(underTest.computeTarget(2, 50)).isEqualTo(5);
+    }
+
+    @Test
+    public void one_consumer_is_added_when_no_message_was_processed() {
+        assertThat(underTest.computeTarget(2, 50)).isEqualTo(3);
+    }
+
+    @Test
+    public void consumers_are_kept_while_backlog_is_low() {
+        assertThat(underTest.computeTarget(2, 5)).isEqualTo(2);
+    }
+
+    @Test
+    public void one_consumer_is_removed_when_idle() {
+        assertThat(underTest.computeTarget(2, 0)).isEqualTo(1);
+    }
+}
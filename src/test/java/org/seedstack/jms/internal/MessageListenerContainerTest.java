@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+import org.seedstack.jms.spi.MessageListenerDefinition;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageListenerContainerTest {
+    private final JmsThreads threads = new JmsThreads(1);
+    private MessageListenerContainer underTest;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Session session;
+    @Mock
+    private Session additionalSession;
+    @Mock
+    private MessageConsumer messageConsumer;
+    @Mock
+    private Queue queue;
+
+    @Before
+    public void setUp() throws JMSException {
+        Mockito.when(session.getTransacted()).thenReturn(true);
+        Mockito.when(session.getAcknowledgeMode()).thenReturn(Session.AUTO_ACKNOWLEDGE);
+        Mockito.when(session.createConsumer(queue)).thenReturn(messageConsumer);
+        Mockito.when(additionalSession.createConsumer(queue)).thenReturn(messageConsumer);
+        Mockito.when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(additionalSession);
+        underTest = new MessageListenerContainer(new MessageListenerDefinition("listener",
+                "connection",
+                session,
+                queue,
+                null,
+                null,
+                null,
+                2,
+                4), connection, new JmsSessionLink(), new JmsConfig.ListenerConfig(),
+                threads);
+    }
+
+    @After
+    public void tearDown() {
+        threads.shutdown();
+    }
+
+    @Test
+    public void consumers_are_created_according_to_concurrency() throws JMSException {
+        underTest.initialize();
+        assertThat(underTest.getConsumerCount()).isEqualTo(2);
+        Mockito.verify(connection, Mockito.times(1)).createSession(true, Session.AUTO_ACKNOWLEDGE);
+    }
+
+    @Test
+    public void consumers_are_resized_within_bounds() throws JMSException {
+        underTest.initialize();
+
+        underTest.resize(10);
+        assertThat(underTest.getConsumerCount()).isEqualTo(4);
+
+        underTest.resize(0);
+        assertThat(underTest.getConsumerCount()).isEqualTo(2);
+        Mockito.verify(additionalSession, Mockito.times(2)).close();
+        Mockito.verify(session, Mockito.never()).close();
+    }
+
+    @Test
+    public void shared_consumers_of_a_striped_connection_use_the_first_stripe() throws JMSException {
+        Topic topic = Mockito.mock(Topic.class);
+        ManagedConnection firstStripe = Mockito.mock(ManagedConnection.class);
+        ManagedConnection secondStripe = Mockito.mock(ManagedConnection.class);
+        Mockito.when(firstStripe.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(additionalSession);
+        Mockito.when(session.createSharedConsumer(topic, "subscription", null)).thenReturn(messageConsumer);
+        Mockito.when(additionalSession.createSharedConsumer(topic, "subscription", null)).thenReturn(messageConsumer);
+        MessageListenerContainer sharedContainer = new MessageListenerContainer(new MessageListenerDefinition(
+                "listener",
+                "connection",
+                session,
+                topic,
+                null,
+                null,
+                null,
+                3,
+                3,
+                "subscription",
+                true), new StripedConnection("connection",
+                Arrays.asList(firstStripe, secondStripe),
+                JmsConfig.ConnectionConfig.StripingStrategy.ROUND_ROBIN), new JmsSessionLink(),
+                new JmsConfig.ListenerConfig(), threads);
+
+        sharedContainer.initialize();
+        Mockito.verify(firstStripe, Mockito.times(2)).createSession(true, Session.AUTO_ACKNOWLEDGE);
+        Mockito.verifyZeroInteractions(secondStripe);
+    }
+}
@@ -11,7 +11,6 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
-import org.seedstack.seed.core.internal.transaction.TransactionalProxy;
 
 import javax.jms.*;
 import java.io.Serializable;
@@ -29,12 +28,14 @@ public class SeedJmsSessionTest {
 
     private Session session;
 
+    private JmsSessionLink sessionLink;
+
     @Before
     public void setUp() {
-        JmsSessionLink sessionLink = mock(JmsSessionLink.class);
+        sessionLink = mock(JmsSessionLink.class);
         session = mock(Session.class);
         when(sessionLink.get()).thenReturn(session);
-        underTest = TransactionalProxy.create(Session.class, sessionLink);
+        underTest = JmsSessionProxy.create(sessionLink);
     }
 
     @Test
@@ -376,4 +377,14 @@ public class SeedJmsSessionTest {
         assertThat(subscribeHashMap.get("name")).isFalse();
 
     }
+
+    @Test
+    public void testObjectMethodsAreHandledByTheProxy() {
+        Session other = JmsSessionProxy.create(sessionLink);
+        assertThat(underTest.equals(underTest)).isTrue();
+        assertThat(underTest.equals(other)).isFalse();
+        assertThat(underTest.hashCode()).isEqualTo(System.identityHashCode(underTest));
+        assertThat(underTest.toString()).startsWith("JmsSessionProxy@");
+        verifyZeroInteractions(sessionLink);
+    }
 }
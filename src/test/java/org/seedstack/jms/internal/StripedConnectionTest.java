@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Lists;
+import javax.jms.JMSException;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StripedConnectionTest {
+    @Mock
+    private ManagedConnection stripe1;
+    @Mock
+    private ManagedConnection stripe2;
+    @Mock
+    private Session session1;
+    @Mock
+    private Session session2;
+
+    @Test
+    public void sessions_are_created_in_turn_on_each_stripe() throws JMSException {
+        Mockito.when(stripe1.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(session1);
+        Mockito.when(stripe2.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(session2);
+        StripedConnection underTest = createStripedConnection(JmsConfig.ConnectionConfig.StripingStrategy.ROUND_ROBIN);
+
+        assertThat(underTest.createSession(true, Session.AUTO_ACKNOWLEDGE)).isSameAs(session1);
+        assertThat(underTest.createSession(true, Session.AUTO_ACKNOWLEDGE)).isSameAs(session2);
+        assertThat(underTest.createSession(true, Session.AUTO_ACKNOWLEDGE)).isSameAs(session1);
+    }
+
+    @Test
+    public void sessions_are_created_on_the_least_used_stripe() throws JMSException {
+        Mockito.when(stripe1.getSessionCount()).thenReturn(3);
+        Mockito.when(stripe2.getSessionCount()).thenReturn(1);
+        Mockito.when(stripe2.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(session2);
+        StripedConnection underTest = createStripedConnection(
+                JmsConfig.ConnectionConfig.StripingStrategy.LEAST_SESSIONS);
+
+        assertThat(underTest.createSession(true, Session.AUTO_ACKNOWLEDGE)).isSameAs(session2);
+    }
+
+    @Test
+    public void sessions_are_created_on_the_next_stripe_during_a_reconnection() throws JMSException {
+        Mockito.when(stripe1.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenThrow(new JMSException("not ready"));
+        Mockito.when(stripe2.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(session2);
+        StripedConnection underTest = createStripedConnection(JmsConfig.ConnectionConfig.StripingStrategy.ROUND_ROBIN);
+
+        assertThat(underTest.createSession(true, Session.AUTO_ACKNOWLEDGE)).isSameAs(session2);
+    }
+
+    @Test
+    public void generation_changes_when_any_stripe_reconnects() {
+        StripedConnection underTest = createStripedConnection(JmsConfig.ConnectionConfig.StripingStrategy.ROUND_ROBIN);
+        int generation = underTest.getGeneration();
+        Mockito.when(stripe2.getGeneration()).thenReturn(1);
+        assertThat(underTest.getGeneration()).isNotEqualTo(generation);
+    }
+
+    private StripedConnection createStripedConnection(JmsConfig.ConnectionConfig.StripingStrategy stripingStrategy) {
+        return new StripedConnection("connection", Lists.newArrayList(stripe1, stripe2), stripingStrategy);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class BackoffIdleStrategyTest {
+    @Test
+    public void park_period_doubles_after_spins_and_yields() {
+        BackoffIdleStrategy underTest = new BackoffIdleStrategy(2, 1, 1, 4);
+        for (int i = 0; i < 3; i++) {
+            underTest.idle();
+            assertThat(underTest.getParkPeriod()).isEqualTo(1000);
+        }
+        underTest.idle();
+        assertThat(underTest.getParkPeriod()).isEqualTo(2000);
+        underTest.idle();
+        underTest.idle();
+        assertThat(underTest.getParkPeriod()).isEqualTo(4000);
+    }
+
+    @Test
+    public void reset_restarts_from_spinning() {
+        BackoffIdleStrategy underTest = new BackoffIdleStrategy(0, 0, 1, 1000);
+        underTest.idle();
+        underTest.idle();
+        underTest.reset();
+        assertThat(underTest.getParkPeriod()).isEqualTo(1000);
+    }
+}
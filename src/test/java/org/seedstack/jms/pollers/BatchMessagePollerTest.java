@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.BatchMessageListener;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchMessagePollerTest {
+    private BatchMessagePoller underTest;
+    private List<Integer> batchSizes = new ArrayList<>();
+    private List<Message> pending = new ArrayList<>();
+    private List<Message> unacknowledged = new ArrayList<>();
+    private Set<Message> redelivered = new HashSet<>();
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer messageConsumer;
+    @Mock
+    private Message message;
+
+    @Before
+    public void setUp() throws JMSException {
+        Mockito.when(messageConsumer.receive(anyLong())).thenReturn(message);
+        underTest = new BatchMessagePoller();
+        underTest.setSession(session);
+        underTest.setMessageConsumer(messageConsumer);
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig().setBatchSize(8));
+    }
+
+    @Test
+    public void messages_are_processed_by_batches() throws JMSException {
+        underTest.setMessageListener(listener(0, 1));
+        underTest.poll();
+        underTest.poll();
+        assertThat(batchSizes).containsExactly(8, 8);
+        Mockito.verify(session, Mockito.times(2)).commit();
+    }
+
+    @Test
+    public void batch_ends_when_no_more_messages_are_available() throws JMSException {
+        Mockito.when(messageConsumer.receive(anyLong())).thenReturn(message, message, message, null);
+        underTest.setMessageListener(listener(0, 1));
+        underTest.poll();
+        assertThat(batchSizes).containsExactly(3);
+    }
+
+    @Test
+    public void failed_batches_are_bisected_until_processed() throws JMSException {
+        deliver(messages("m", 16), true);
+        underTest.setMessageListener(listener(2, 3));
+        for (int i = 0; i < 7; i++) {
+            underTest.poll();
+        }
+        // The 8 messages of the failed batch are processed 2 by 2, then the batch size is restored
+        assertThat(batchSizes).containsExactly(8, 4, 2, 2, 2, 2, 8);
+        Mockito.verify(session, Mockito.times(2)).rollback();
+        Mockito.verify(session, Mockito.times(5)).commit();
+    }
+
+    @Test
+    public void new_messages_received_with_the_redeliveries_do_not_end_the_bisection() throws JMSException {
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig().setBatchSize(4));
+        List<Message> failed = messages("m", 4);
+        List<Message> others = messages("n", 8);
+        deliver(failed, true);
+        underTest.setMessageListener(listener(1, 3));
+        underTest.poll();
+        // A new message is received between the redeliveries
+        pending.add(1, others.get(0));
+        pending.addAll(others.subList(1, others.size()));
+        for (int i = 0; i < 4; i++) {
+            underTest.poll();
+        }
+        // The last redelivered message is still processed in a half batch
+        assertThat(batchSizes).containsExactly(4, 2, 2, 2, 4);
+    }
+
+    @Test
+    public void bisection_ends_when_the_failed_messages_are_redelivered_elsewhere() throws JMSException {
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig().setBatchSize(4));
+        deliver(messages("m", 4), false);
+        underTest.setMessageListener(listener(1, 3));
+        underTest.poll();
+        pending.addAll(messages("n", 6));
+        underTest.poll();
+        underTest.poll();
+        assertThat(batchSizes).containsExactly(4, 2, 4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failure_of_a_single_message_is_propagated() throws JMSException {
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig().setBatchSize(1));
+        underTest.setMessageListener(listener(1, 1));
+        underTest.poll();
+    }
+
+    private List<Message> messages(String prefix, int count) throws JMSException {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Message message = Mockito.mock(Message.class);
+            Mockito.lenient().when(message.getJMSMessageID()).thenReturn("ID:" + prefix + i);
+            Mockito.lenient().when(message.getJMSRedelivered())
+                    .thenAnswer(invocation -> redelivered.contains(invocation.getMock()));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    /**
+     * Delivers messages like a provider: rollbacked messages are redelivered first if they are redelivered to this
+     * consumer, or are never seen again otherwise.
+     */
+    private void deliver(List<Message> messages, boolean redeliverHere) throws JMSException {
+        pending.addAll(messages);
+        Mockito.when(messageConsumer.receive(anyLong())).thenAnswer(invocation -> receive());
+        Mockito.lenient().when(messageConsumer.receiveNoWait()).thenAnswer(invocation -> receive());
+        Mockito.lenient().doAnswer(invocation -> {
+            unacknowledged.clear();
+            return null;
+        }).when(session).commit();
+        Mockito.doAnswer(invocation -> {
+            if (redeliverHere) {
+                redelivered.addAll(unacknowledged);
+                pending.addAll(0, unacknowledged);
+            }
+            unacknowledged.clear();
+            return null;
+        }).when(session).rollback();
+    }
+
+    private Message receive() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        Message message = pending.remove(0);
+        unacknowledged.add(message);
+        return message;
+    }
+
+    private BatchMessageListener listener(int failures, int minFailingSize) {
+        return new BatchMessageListener() {
+            private int remainingFailures = failures;
+
+            @Override
+            public void onMessages(List<Message> messages) {
+                batchSizes.add(messages.size());
+                if (remainingFailures > 0 && messages.size() >= minFailingSize) {
+                    remainingFailures--;
+                    throw new IllegalStateException("Batch failure");
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.jms.JmsConfig;
+
+public class GroupCommitControllerTest {
+    private static final long FAST_COMMIT = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_COMMIT = TimeUnit.MILLISECONDS.toNanos(100);
+    private GroupCommitController underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new GroupCommitController(new JmsConfig.ListenerConfig()
+                .setMaxCommitBatchSize(4)
+                .setCommitInterval(60000)
+                .setCommitLatencyTarget(50));
+    }
+
+    @Test
+    public void commit_is_due_when_batch_size_is_reached() {
+        assertThat(underTest.isCommitDue()).isFalse();
+        underTest.messageProcessed();
+        assertThat(underTest.isCommitDue()).isTrue();
+        underTest.committed(FAST_COMMIT);
+        underTest.messageProcessed();
+        assertThat(underTest.isCommitDue()).isFalse();
+        underTest.messageProcessed();
+        assertThat(underTest.isCommitDue()).isTrue();
+    }
+
+    @Test
+    public void commit_is_due_when_commit_interval_has_elapsed() {
+        underTest = new GroupCommitController(new JmsConfig.ListenerConfig()
+                .setMaxCommitBatchSize(4)
+                .setCommitInterval(0));
+        underTest.committed(FAST_COMMIT);
+        underTest.messageProcessed();
+        assertThat(underTest.getBatchSize()).isEqualTo(2);
+        assertThat(underTest.isCommitDue()).isTrue();
+    }
+
+    @Test
+    public void batch_size_increases_additively_up_to_the_maximum() {
+        for (int i = 0; i < 10; i++) {
+            underTest.committed(FAST_COMMIT);
+        }
+        assertThat(underTest.getBatchSize()).isEqualTo(4);
+    }
+
+    @Test
+    public void batch_size_decreases_multiplicatively_on_slow_commit_or_rollback() {
+        for (int i = 0; i < 3; i++) {
+            underTest.committed(FAST_COMMIT);
+        }
+        underTest.committed(SLOW_COMMIT);
+        assertThat(underTest.getBatchSize()).isEqualTo(2);
+        underTest.rolledBack();
+        assertThat(underTest.getBatchSize()).isEqualTo(1);
+        underTest.rolledBack();
+        assertThat(underTest.getBatchSize()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HandOffMessagePollerTest {
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer messageConsumer;
+    @Mock
+    private Message message1;
+    @Mock
+    private Message message2;
+    @Mock
+    private Message message3;
+    private HandOffMessagePoller underTest;
+
+    @After
+    public void tearDown() {
+        if (underTest != null) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    public void messages_are_acknowledged_once_all_of_them_are_processed() throws Exception {
+        receive(message1, message2, message3);
+        CountDownLatch processing = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+
+        start(message -> {
+            processing.countDown();
+            if (message == message1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        assertThat(processing.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        Mockito.verify(message3, Mockito.never()).acknowledge();
+
+        release.countDown();
+        Mockito.verify(message3, Mockito.timeout(5000)).acknowledge();
+        Mockito.verify(message1, Mockito.never()).acknowledge();
+        Mockito.verify(message2, Mockito.never()).acknowledge();
+    }
+
+    @Test
+    public void a_failure_recovers_the_session_without_acknowledging_the_failed_message() throws Exception {
+        receive(message1, message2, message3);
+
+        start(message -> {
+            if (message == message2) {
+                throw new IllegalStateException("Processing failure");
+            }
+        });
+
+        Mockito.verify(session, Mockito.timeout(5000)).recover();
+        Mockito.verify(message2, Mockito.never()).acknowledge();
+        Mockito.verify(message3, Mockito.never()).acknowledge();
+    }
+
+    @Test
+    public void an_error_recovers_the_session_and_polling_resumes() throws Exception {
+        Queue<Message> messages = new ConcurrentLinkedQueue<>();
+        messages.add(message1);
+        messages.add(message2);
+        Mockito.when(messageConsumer.receive(anyLong())).thenAnswer(invocation -> {
+            Message message = messages.poll();
+            if (message == null) {
+                Thread.sleep(5);
+            }
+            return message;
+        });
+        AtomicBoolean failed = new AtomicBoolean();
+        CountDownLatch processed = new CountDownLatch(1);
+
+        start(message -> {
+            if (message == message2 && !failed.getAndSet(true)) {
+                throw new AssertionError("Processing error");
+            } else if (message == message3) {
+                processed.countDown();
+            }
+        }, 10);
+
+        Mockito.verify(session, Mockito.timeout(5000)).recover();
+        Mockito.verify(message2, Mockito.never()).acknowledge();
+
+        messages.add(message3);
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        Mockito.verify(message3, Mockito.timeout(5000)).acknowledge();
+    }
+
+    @Test
+    public void workers_are_created_by_the_worker_thread_factory() throws Exception {
+        receive(message1);
+        Map<String, AtomicInteger> requestedPurposes = new ConcurrentHashMap<>();
+        AtomicReference<String> processingThread = new AtomicReference<>();
+        CountDownLatch processed = new CountDownLatch(1);
+
+        underTest = new HandOffMessagePoller();
+        underTest.setThreadFactories(purpose -> {
+            requestedPurposes.computeIfAbsent(purpose, p -> new AtomicInteger()).incrementAndGet();
+            return runnable -> new Thread(runnable, "test-" + purpose);
+        });
+        start(message -> {
+            processingThread.set(Thread.currentThread().getName());
+            processed.countDown();
+        }, 60000);
+
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(requestedPurposes).containsOnlyKeys("worker");
+        assertThat(processingThread.get()).isEqualTo("test-worker");
+    }
+
+    private void start(MessageListener messageListener) {
+        start(messageListener, 60000);
+    }
+
+    private void start(MessageListener messageListener, int restartDelay) {
+        if (underTest == null) {
+            underTest = new HandOffMessagePoller();
+        }
+        underTest.setSession(session);
+        underTest.setMessageConsumer(messageConsumer);
+        underTest.setMessageListener(messageListener);
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig()
+                .setDispatchThreads(2)
+                .setRestartDelay(restartDelay));
+        underTest.start();
+    }
+
+    private void receive(Message first, Message... others) throws JMSException {
+        Mockito.when(messageConsumer.receive(anyLong())).thenReturn(first, others).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IdleStrategyMessagePollerTest {
+    private IdleStrategyMessagePoller underTest;
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer messageConsumer;
+    @Mock
+    private MessageListener messageListener;
+    @Mock
+    private Message message;
+
+    @Before
+    public void setUp() {
+        underTest = new IdleStrategyMessagePoller();
+        underTest.setSession(session);
+        underTest.setMessageConsumer(messageConsumer);
+        underTest.setMessageListener(messageListener);
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig().setIdleStrategy(IdleStrategyType.SPIN));
+    }
+
+    @Test
+    public void received_messages_are_processed_and_committed() throws JMSException {
+        Mockito.when(messageConsumer.receiveNoWait()).thenReturn(null, message);
+        underTest.poll();
+        Mockito.verify(messageListener, Mockito.never()).onMessage(message);
+        underTest.poll();
+        Mockito.verify(messageListener).onMessage(message);
+        Mockito.verify(session).commit();
+        Mockito.verify(messageConsumer, Mockito.never()).receive(Mockito.anyLong());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KeyOrderedMessagePollerTest {
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer messageConsumer;
+    private KeyOrderedMessagePoller underTest;
+
+    @After
+    public void tearDown() {
+        if (underTest != null) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    public void messages_with_the_same_key_are_processed_in_order_by_the_same_worker() throws Exception {
+        receive(message("A", 1), message("B", 1), message("A", 2), message("B", 2), message("A", 3),
+                message("B", 3));
+        CountDownLatch processed = new CountDownLatch(6);
+        Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+        Map<String, List<String>> threads = new ConcurrentHashMap<>();
+
+        start(message -> {
+            try {
+                String key = message.getStringProperty(GroupIdKeyExtractor.JMSX_GROUP_ID);
+                sequences.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(message.getIntProperty("seq"));
+                threads.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(Thread.currentThread().getName());
+            } catch (JMSException e) {
+                throw new IllegalStateException(e);
+            }
+            processed.countDown();
+        });
+
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        Mockito.verify(session, Mockito.timeout(5000)).commit();
+        assertThat(sequences.get("A")).containsExactly(1, 2, 3);
+        assertThat(sequences.get("B")).containsExactly(1, 2, 3);
+        assertThat(threads.get("A")).containsOnly(threads.get("A").get(0));
+        assertThat(threads.get("B")).containsOnly(threads.get("B").get(0));
+        assertThat(threads.get("A").get(0)).isNotEqualTo(threads.get("B").get(0));
+        assertThat(threads.get("A").get(0)).startsWith("jms-dispatcher-");
+    }
+
+    @Test
+    public void a_failure_skips_the_rest_of_the_window_and_rollbacks_it() throws Exception {
+        receive(message("A", 1), message("A", 2), message("A", 3));
+        AtomicInteger invocations = new AtomicInteger();
+
+        start(message -> {
+            invocations.incrementAndGet();
+            throw new IllegalStateException("Processing failure");
+        });
+
+        Mockito.verify(session, Mockito.timeout(5000)).rollback();
+        Mockito.verify(session, Mockito.never()).commit();
+        assertThat(invocations.get()).isEqualTo(1);
+    }
+
+    private void start(MessageListener messageListener) {
+        underTest = new KeyOrderedMessagePoller();
+        underTest.setSession(session);
+        underTest.setMessageConsumer(messageConsumer);
+        underTest.setMessageListener(messageListener);
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig()
+                .setDispatchThreads(2)
+                .setRestartDelay(60000));
+        underTest.start();
+    }
+
+    private void receive(Message first, Message... others) throws JMSException {
+        Mockito.when(messageConsumer.receive(anyLong())).thenReturn(first).thenAnswer(invocation -> {
+            Thread.sleep(Long.MAX_VALUE);
+            return null;
+        });
+        Message[] noWait = new Message[others.length];
+        System.arraycopy(others, 1, noWait, 0, others.length - 1);
+        Mockito.when(messageConsumer.receiveNoWait()).thenReturn(others[0], noWait);
+    }
+
+    private Message message(String key, int seq) throws JMSException {
+        Message message = Mockito.mock(Message.class);
+        Mockito.when(message.getStringProperty(GroupIdKeyExtractor.JMSX_GROUP_ID)).thenReturn(key);
+        Mockito.lenient().when(message.getIntProperty("seq")).thenReturn(seq);
+        return message;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.seedstack.jms.JmsConfig;
+
+public class SharedPollerSchedulerTest {
+    private SharedPollerScheduler underTest;
+
+    @Before
+    public void setUp() {
+        underTest = new SharedPollerScheduler(new JmsConfig.SharedPollingConfig()
+                .setThreads(1)
+                .setQuota(5)
+                .setMaxIdleDelay(10));
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    public void busy_destination_does_not_starve_others() throws Exception {
+        // The busy consumer always has a message available
+        MessageConsumer busyConsumer = Mockito.mock(MessageConsumer.class);
+        Mockito.when(busyConsumer.receiveNoWait()).thenReturn(Mockito.mock(Message.class));
+        SharedMessagePoller busyPoller = createPoller(busyConsumer, message -> {
+        });
+
+        MessageConsumer quietConsumer = Mockito.mock(MessageConsumer.class);
+        Mockito.when(quietConsumer.receiveNoWait()).thenReturn(null, null, Mockito.mock(Message.class), null);
+        CountDownLatch received = new CountDownLatch(1);
+        SharedMessagePoller quietPoller = createPoller(quietConsumer, message -> received.countDown());
+
+        busyPoller.start();
+        quietPoller.start();
+        try {
+            assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            busyPoller.stop();
+            quietPoller.stop();
+        }
+    }
+
+    @Test
+    public void stopped_poller_is_not_polled_anymore() throws Exception {
+        MessageConsumer consumer = Mockito.mock(MessageConsumer.class);
+        SharedMessagePoller poller = createPoller(consumer, message -> {
+        });
+
+        poller.start();
+        Mockito.verify(consumer, Mockito.timeout(1000).atLeastOnce()).receiveNoWait();
+        poller.stop();
+        Thread.sleep(50);
+        Mockito.clearInvocations(consumer);
+        Thread.sleep(50);
+        Mockito.verify(consumer, Mockito.never()).receiveNoWait();
+    }
+
+    @Test
+    public void error_in_a_turn_does_not_stop_the_polling_thread() throws Exception {
+        MessageConsumer consumer = Mockito.mock(MessageConsumer.class);
+        Mockito.when(consumer.receiveNoWait())
+                .thenThrow(new AssertionError("Failed"))
+                .thenReturn(Mockito.mock(Message.class), null);
+        CountDownLatch received = new CountDownLatch(1);
+        SharedMessagePoller poller = createPoller(consumer, message -> received.countDown());
+        poller.setListenerConfig(new JmsConfig.ListenerConfig().setRestartDelay(0));
+
+        poller.start();
+        try {
+            assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            poller.stop();
+        }
+    }
+
+    @Test
+    public void stop_waits_for_the_running_turn_and_ignores_its_failure() throws Exception {
+        MessageConsumer consumer = Mockito.mock(MessageConsumer.class);
+        Mockito.when(consumer.receiveNoWait()).thenReturn(Mockito.mock(Message.class));
+        CountDownLatch processing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SharedMessagePoller poller = createPoller(consumer, message -> {
+            processing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Session session = Mockito.mock(Session.class);
+        Mockito.doThrow(new JMSException("Closed")).when(session).commit();
+        poller.setSession(session);
+        ExceptionListener exceptionListener = Mockito.mock(ExceptionListener.class);
+        poller.setExceptionListener(exceptionListener);
+
+        poller.start();
+        assertThat(processing.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread stopping = new Thread(poller::stop);
+        stopping.start();
+        stopping.join(100);
+        assertThat(stopping.isAlive()).isTrue();
+        release.countDown();
+        stopping.join(5000);
+
+        assertThat(stopping.isAlive()).isFalse();
+        Mockito.verify(session, Mockito.after(100).never()).rollback();
+        Mockito.verify(exceptionListener, Mockito.never()).onException(ArgumentMatchers.any(JMSException.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void pollers_cannot_start_after_shutdown() throws JMSException {
+        underTest.shutdown();
+        createPoller(Mockito.mock(MessageConsumer.class), message -> {
+        }).start();
+    }
+
+    private SharedMessagePoller createPoller(MessageConsumer consumer, javax.jms.MessageListener listener) {
+        SharedMessagePoller poller = new SharedMessagePoller();
+        poller.setSharedPollerScheduler(underTest);
+        poller.setSession(Mockito.mock(Session.class));
+        poller.setMessageConsumer(consumer);
+        poller.setMessageListener(listener);
+        return poller;
+    }
+}
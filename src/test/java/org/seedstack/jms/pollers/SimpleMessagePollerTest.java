@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.jms.JmsConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SimpleMessagePollerTest {
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer messageConsumer;
+    @Mock
+    private MessageListener messageListener;
+    @Mock
+    private ExceptionListener exceptionListener;
+    @Mock
+    private Message message1;
+    @Mock
+    private Message message2;
+    @Mock
+    private Message message3;
+
+    @Test
+    public void stop_interrupts_a_blocked_receive_without_notifying_the_exception_listener() throws Exception {
+        CountDownLatch receiving = new CountDownLatch(1);
+        Mockito.when(messageConsumer.receive(anyLong())).thenAnswer(invocation -> {
+            receiving.countDown();
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                throw new JMSException("Interrupted");
+            }
+            return null;
+        });
+        AtomicReference<Thread> pollingThread = new AtomicReference<>();
+
+        SimpleMessagePoller underTest = new SimpleMessagePoller();
+        underTest.setSession(session);
+        underTest.setMessageConsumer(messageConsumer);
+        underTest.setMessageListener(messageListener);
+        underTest.setExceptionListener(exceptionListener);
+        underTest.setThreadFactory(runnable -> {
+            pollingThread.set(new Thread(runnable));
+            return pollingThread.get();
+        });
+
+        underTest.start();
+        assertThat(receiving.await(5, TimeUnit.SECONDS)).isTrue();
+        underTest.stop();
+        pollingThread.get().join(5000);
+
+        assertThat(pollingThread.get().isAlive()).isFalse();
+        Mockito.verify(exceptionListener, Mockito.never()).onException(any(JMSException.class));
+    }
+
+    @Test
+    public void pending_messages_are_committed_before_receiving_a_message_arriving_while_the_commit_is_due()
+            throws Exception {
+        Mockito.when(session.getTransacted()).thenReturn(true);
+        Mockito.when(messageConsumer.receive(anyLong())).thenReturn(message1, message2, message3);
+        Mockito.doThrow(new IllegalStateException("Failed")).when(messageListener).onMessage(message3);
+
+        SimpleMessagePoller underTest = new SimpleMessagePoller();
+        underTest.setSession(session);
+        underTest.setMessageConsumer(messageConsumer);
+        underTest.setMessageListener(messageListener);
+        underTest.setListenerConfig(new JmsConfig.ListenerConfig()
+                .setMaxCommitBatchSize(10)
+                .setCommitInterval(20)
+                .setCommitLatencyTarget(60000));
+
+        // The first group has a single message, the second one waits for more messages
+        underTest.poll();
+        underTest.poll();
+        // The third message is available when the commit of the second one is due
+        Thread.sleep(50);
+        underTest.poll();
+        try {
+            underTest.poll();
+            fail("should have failed");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("Failed");
+        }
+
+        InOrder inOrder = Mockito.inOrder(session, messageConsumer, messageListener);
+        inOrder.verify(messageListener).onMessage(message1);
+        inOrder.verify(session).commit();
+        inOrder.verify(messageListener).onMessage(message2);
+        inOrder.verify(session).commit();
+        inOrder.verify(messageConsumer).receive(anyLong());
+        inOrder.verify(messageListener).onMessage(message3);
+        Mockito.verify(session, Mockito.times(2)).commit();
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.pollers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+    @Test
+    public void factory_is_only_available_when_supported() {
+        Optional<ThreadFactory> threadFactory = VirtualThreads.createFactory("test-");
+        assertThat(threadFactory.isPresent()).isEqualTo(VirtualThreads.isSupported());
+        threadFactory.ifPresent(factory -> assertThat(factory.newThread(() -> {
+        }).getName()).isEqualTo("test-0"));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2013-2020, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.jms.reconnection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ExponentialBackoffPolicyTest {
+    @Test
+    public void delay_grows_up_to_the_maximum() {
+        ExponentialBackoffPolicy underTest = new ExponentialBackoffPolicy(100, 1000, 2, 0, 0);
+        assertThat(underTest.getDelay(1)).isEqualTo(100);
+        assertThat(underTest.getDelay(2)).isEqualTo(200);
+        assertThat(underTest.getDelay(4)).isEqualTo(800);
+        assertThat(underTest.getDelay(5)).isEqualTo(1000);
+        assertThat(underTest.getDelay(100)).isEqualTo(1000);
+    }
+
+    @Test
+    public void jitter_removes_up_to_its_fraction_of_the_delay() {
+        ExponentialBackoffPolicy underTest = new ExponentialBackoffPolicy(1000, 1000, 2, 0.5, 0);
+        for (int i = 0; i < 100; i++) {
+            assertThat(underTest.getDelay(1)).isBetween(500L, 1000L);
+        }
+    }
+
+    @Test
+    public void circuit_opens_at_the_threshold() {
+        assertThat(new ExponentialBackoffPolicy(0, 0, 1, 0, 3).isCircuitOpen(2)).isFalse();
+        assertThat(new ExponentialBackoffPolicy(0, 0, 1, 0, 3).isCircuitOpen(3)).isTrue();
+        assertThat(new ExponentialBackoffPolicy(0, 0, 1, 0, 0).isCircuitOpen(100)).isFalse();
+    }
+}